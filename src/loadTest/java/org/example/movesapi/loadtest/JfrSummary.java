@@ -0,0 +1,125 @@
+package org.example.movesapi.loadtest;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Summarizes a Flight Recorder recording of the API into latency tables per operation.
+ * <p>
+ * Reads the {@code kmdb.*} events (see {@code src/main/resources/jfr/kmdb.jfc}) and prints, per
+ * CRUD operation, repository method, SQL statement and cached route, the count, failures,
+ * mean rows and p50/p99/max duration. Tables are ordered by total time, so the top rows are
+ * where the time went.
+ * <p>
+ * Usage: {@code JfrSummary recording.jfr [--top=20]}
+ */
+public class JfrSummary {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    public static void main(String[] args) throws Exception {
+        Path file = null;
+        int top = 20;
+        for (String arg : args) {
+            if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(arg.substring("--top=".length()));
+            } else {
+                file = Path.of(arg);
+            }
+        }
+        if (file == null) {
+            System.err.println("Usage: JfrSummary recording.jfr [--top=20]");
+            System.exit(2);
+        }
+
+        Map<String, Table> tables = new LinkedHashMap<>();
+        tables.put("kmdb.CrudOperation", new Table("CRUD operation", event -> join(
+                event.getString("entityType") + "." + event.getString("operation"),
+                event.getString("filterKey"))));
+        tables.put("kmdb.RepositoryQuery", new Table("repository query", event ->
+                event.getString("repository") + "." + event.getString("method")));
+        tables.put("kmdb.SqlStatement", new Table("SQL statement", event -> event.getString("sql")));
+        tables.put("kmdb.ResponseCache", new Table("response cache", event ->
+                event.getString("route") + (event.getBoolean("hit") ? " HIT" : " MISS")));
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                Table table = tables.get(event.getEventType().getName());
+                if (table != null) {
+                    table.add(event);
+                }
+            }
+        }
+        for (Table table : tables.values()) {
+            table.print(top);
+        }
+    }
+
+    private static String join(String operation, String filterKey) {
+        return filterKey == null ? operation : operation + " [" + filterKey + "]";
+    }
+
+    private static final class Table {
+
+        private final String title;
+        private final Function<RecordedEvent, String> key;
+        private final Map<String, Row> rows = new HashMap<>();
+
+        Table(String title, Function<RecordedEvent, String> key) {
+            this.title = title;
+            this.key = key;
+        }
+
+        void add(RecordedEvent event) {
+            Row row = rows.computeIfAbsent(key.apply(event), k -> new Row());
+            long nanos = Math.min(event.getDuration().toNanos(), MAX_TRACKABLE_NANOS);
+            row.histogram.recordValue(Math.max(nanos, 1));
+            row.totalNanos += nanos;
+            if (event.hasField("failed") && event.getBoolean("failed")) {
+                row.failed++;
+            }
+            if (event.hasField("rows")) {
+                row.rows += event.getInt("rows");
+            }
+        }
+
+        void print(int top) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            System.out.printf("%n%-60s %8s %7s %7s %10s %10s %10s %10s%n",
+                    title, "count", "failed", "rows", "total ms", "p50 ms", "p99 ms", "max ms");
+            rows.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, Row> e) -> e.getValue().totalNanos).reversed())
+                    .limit(top)
+                    .forEach(e -> {
+                        Row row = e.getValue();
+                        Histogram h = row.histogram;
+                        System.out.printf("%-60s %8d %7d %7.1f %10.1f %10.3f %10.3f %10.3f%n",
+                                abbreviate(e.getKey(), 60), h.getTotalCount(), row.failed,
+                                (double) row.rows / h.getTotalCount(), row.totalNanos / 1e6,
+                                h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6, h.getMaxValue() / 1e6);
+                    });
+        }
+
+        private static String abbreviate(String text, int width) {
+            String line = text.replaceAll("\\s+", " ");
+            return line.length() <= width ? line : line.substring(0, width - 3) + "...";
+        }
+    }
+
+    private static final class Row {
+
+        final Histogram histogram = new Histogram(MAX_TRACKABLE_NANOS, 3);
+        long totalNanos;
+        long failed;
+        long rows;
+    }
+}
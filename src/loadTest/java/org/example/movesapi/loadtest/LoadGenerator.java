@@ -0,0 +1,257 @@
+package org.example.movesapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.movesapi.MovesApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the Movies API.
+ * <p>
+ * Boots the application in-process on a random port against its own SQLite file,
+ * then sends requests at a fixed rate regardless of how fast responses come back.
+ * Latency is measured from the moment a request was <em>scheduled</em>, so a stalled
+ * server shows up in the percentiles instead of silently lowering the request rate
+ * (no coordinated omission).
+ * <p>
+ * Options (all optional):
+ * <pre>
+ * --rate=200                 requests per second
+ * --duration=30              measured seconds
+ * --warmup=5                 seconds of load before measuring
+ * --trace=requests.jsonl     replay a JSONL trace instead of the synthetic mix
+ * --mix=list:40,get:25,filter:20,post:5,patch:5,delete:5
+ * --seed-db=seed.sqlite      copy this file as the starting database (otherwise DataLoader seeds an empty one)
+ * --db=build/loadtest/loadtest.sqlite
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("admin:admin".getBytes(StandardCharsets.UTF_8));
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+
+    LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+
+        Path db = Path.of(options.getOrDefault("db", "build/loadtest/loadtest.sqlite")).toAbsolutePath();
+        Files.createDirectories(db.getParent());
+        if (options.containsKey("seed-db")) {
+            Files.copy(Path.of(options.get("seed-db")), db, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(db);
+        }
+
+        ConfigurableApplicationContext app = SpringApplication.run(MovesApiApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:sqlite:" + db,
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off");
+        try {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator("http://localhost:" + port);
+
+            RequestSource source = options.containsKey("trace")
+                    ? RequestSource.trace(Path.of(options.get("trace")), generator.mapper)
+                    : RequestSource.synthetic(parseMix(options.getOrDefault("mix",
+                    "list:40,get:25,filter:20,post:5,patch:5,delete:5")), generator.sampleCatalog());
+
+            System.out.printf("Warming up for %ds at %d req/s%n", warmup, rate);
+            generator.run(source, rate, Duration.ofSeconds(warmup), false);
+            System.out.printf("Measuring for %ds at %d req/s%n", duration, rate);
+            long sent = generator.run(source, rate, Duration.ofSeconds(duration), true);
+            generator.report(sent, duration);
+        } finally {
+            app.close();
+        }
+    }
+
+    /**
+     * Sends requests on a fixed schedule for the given time and waits for the stragglers.
+     *
+     * @return the number of requests sent
+     */
+    long run(RequestSource source, int rate, Duration duration, boolean measure) throws InterruptedException {
+        measuring = measure;
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        AtomicLong inFlight = new AtomicLong();
+        long sent = 0;
+
+        for (long scheduled = start; scheduled < end; scheduled += interval) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadRequest request = source.next();
+            long intended = scheduled;
+            inFlight.incrementAndGet();
+            client.sendAsync(toHttp(request), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - intended;
+                        if (failure == null) {
+                            source.onResponse(request, response.statusCode(), response.headers().firstValue("Location"));
+                        }
+                        record(request, latency, failure == null ? response.statusCode() : -1);
+                        inFlight.decrementAndGet();
+                    });
+            sent++;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return sent;
+    }
+
+    private void record(LoadRequest request, long latencyNanos, int status) {
+        if (!measuring) {
+            return;
+        }
+        String endpoint = request.endpoint();
+        histograms.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3))
+                .recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        if (status < 0 || status >= 500) {
+            errors.computeIfAbsent(endpoint, e -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private void report(long sent, int seconds) {
+        long completed = histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        System.out.printf("%nSent %d, completed %d, throughput %.1f req/s%n%n", sent, completed, (double) completed / seconds);
+        System.out.printf("%-36s %8s %8s %10s %10s %10s %10s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        new TreeMap<>(histograms).forEach((endpoint, h) -> System.out.printf("%-36s %8d %8d %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint,
+                h.getTotalCount(),
+                errors.getOrDefault(endpoint, new AtomicLong()).get(),
+                millis(h.getValueAtPercentile(50)),
+                millis(h.getValueAtPercentile(99)),
+                millis(h.getValueAtPercentile(99.9)),
+                millis(h.getMaxValue())));
+    }
+
+    private HttpRequest toHttp(LoadRequest request) {
+        HttpRequest.BodyPublisher body = request.body() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(request.body());
+        return HttpRequest.newBuilder(URI.create(baseUrl + encodeQuery(request.path())))
+                .header("Authorization", AUTHORIZATION)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .method(request.method(), body)
+                .build();
+    }
+
+    /**
+     * Reads ids and names from the API so the synthetic mix only asks for existing data.
+     */
+    private RequestSource.Catalog sampleCatalog() throws Exception {
+        JsonNode movies = get("/movies?size=100");
+        JsonNode actors = get("/actors?size=100");
+        JsonNode genres = get("/genres?size=100");
+        List<Long> movieIds = new ArrayList<>();
+        List<Integer> years = new ArrayList<>();
+        movies.forEach(m -> {
+            movieIds.add(m.get("id").asLong());
+            years.add(m.get("releaseYear").asInt());
+        });
+        List<Long> actorIds = new ArrayList<>();
+        List<String> actorNames = new ArrayList<>();
+        actors.forEach(a -> {
+            actorIds.add(a.get("id").asLong());
+            actorNames.add(a.get("name").asText());
+        });
+        List<String> genreNames = new ArrayList<>();
+        genres.forEach(g -> genreNames.add(g.get("name").asText()));
+        if (movieIds.isEmpty() || actorIds.isEmpty() || genreNames.isEmpty()) {
+            throw new IllegalStateException("The seeded database has no movies, actors or genres");
+        }
+        return new RequestSource.Catalog(movieIds, actorIds, genreNames, actorNames, years);
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpResponse<String> response = client.send(toHttp(new LoadRequest("GET", path, null)),
+                HttpResponse.BodyHandlers.ofString());
+        return mapper.readTree(response.body());
+    }
+
+    // Names in filters contain spaces, which java.net.URI rejects
+    private static String encodeQuery(String path) {
+        int query = path.indexOf('?');
+        if (query < 0) {
+            return path;
+        }
+        StringJoiner params = new StringJoiner("&", path.substring(0, query + 1), "");
+        for (String param : path.substring(query + 1).split("&")) {
+            int eq = param.indexOf('=');
+            params.add(eq < 0 ? param : param.substring(0, eq + 1)
+                    + URLEncoder.encode(param.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.split(":");
+            weights.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.movesapi.loadtest;
+
+import java.util.regex.Pattern;
+
+/**
+ * One HTTP request to replay.
+ *
+ * @param method HTTP method (GET, POST, PATCH, DELETE)
+ * @param path   path and query, e.g. {@code /movies?filter=genre:Action}
+ * @param body   JSON body or {@code null}
+ */
+public record LoadRequest(String method, String path, String body) {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    /**
+     * Groups requests for reporting: numeric path segments become {@code {id}} and
+     * only the filter key is kept, e.g. {@code GET /movies?filter=genre}.
+     */
+    public String endpoint() {
+        int query = path.indexOf('?');
+        String route = NUMERIC_SEGMENT.matcher(query < 0 ? path : path.substring(0, query)).replaceAll("/{id}");
+        if (query >= 0) {
+            for (String param : path.substring(query + 1).split("&")) {
+                if (param.startsWith("filter=")) {
+                    int colon = param.indexOf(':');
+                    route += "?" + (colon < 0 ? param : param.substring(0, colon));
+                }
+            }
+        }
+        return method + " " + route;
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.movesapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Produces the next request to send. Called from the single pacing thread.
+ */
+public interface RequestSource {
+
+    LoadRequest next();
+
+    /**
+     * Lets the source learn from responses, e.g. ids of created entities. Called from client threads.
+     */
+    default void onResponse(LoadRequest request, int status, Optional<String> location) {
+    }
+
+    /**
+     * Replays a JSONL trace in order, wrapping around at the end.
+     * Each line is {@code {"method": "GET", "path": "/movies?page=0", "body": {...}}};
+     * {@code method} defaults to GET and {@code body} is optional.
+     */
+    static RequestSource trace(Path file, ObjectMapper mapper) throws IOException {
+        List<LoadRequest> requests = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = mapper.readTree(line);
+            JsonNode body = node.get("body");
+            requests.add(new LoadRequest(
+                    node.path("method").asText("GET").toUpperCase(Locale.ROOT),
+                    node.get("path").asText(),
+                    body == null || body.isNull() ? null : mapper.writeValueAsString(body)));
+        }
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Trace " + file + " contains no requests");
+        }
+        return new RequestSource() {
+            private int position;
+
+            @Override
+            public LoadRequest next() {
+                LoadRequest request = requests.get(position);
+                position = (position + 1) % requests.size();
+                return request;
+            }
+        };
+    }
+
+    /**
+     * Weighted random mix of list, get, filter, create, patch and delete requests
+     * over the ids and names found in the seeded catalog.
+     */
+    static RequestSource synthetic(Map<String, Integer> weights, Catalog catalog) {
+        return new Synthetic(weights, catalog);
+    }
+
+    /**
+     * Ids and names sampled from the running application before the load starts.
+     */
+    record Catalog(List<Long> movieIds, List<Long> actorIds, List<String> genreNames,
+                   List<String> actorNames, List<Integer> releaseYears) {
+    }
+
+    final class Synthetic implements RequestSource {
+        private final String[] operations;
+        private final int[] cumulativeWeights;
+        private final Catalog catalog;
+        private final Queue<Long> createdGenres = new ConcurrentLinkedQueue<>();
+        private long sequence;
+
+        Synthetic(Map<String, Integer> weights, Catalog catalog) {
+            this.catalog = catalog;
+            this.operations = weights.keySet().toArray(String[]::new);
+            this.cumulativeWeights = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += weights.get(operations[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        @Override
+        public LoadRequest next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            String operation = operations[0];
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (pick < cumulativeWeights[i]) {
+                    operation = operations[i];
+                    break;
+                }
+            }
+            return switch (operation) {
+                case "list" -> new LoadRequest("GET",
+                        (random.nextBoolean() ? "/movies" : "/actors") + "?page=" + random.nextInt(5) + "&size=20", null);
+                case "get" -> new LoadRequest("GET", "/movies/" + pick(catalog.movieIds()), null);
+                case "filter" -> filter(random);
+                case "post" -> post();
+                case "patch" -> new LoadRequest("PATCH", "/movies/" + pick(catalog.movieIds()),
+                        "{\"duration\":" + (90 + random.nextInt(90)) + "}");
+                case "delete" -> {
+                    Long id = createdGenres.poll();
+                    yield id == null ? post() : new LoadRequest("DELETE", "/genres/" + id, null);
+                }
+                default -> throw new IllegalArgumentException("Unknown operation in mix: " + operation);
+            };
+        }
+
+        @Override
+        public void onResponse(LoadRequest request, int status, Optional<String> location) {
+            if (request.method().equals("POST") && status == 201) {
+                location.ifPresent(uri -> createdGenres.add(Long.parseLong(uri.substring(uri.lastIndexOf('/') + 1))));
+            }
+        }
+
+        private LoadRequest filter(ThreadLocalRandom random) {
+            String filter = switch (random.nextInt(3)) {
+                case 0 -> "genre:" + pick(catalog.genreNames());
+                case 1 -> "actor:" + pick(catalog.actorNames());
+                default -> "releaseYear:" + pick(catalog.releaseYears());
+            };
+            return new LoadRequest("GET", "/movies?filter=" + filter, null);
+        }
+
+        private LoadRequest post() {
+            return new LoadRequest("POST", "/genres", "{\"name\":\"load-" + (sequence++) + "\"}");
+        }
+
+        private static <T> T pick(List<T> values) {
+            return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.movesapi.loadtest;
+
+import org.example.movesapi.MovesApiApplication;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.service.CRUDService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the SQLite and journal storage modes on write throughput and restart time.
+ * <p>
+ * For each mode the application is booted against fresh storage (copies of the same seed
+ * database), {@code --threads} writers create {@code --writes} movies through the movie
+ * {@link CRUDService} (no HTTP, so only storage is measured), and the context is closed and
+ * booted again. The restart time includes the journal replay; snapshots on shutdown are off
+ * and {@code --snapshot-every} is large by default, so the journal case replays every write,
+ * as after a crash.
+ * <p>
+ * Options (all optional):
+ * <pre>
+ * --writes=20000             movies created per mode
+ * --threads=8                concurrent writers
+ * --snapshot-every=1000000   journal records between snapshots
+ * --seed-db=mydb.sqlite      starting database for both modes (otherwise DataLoader seeds an empty one)
+ * --dir=build/benchmark
+ * </pre>
+ */
+public class StorageBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        int writes = Integer.parseInt(options.getOrDefault("writes", "20000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        Path dir = Path.of(options.getOrDefault("dir", "build/benchmark")).toAbsolutePath();
+        FileSystemUtils.deleteRecursively(dir);
+        Files.createDirectories(dir);
+
+        List<String> sqlite = storage(dir.resolve("sqlite.sqlite"), options);
+        List<String> journal = new ArrayList<>(storage(dir.resolve("journal.sqlite"), options));
+        journal.add("--kmdb.journal.dir=" + dir.resolve("journal"));
+        journal.add("--kmdb.journal.snapshot-every=" + options.getOrDefault("snapshot-every", "1000000"));
+        journal.add("--kmdb.journal.snapshot-on-shutdown=false");
+
+        Result sqliteResult = run(sqlite, writes, threads);
+        Result journalResult = run(journal, writes, threads);
+
+        System.out.printf("%n%-10s %10s %12s %12s %12s%n", "storage", "writes", "writes/s", "p99 ms", "restart ms");
+        print("sqlite", sqliteResult);
+        print("journal", journalResult);
+    }
+
+    private static List<String> storage(Path db, Map<String, String> options) throws Exception {
+        if (options.containsKey("seed-db")) {
+            Files.copy(Path.of(options.get("seed-db")), db, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:sqlite:" + db,
+                "--spring.jpa.show-sql=false",
+                "--kmdb.sql-log.enabled=false",
+                "--kmdb.warmup.enabled=false",
+                "--spring.main.banner-mode=off");
+    }
+
+    private static Result run(List<String> args, int writes, int threads) throws Exception {
+        ConfigurableApplicationContext app = SpringApplication.run(MovesApiApplication.class, args.toArray(String[]::new));
+        Result result;
+        try {
+            CRUDService<Movie, Long> movies = movieService(app);
+            CRUDService<Genre, Long> genres = genreService(app);
+            Genre genre = genres.create(Genre.builder().name("Benchmark").build());
+            result = write(movies, genre, writes, threads);
+        } finally {
+            app.close();
+        }
+        long started = System.nanoTime();
+        SpringApplication.run(MovesApiApplication.class, args.toArray(String[]::new)).close();
+        return new Result(result.writes(), result.nanos(), result.p99Nanos(), System.nanoTime() - started);
+    }
+
+    private static Result write(CRUDService<Movie, Long> movies, Genre genre, int writes, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicLong next = new AtomicLong();
+        long[] latencies = new long[writes];
+        long started = System.nanoTime();
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(pool.submit(() -> {
+                for (long i = next.getAndIncrement(); i < writes; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    movies.create(Movie.builder()
+                            .name("Benchmark movie " + i)
+                            .releaseYear(1900 + (int) (i % 120))
+                            .duration(60 + (int) (i % 120))
+                            .genres(Set.of(genre))
+                            .build());
+                    latencies[(int) i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        Arrays.sort(latencies);
+        return new Result(writes, elapsed, latencies[Math.min(writes - 1, (int) (writes * 0.99))], 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CRUDService<Movie, Long> movieService(ConfigurableApplicationContext app) {
+        return (CRUDService<Movie, Long>) app.getBeanProvider(
+                ResolvableType.forClassWithGenerics(CRUDService.class, Movie.class, Long.class)).getObject();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CRUDService<Genre, Long> genreService(ConfigurableApplicationContext app) {
+        return (CRUDService<Genre, Long>) app.getBeanProvider(
+                ResolvableType.forClassWithGenerics(CRUDService.class, Genre.class, Long.class)).getObject();
+    }
+
+    private static void print(String storage, Result result) {
+        System.out.printf("%-10s %10d %12.0f %12.2f %12.0f%n", storage, result.writes(),
+                result.writes() / (result.nanos() / 1e9), result.p99Nanos() / 1e6, result.restartNanos() / 1e6);
+    }
+
+    private record Result(long writes, long nanos, long p99Nanos, long restartNanos) {
+    }
+}
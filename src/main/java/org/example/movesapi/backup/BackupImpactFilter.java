@@ -0,0 +1,40 @@
+package org.example.movesapi.backup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times every request for {@link BackupService}, which keeps the latency of requests served
+ * during a backup apart from all others.
+ * <p>
+ * Runs right after {@code StatusCounters}, so cached and rejected responses are timed too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+class BackupImpactFilter extends OncePerRequestFilter {
+
+    private final BackupService backups;
+
+    BackupImpactFilter(BackupService backups) {
+        this.backups = backups;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            backups.recordRequest(System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.example.movesapi.backup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.core.DB;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Online backups of the SQLite database while the API keeps serving.
+ * <p>
+ * Copying the database file while it is written can produce a torn copy, so backups go through
+ * the SQLite online backup API on a pooled connection. The copy is made {@code kmdb.backup.pages-per-step}
+ * pages at a time and the source is only locked during a step; between steps the backup pauses for
+ * {@code kmdb.backup.step-pause-ms}, so queued writers (see {@code WriteScheduler}) get the file.
+ * A write from another connection makes SQLite restart the copy; after
+ * {@code kmdb.backup.max-restarts} restarts the pauses are dropped so a busy database is still
+ * backed up, at the cost of writers waiting for the remaining steps.
+ * <p>
+ * The finished copy is checked with {@code PRAGMA quick_check}, gzipped to
+ * {@code kmdb-<timestamp>.db.gz} in {@code kmdb.backup.dir} and a {@code .sha256} file in
+ * {@code sha256sum} format is written next to it; only the newest {@code kmdb.backup.keep}
+ * backups are kept. Backups run one at a time on a background thread, on request or every
+ * {@code kmdb.backup.interval-minutes}.
+ * <p>
+ * Request latency is tracked separately while a backup runs and otherwise (see
+ * {@link BackupImpactFilter}), so the status shows what a backup costs the clients.
+ */
+@Component
+public class BackupService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BackupService.class);
+
+    static final String PREFIX = "kmdb-";
+    static final String SUFFIX = ".db.gz";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    // A step that finds the database locked by a committing writer is retried for about 5 s
+    private static final int BUSY_SLEEP_MILLIS = 10;
+    private static final int BUSY_RETRIES = 500;
+
+    private final DataSource dataSource;
+    private final Path dir;
+    private final int pagesPerStep;
+    private final long stepPauseMillis;
+    private final int maxRestarts;
+    private final int keep;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sqlite-backup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<RunState> current = new AtomicReference<>();
+    private volatile Run last;
+    private final LatencyStats outsideBackups = new LatencyStats();
+
+    public BackupService(DataSource dataSource,
+                         @Value("${kmdb.backup.dir:backups}") Path dir,
+                         @Value("${kmdb.backup.pages-per-step:64}") int pagesPerStep,
+                         @Value("${kmdb.backup.step-pause-ms:10}") long stepPauseMillis,
+                         @Value("${kmdb.backup.max-restarts:20}") int maxRestarts,
+                         @Value("${kmdb.backup.keep:7}") int keep,
+                         @Value("${kmdb.backup.interval-minutes:0}") long intervalMinutes) {
+        if (pagesPerStep < 1 || keep < 1) {
+            throw new IllegalArgumentException("kmdb.backup.pages-per-step and kmdb.backup.keep must be at least 1");
+        }
+        this.dataSource = dataSource;
+        this.dir = dir.toAbsolutePath();
+        this.pagesPerStep = pagesPerStep;
+        this.stepPauseMillis = stepPauseMillis;
+        this.maxRestarts = maxRestarts;
+        this.keep = keep;
+        if (intervalMinutes > 0) {
+            executor.scheduleWithFixedDelay(() -> start("schedule"), intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Starts a backup in the background.
+     *
+     * @return the new run, or empty if a backup is already running
+     */
+    public Optional<Run> start(String trigger) {
+        RunState run = new RunState(trigger);
+        if (!current.compareAndSet(null, run)) {
+            return Optional.empty();
+        }
+        executor.execute(() -> perform(run));
+        return Optional.of(run.snapshot());
+    }
+
+    /**
+     * Runs a backup on the calling thread.
+     *
+     * @throws IllegalStateException if a backup is already running
+     */
+    Run backup(String trigger) {
+        RunState run = new RunState(trigger);
+        if (!current.compareAndSet(null, run)) {
+            throw new IllegalStateException("A backup is already running");
+        }
+        perform(run);
+        return last;
+    }
+
+    /**
+     * The running backup if there is one, otherwise the last finished one, plus request latency
+     * outside backups for comparison and the backups on disk.
+     */
+    public Status status() {
+        RunState running = current.get();
+        return new Status(running != null ? running.snapshot() : last, outsideBackups.snapshot(), files());
+    }
+
+    /**
+     * Records one served request, against the running backup if there is one.
+     */
+    void recordRequest(long nanos) {
+        RunState running = current.get();
+        (running != null ? running.latency : outsideBackups).record(nanos);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void perform(RunState run) {
+        Path copy = dir.resolve(PREFIX + TIMESTAMP.format(run.startedAt) + ".db.tmp");
+        try {
+            Files.createDirectories(dir);
+            copy(run, copy);
+            verify(copy);
+            run.phase = Phase.COMPRESSING;
+            Path target = dir.resolve(PREFIX + TIMESTAMP.format(run.startedAt) + SUFFIX);
+            run.sha256 = compress(copy, target);
+            run.file = target.getFileName().toString();
+            run.compressedBytes = Files.size(target);
+            Files.writeString(dir.resolve(run.file + ".sha256"), run.sha256 + "  " + run.file + "\n");
+            prune();
+            run.phase = Phase.DONE;
+            log.info("Backup {} written: {} pages, {} bytes compressed, {} restarts, {} ms",
+                    run.file, run.pageCount, run.compressedBytes, run.restarts, run.elapsedMillis());
+        } catch (Exception e) {
+            run.phase = Phase.FAILED;
+            run.error = e.getMessage();
+            log.error("Backup failed", e);
+        } finally {
+            deleteQuietly(copy);
+            run.finishedNanos = System.nanoTime();
+            last = run.snapshot();
+            current.set(null);
+        }
+    }
+
+    private void copy(RunState run, Path copy) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DB db = connection.unwrap(SQLiteConnection.class).getDatabase();
+            AtomicLong previousRemaining = new AtomicLong(Long.MAX_VALUE);
+            int rc = db.backup("main", copy.toString(), (remaining, pageCount) -> {
+                run.pageCount = pageCount;
+                run.pagesRemaining = remaining;
+                // The source changed under the backup and SQLite started over
+                if (remaining > previousRemaining.getAndSet(remaining)) {
+                    run.restarts++;
+                }
+                if (remaining > 0 && run.restarts <= maxRestarts) {
+                    pause(stepPauseMillis);
+                }
+            }, BUSY_SLEEP_MILLIS, BUSY_RETRIES, pagesPerStep);
+            if (rc != SQLiteErrorCode.SQLITE_OK.code) {
+                throw new SQLException("Backup failed: " + SQLiteErrorCode.getErrorCode(rc));
+            }
+        }
+    }
+
+    private static void verify(Path copy) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + copy);
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("PRAGMA quick_check")) {
+            String outcome = result.next() ? result.getString(1) : "no result";
+            if (!"ok".equals(outcome)) {
+                throw new SQLException("Backup copy is damaged: " + outcome);
+            }
+        }
+    }
+
+    // Written to a temporary name and moved, so a listed backup is always complete
+    private static String compress(Path copy, Path target) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try (InputStream in = Files.newInputStream(copy);
+             OutputStream out = new GZIPOutputStream(new DigestOutputStream(Files.newOutputStream(partial), sha256), 1 << 16)) {
+            in.transferTo(out);
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    private void prune() throws IOException {
+        List<String> files = files();
+        for (String file : files.subList(Math.min(keep, files.size()), files.size())) {
+            Files.deleteIfExists(dir.resolve(file));
+            Files.deleteIfExists(dir.resolve(file + ".sha256"));
+        }
+    }
+
+    // Newest first; the timestamp in the name sorts chronologically
+    private List<String> files() {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .sorted((a, b) -> b.compareTo(a))
+                    .toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // a leftover temporary copy is overwritten by nothing and harmless
+        }
+    }
+
+    public enum Phase {COPYING, COMPRESSING, DONE, FAILED}
+
+    /**
+     * One backup; times in milliseconds. {@code file} and {@code sha256} are set once it is done.
+     */
+    public record Run(String trigger, Phase phase, Instant startedAt, double elapsedMillis,
+                      int pageCount, int pagesRemaining, int restarts,
+                      String file, long compressedBytes, String sha256, String error,
+                      Latency requestsDuringBackup) {
+    }
+
+    public record Status(Run backup, Latency requestsOutsideBackups, List<String> files) {
+    }
+
+    public record Latency(long requests, double meanMillis, double maxMillis) {
+    }
+
+    // Written by the backup thread only, read by status requests
+    private static final class RunState {
+
+        final String trigger;
+        final Instant startedAt = Instant.now();
+        final long startedNanos = System.nanoTime();
+        final LatencyStats latency = new LatencyStats();
+        volatile long finishedNanos;
+        volatile Phase phase = Phase.COPYING;
+        volatile int pageCount;
+        volatile int pagesRemaining;
+        volatile int restarts;
+        volatile String file;
+        volatile long compressedBytes;
+        volatile String sha256;
+        volatile String error;
+
+        RunState(String trigger) {
+            this.trigger = trigger;
+        }
+
+        double elapsedMillis() {
+            long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            return (end - startedNanos) / 1_000_000.0;
+        }
+
+        Run snapshot() {
+            return new Run(trigger, phase, startedAt, elapsedMillis(), pageCount, pagesRemaining, restarts,
+                    file, compressedBytes, sha256, error, latency.snapshot());
+        }
+    }
+
+    private static final class LatencyStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Latency snapshot() {
+            long requests = count.sum();
+            return new Latency(requests, requests == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / requests, maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.movesapi.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the ids and filters that get most of the traffic.
+ * <p>
+ * Every {@code findById} and movie {@code filter} call is counted in a count-min sketch: four rows
+ * of {@code kmdb.hot-keys.width} counters, each key incrementing one counter per row, the estimate
+ * being the smallest of the four. Memory stays fixed however many keys there are, and estimates
+ * can only be too high, by collisions. After every {@code 10 * width} calls all counters are
+ * halved, so the counts follow current traffic and yesterday's blockbuster cools down.
+ * <p>
+ * The top {@code kmdb.hot-keys.top} keys with at least {@code kmdb.hot-keys.min-count} calls are
+ * tracked by name; {@link #isHot} is a map lookup, and the sketch is only consulted for
+ * membership changes. Keys are the request paths they answer, e.g. {@code /movies/42} or
+ * {@code /movies?filter=actor:Keanu Reeves}, so {@link HotResponseFilter} can pin their responses.
+ */
+@Component
+public class HotKeys {
+
+    private static final int DEPTH = 4;
+    // Odd multipliers, one independent hash per row
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    private static final int AGING_FACTOR = 10;
+    private static final Pattern BY_ID = Pattern.compile("/(movies|actors|genres)/\\d+");
+
+    private final int top;
+    private final int minCount;
+    private final int width;
+    private final int shift;
+    private final long agingPeriod;
+    private final AtomicIntegerArray counters;
+    private final AtomicLong records = new AtomicLong();
+    // Calls counted since the start, halved with the counters
+    private final AtomicLong window = new AtomicLong();
+
+    // Tracked keys and their last estimate; changed under this, read without locking
+    private final Map<String, Integer> hot = new ConcurrentHashMap<>();
+    // Estimate a key must exceed to be tracked
+    private volatile int threshold;
+
+    public HotKeys(@Value("${kmdb.hot-keys.top:32}") int top,
+                   @Value("${kmdb.hot-keys.width:4096}") int width,
+                   @Value("${kmdb.hot-keys.min-count:8}") int minCount) {
+        if (top < 1 || minCount < 1) {
+            throw new IllegalArgumentException("kmdb.hot-keys.top and kmdb.hot-keys.min-count must be at least 1");
+        }
+        this.top = top;
+        this.minCount = minCount;
+        this.width = Math.max(16, Integer.highestOneBit(Math.max(width, 2) - 1) << 1);
+        this.shift = Integer.numberOfLeadingZeros(this.width) + 1;
+        this.agingPeriod = (long) AGING_FACTOR * this.width;
+        this.counters = new AtomicIntegerArray(DEPTH * this.width);
+        this.threshold = minCount - 1;
+    }
+
+    /**
+     * The key of a by-id lookup: the entity's route, e.g. {@code /movies/42}.
+     */
+    public static String entityKey(Class<?> entityType, Object id) {
+        return "/" + entityType.getSimpleName().toLowerCase(Locale.ROOT) + "s/" + id;
+    }
+
+    /**
+     * The key of a list filter, e.g. {@code /movies?filter=actor:Keanu Reeves}, whatever the page.
+     */
+    public static String filterKey(String route, String filter) {
+        int colon = filter.indexOf(':');
+        String normalized = colon < 0
+                ? filter.trim()
+                : filter.substring(0, colon).trim() + ":" + filter.substring(colon + 1).trim();
+        return route + "?filter=" + normalized;
+    }
+
+    /**
+     * The key counted for a request, or null if the request is not one of the counted calls:
+     * a by-id lookup without {@code fields}/{@code expand}, or a filtered movie list.
+     */
+    public static String requestKey(String route, Map<String, String[]> parameters) {
+        if (BY_ID.matcher(route).matches()) {
+            return parameters.isEmpty() ? route : null;
+        }
+        String[] filter = parameters.get("filter");
+        if (route.equals("/movies") && filter != null && filter.length == 1) {
+            return filterKey(route, filter[0]);
+        }
+        return null;
+    }
+
+    /**
+     * Counts one call for the key.
+     */
+    public void record(String key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, hash)));
+        }
+        records.incrementAndGet();
+        if (window.incrementAndGet() >= agingPeriod) {
+            age();
+        }
+        if (estimate > threshold && !hot.containsKey(key)) {
+            promote(key, estimate);
+        }
+    }
+
+    /**
+     * Whether the key is currently one of the top keys.
+     */
+    public boolean isHot(String key) {
+        return hot.containsKey(key);
+    }
+
+    public int top() {
+        return top;
+    }
+
+    /**
+     * Forgets all counts, e.g. after the warm-up replayed its requests.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        window.set(0);
+        hot.clear();
+        threshold = minCount - 1;
+    }
+
+    /**
+     * The tracked keys, hottest first, with their estimated calls and share of the calls
+     * in the current window.
+     */
+    public synchronized Stats stats() {
+        refresh();
+        long calls = window.get();
+        List<HotKey> keys = new ArrayList<>(hot.size());
+        double share = 0;
+        for (Map.Entry<String, Integer> entry : hot.entrySet()) {
+            double keyShare = calls > 0 ? Math.min(1.0, (double) entry.getValue() / calls) : 0;
+            keys.add(new HotKey(entry.getKey(), entry.getValue(), keyShare));
+            share += keyShare;
+        }
+        keys.sort(Comparator.comparingLong(HotKey::calls).reversed());
+        return new Stats(records.get(), calls, Math.min(1.0, share), width, DEPTH, agingPeriod, keys);
+    }
+
+    private synchronized void promote(String key, int estimate) {
+        if (hot.containsKey(key)) {
+            return;
+        }
+        refresh();
+        if (hot.size() < top) {
+            if (estimate >= minCount) {
+                hot.put(key, estimate);
+            }
+        } else {
+            Map.Entry<String, Integer> coldest = coldest();
+            if (estimate > coldest.getValue()) {
+                hot.remove(coldest.getKey());
+                hot.put(key, estimate);
+            }
+        }
+        updateThreshold();
+    }
+
+    private synchronized void age() {
+        if (window.get() < agingPeriod) {
+            return; // another thread aged first
+        }
+        // Concurrent increments can be lost here, which a sketch can afford
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+        window.set(window.get() >>> 1);
+        refresh();
+        hot.values().removeIf(count -> count < minCount);
+        updateThreshold();
+    }
+
+    // Re-reads the estimates of the tracked keys, which keep growing after they are added
+    private void refresh() {
+        hot.replaceAll((key, count) -> estimate(key));
+    }
+
+    private void updateThreshold() {
+        threshold = hot.size() < top ? minCount - 1 : coldest().getValue();
+    }
+
+    private Map.Entry<String, Integer> coldest() {
+        return hot.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow();
+    }
+
+    private int estimate(String key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, hash)));
+        }
+        return estimate;
+    }
+
+    // Multiplicative hashing: the top bits of hash * seed pick the column
+    private int index(int row, int hash) {
+        return row * width + ((hash * SEEDS[row]) >>> shift);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Sketch state: calls since startup and in the current (aged) window, the share of the
+     * window that went to the tracked keys, and the keys themselves.
+     */
+    public record Stats(long calls, long windowCalls, double hotShare, int width, int depth, long agingPeriod,
+                        List<HotKey> hotKeys) {
+    }
+
+    public record HotKey(String key, long calls, double share) {
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.movesapi.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Answers requests for the hot keys (see {@link HotKeys}) from {@link PinnedResponses}.
+ * <p>
+ * Handles {@code GET /movies/{id}}, {@code /actors/{id}} and {@code /genres/{id}} without
+ * parameters and {@code GET /movies?filter=...} without other parameters. While the key is hot,
+ * the response is rendered once, pinned and served from memory ({@code X-Cache: PINNED});
+ * a pinned hit is counted in {@link HotKeys}, since it never reaches the service. Entries are
+ * stamped with the write generations of the entity types in the response, like in
+ * {@link ResponseCacheFilter}, so the first request after a write renders and pins the fresh
+ * response. A key that cools down is unpinned. Requests marked with
+ * {@link ResponseCache#BYPASS_ATTRIBUTE} are neither counted nor served from memory.
+ * <p>
+ * Runs after Spring Security and right before {@link ResponseCacheFilter}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty(name = "kmdb.hot-keys.pinning", havingValue = "true", matchIfMissing = true)
+public class HotResponseFilter extends OncePerRequestFilter {
+
+    private final HotKeys hotKeys;
+    private final PinnedResponses pinned;
+    private final WriteGenerations generations;
+
+    public HotResponseFilter(HotKeys hotKeys, PinnedResponses pinned, WriteGenerations generations) {
+        this.hotKeys = hotKeys;
+        this.pinned = pinned;
+        this.generations = generations;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || key(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (ResponseCacheFilter.bypass(request, response)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = key(request);
+        if (!hotKeys.isHot(key)) {
+            pinned.remove(key);
+            chain.doFilter(request, response);
+            return;
+        }
+        // Taken before the response is computed: a write committed meanwhile makes this entry stale
+        long stamp = generations.stamp(entityTypes(key));
+
+        ResponseCache.Entry entry = pinned.get(key, stamp);
+        if (entry != null) {
+            hotKeys.record(key);
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(entry.contentType());
+            entry.headers().forEach(response::setHeader);
+            response.setHeader(ResponseCacheFilter.CACHE_HEADER, "PINNED");
+            response.setContentLength(entry.body().length);
+            response.getOutputStream().write(entry.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null) {
+                if (pinned.size() >= hotKeys.top()) {
+                    pinned.retain(hotKeys::isHot);
+                }
+                pinned.put(key, new ResponseCache.Entry(
+                        stamp,
+                        wrapper.getContentType(),
+                        ResponseCacheFilter.extraHeaders(wrapper),
+                        wrapper.getContentAsByteArray()));
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // Only the canonical form of each key is pinned; pages and projections stay in the response cache
+    private static String key(HttpServletRequest request) {
+        String route = ResponseCacheFilter.route(request);
+        if (route.equals("/movies") && request.getParameterMap().size() != 1) {
+            return null;
+        }
+        return HotKeys.requestKey(route, request.getParameterMap());
+    }
+
+    // /movies/42 is built from the same entity types as /movies
+    private static List<Class<?>> entityTypes(String key) {
+        int end = key.indexOf('/', 1);
+        if (end < 0) {
+            end = key.indexOf('?');
+        }
+        return ResponseCacheFilter.ROUTES.get(key.substring(0, end));
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.movesapi.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Serialized responses of the hot keys (see {@link HotKeys}), kept outside the LRU
+ * {@link ResponseCache} so a burst of other requests cannot evict them.
+ * <p>
+ * Holds at most about {@code kmdb.hot-keys.top} entries: keys that are no longer hot are
+ * dropped by {@link HotResponseFilter}. Like the response cache, every entry carries its
+ * write-generation stamp and is replaced by the first request after a write.
+ */
+@Component
+public class PinnedResponses {
+
+    private final Map<String, ResponseCache.Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong pins = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    /**
+     * Returns the pinned response for the key if it was stored with the same stamp.
+     */
+    ResponseCache.Entry get(String key, long stamp) {
+        ResponseCache.Entry entry = entries.get(key);
+        if (entry == null || entry.stamp() != stamp) {
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    void put(String key, ResponseCache.Entry entry) {
+        if (entries.put(key, entry) == null) {
+            pins.incrementAndGet();
+        } else {
+            refreshes.incrementAndGet();
+        }
+    }
+
+    void remove(String key) {
+        entries.remove(key);
+    }
+
+    void retain(Predicate<String> keep) {
+        entries.keySet().removeIf(keep.negate());
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    public Stats stats() {
+        long bytes = 0;
+        for (ResponseCache.Entry entry : entries.values()) {
+            bytes += entry.body().length;
+        }
+        return new Stats(entries.size(), bytes, hits.get(), pins.get(), refreshes.get(),
+                entries.keySet().stream().sorted().toList());
+    }
+
+    /**
+     * Pinned entries and their body bytes, responses served from them, keys pinned and
+     * responses re-pinned after a write.
+     */
+    public record Stats(int entries, long bytes, long hits, long pins, long refreshes, List<String> keys) {
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.movesapi.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory store of serialized HTTP responses, bounded by a memory budget.
+ * <p>
+ * Entries are kept in LRU order and evicted once the estimated size of all entries
+ * exceeds {@code kmdb.response-cache.max-bytes}. Every entry carries the write-generation
+ * stamp it was computed at; a lookup with a different stamp drops the entry,
+ * so no TTL is needed to stay consistent with the database.
+ * <p>
+ * A request carrying {@link #BYPASS_ATTRIBUTE} is neither answered from nor stored in this
+ * cache or {@link PinnedResponses}; its response says {@code X-Cache: BYPASS}.
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * Request attribute set by trusted in-process callers (the startup warm-up) that must reach
+     * the controllers; only set after the caller was authenticated from the loopback interface.
+     */
+    public static final String BYPASS_ATTRIBUTE = ResponseCache.class.getName() + ".BYPASS";
+
+    // Rough per-entry bookkeeping cost (map node, entry object, header map)
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResponseCache(@Value("${kmdb.response-cache.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached response for the key if it was stored with the same stamp.
+     */
+    public synchronized Entry get(String key, long stamp) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.stamp() != stamp) {
+            remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Stores a response, evicting least recently used entries until the budget fits.
+     * Responses larger than the whole budget are not cached.
+     */
+    public synchronized void put(String key, Entry entry) {
+        long size = sizeOf(key, entry);
+        if (size > maxBytes) {
+            return;
+        }
+        remove(key);
+        entries.put(key, entry);
+        usedBytes += size;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> victim = eldest.next();
+            usedBytes -= sizeOf(victim.getKey(), victim.getValue());
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    private void remove(String key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            usedBytes -= sizeOf(key, previous);
+        }
+    }
+
+    private static long sizeOf(String key, Entry entry) {
+        long headers = 0;
+        for (Map.Entry<String, String> header : entry.headers().entrySet()) {
+            headers += 2L * (header.getKey().length() + header.getValue().length());
+        }
+        return ENTRY_OVERHEAD + 2L * key.length() + headers + entry.body().length;
+    }
+
+    /**
+     * A cached response: the generation stamp, content type, extra headers and body bytes.
+     */
+    public record Entry(long stamp, String contentType, Map<String, String> headers, byte[] body) {
+    }
+}
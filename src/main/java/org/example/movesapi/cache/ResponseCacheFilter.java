@@ -0,0 +1,180 @@
+package org.example.movesapi.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.monitoring.ResponseCacheEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Serves repeated list, filter and search requests from {@link ResponseCache}.
+ * <p>
+ * Only {@code GET} requests to the routes in {@link #ROUTES} are cached. The key is the
+ * route plus all query parameters sorted by name, with the paging defaults filled in,
+ * so {@code /movies?filter=genre:Action} and {@code /movies?page=0&filter=genre:Action}
+ * share one entry. Each route lists the entity types its response is built from;
+ * a write to any of them (see {@link WriteGenerations}) invalidates the entry.
+ * Actor {@code age:} filters depend on today's date, so their key includes it and
+ * yesterday's entries are never served (they are evicted like any unused entry).
+ * Every lookup is recorded as a {@link ResponseCacheEvent} when Flight Recorder is recording.
+ * A hit never reaches the service, so hits on filtered movie lists are counted in {@link HotKeys} here.
+ * Requests marked with {@link ResponseCache#BYPASS_ATTRIBUTE} skip the cache.
+ * <p>
+ * Runs after Spring Security, so only authenticated requests reach the cache.
+ */
+@Component
+@ConditionalOnProperty(name = "kmdb.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_HEADER = "X-Cache";
+
+    // Movie responses embed genres and actors; actor filters resolve movie names
+    static final Map<String, List<Class<?>>> ROUTES = Map.of(
+            "/movies", List.of(Movie.class, Actor.class, Genre.class),
+            "/movies/search", List.of(Movie.class, Actor.class, Genre.class),
+            "/actors", List.of(Actor.class, Movie.class),
+            "/genres", List.of(Genre.class));
+
+    private static final Map<String, String> DEFAULT_PARAMS = Map.of("page", "0", "size", "20");
+
+    private final ResponseCache cache;
+    private final WriteGenerations generations;
+    private final HotKeys hotKeys;
+
+    public ResponseCacheFilter(ResponseCache cache, WriteGenerations generations, HotKeys hotKeys) {
+        this.cache = cache;
+        this.generations = generations;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !ROUTES.containsKey(route(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (bypass(request, response)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String route = route(request);
+        String key = key(route, request.getParameterMap());
+        // Taken before the response is computed: a write committed meanwhile makes this entry stale
+        long stamp = generations.stamp(ROUTES.get(route));
+
+        ResponseCacheEvent event = new ResponseCacheEvent();
+        event.begin();
+        ResponseCache.Entry cached = cache.get(key, stamp);
+        if (cached != null) {
+            commit(event, route, true, cached.body().length);
+            String hotKey = HotKeys.requestKey(route, request.getParameterMap());
+            if (hotKey != null) {
+                hotKeys.record(hotKey);
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(cached.contentType());
+            cached.headers().forEach(response::setHeader);
+            response.setHeader(CACHE_HEADER, "HIT");
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_HEADER, "MISS");
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null) {
+                cache.put(key, new ResponseCache.Entry(
+                        stamp,
+                        wrapper.getContentType(),
+                        extraHeaders(wrapper),
+                        wrapper.getContentAsByteArray()));
+            }
+        } finally {
+            commit(event, route, false, wrapper.getContentSize());
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void commit(ResponseCacheEvent event, String route, boolean hit, long bytes) {
+        if (event.shouldCommit()) {
+            event.route = route;
+            event.hit = hit;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    static boolean bypass(HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(ResponseCache.BYPASS_ATTRIBUTE) == null) {
+            return false;
+        }
+        response.setHeader(CACHE_HEADER, "BYPASS");
+        return true;
+    }
+
+    static String route(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Builds the normalized cache key: route, then parameters in name order.
+     * Values of one parameter keep their order, since it matters for {@code sort}.
+     */
+    static String key(String route, Map<String, String[]> parameters) {
+        TreeMap<String, String[]> normalized = new TreeMap<>();
+        DEFAULT_PARAMS.forEach((name, value) -> normalized.put(name, new String[]{value}));
+        parameters.forEach((name, values) -> normalized.put(name, values));
+
+        StringJoiner key = new StringJoiner("&", route + "?", "");
+        normalized.forEach((name, values) -> {
+            for (String value : values) {
+                key.add(name + "=" + value.trim());
+            }
+        });
+        if (route.equals("/actors") && isAgeFilter(parameters.get("filter"))) {
+            key.add("today=" + LocalDate.now());
+        }
+        return key.toString();
+    }
+
+    // Same key parsing as ActorService.filter: "age" before the first colon
+    private static boolean isAgeFilter(String[] filters) {
+        if (filters == null) {
+            return false;
+        }
+        for (String filter : filters) {
+            int colon = filter.indexOf(':');
+            if (colon >= 0 && filter.substring(0, colon).trim().equals("age")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Application headers (X-Has-Next, X-Total-Count, ...) are part of the cached response
+    static Map<String, String> extraHeaders(HttpServletResponse response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (name.regionMatches(true, 0, "X-", 0, 2) && !name.equalsIgnoreCase(CACHE_HEADER)) {
+                headers.put(name, response.getHeader(name));
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.movesapi.cache;
+
+import org.example.movesapi.service.EntityChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-entity-type write generation counters.
+ * <p>
+ * Every committed create, update or delete of an entity type bumps its counter.
+ * Anything derived from the database can remember the generations it was computed at
+ * and is valid exactly as long as those generations have not moved.
+ * <p>
+ * The counter is bumped after commit, so a value read from the database before
+ * the commit is always stamped with an older generation than the one that follows it.
+ */
+@Component
+public class WriteGenerations {
+
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current generation of the given entity type.
+     */
+    public long current(Class<?> entityType) {
+        return counter(entityType).get();
+    }
+
+    /**
+     * Returns a single stamp covering several entity types.
+     * Counters only grow, so the sum changes whenever any of them is bumped.
+     */
+    public long stamp(Collection<Class<?>> entityTypes) {
+        long stamp = 0;
+        for (Class<?> type : entityTypes) {
+            stamp += current(type);
+        }
+        return stamp;
+    }
+
+    public void bump(Class<?> entityType) {
+        counter(entityType).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        bump(event.entityType());
+    }
+
+    private AtomicLong counter(Class<?> entityType) {
+        return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+}
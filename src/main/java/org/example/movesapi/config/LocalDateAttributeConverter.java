@@ -6,34 +6,34 @@ import jakarta.persistence.Converter;
 import java.time.LocalDate;
 
 /**
- * JPA AttributeConverter for converting {@link LocalDate} to {@link String} and vice versa.
+ * JPA AttributeConverter for converting {@link LocalDate} to an epoch day ({@link Long}) and vice versa.
  * <p>
- * This allows storing LocalDate fields as Strings in the database.
+ * This allows storing LocalDate fields as INTEGER columns (days since 1970-01-01) in the database.
  * Automatically applied to all LocalDate fields due to {@code autoApply = true}.
  */
 @Converter(autoApply = true)
-public class LocalDateAttributeConverter implements AttributeConverter<LocalDate, String> {
+public class LocalDateAttributeConverter implements AttributeConverter<LocalDate, Long> {
 
     /**
-     * Converts a LocalDate value to a String to be stored in the database.
+     * Converts a LocalDate value to the number of days since 1970-01-01.
      *
      * @param locDate the LocalDate value from the entity
-     * @return the String representation (e.g. "2024-12-01") or null if input is null
+     * @return the epoch day (e.g. 20058 for 2024-12-01) or null if input is null
      */
     @Override
-    public String convertToDatabaseColumn(LocalDate locDate) {
-        return (locDate == null ? null : locDate.toString());
+    public Long convertToDatabaseColumn(LocalDate locDate) {
+        return (locDate == null ? null : locDate.toEpochDay());
     }
 
     /**
-     * Converts a String value from the database into a LocalDate.
+     * Converts an epoch day from the database into a LocalDate.
      *
-     * @param sqlDate the date string from the database (e.g. "2024-12-01")
+     * @param epochDay the day count from the database (e.g. 20058)
      * @return the corresponding LocalDate or null if input is null
      */
     @Override
-    public LocalDate convertToEntityAttribute(String sqlDate) {
-        return (sqlDate == null ? null : LocalDate.parse(sqlDate));
+    public LocalDate convertToEntityAttribute(Long epochDay) {
+        return (epochDay == null ? null : LocalDate.ofEpochDay(epochDay));
     }
 }
 
@@ -42,8 +42,11 @@ public class LocalDateAttributeConverter implements AttributeConverter<LocalDate
 
     Some databases (like SQLite) do not natively support the Java 8+ java.time types (e.g., LocalDate).
     This converter tells JPA/Hibernate how to store and retrieve LocalDate fields:
-    - Store them as ISO-8601 formatted strings (e.g. "2024-12-01")
-    - Parse them back into LocalDate objects on load
+    - Store them as the number of days since 1970-01-01 (LocalDate.toEpochDay)
+    - Turn them back into LocalDate objects on load, without any string parsing
+
+    Integer days keep their natural order, so date ranges (e.g. birthDate:1970..1985) are index range scans.
+    Existing ISO-8601 text values are converted by V3__epoch_day_birth_dates.sql.
 
     With @Converter(autoApply = true), this converter is automatically used for all LocalDate fields
     across your entities, without needing to add @Convert on every field manually.
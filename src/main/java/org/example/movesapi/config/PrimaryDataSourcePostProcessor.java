@@ -0,0 +1,34 @@
+package org.example.movesapi.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Base for the post-processors that replace the "dataSource" bean with a routing DataSource
+ * over it (see {@link ReadOnlyRoutingConfig} and {@code ShardingConfig}).
+ * <p>
+ * They are ordered, so they run before the unordered post-processors that wrap DataSources
+ * further (e.g. the SQL timing layer), which then see the routing DataSource.
+ */
+public abstract class PrimaryDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+            return bean;
+        }
+        return replace(primary);
+    }
+
+    /**
+     * The DataSource to use instead of the configured one.
+     */
+    protected abstract DataSource replace(DataSource primary);
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
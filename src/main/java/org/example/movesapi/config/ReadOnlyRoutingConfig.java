@@ -0,0 +1,62 @@
+package org.example.movesapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a separate connection pool when
+ * {@code kmdb.datasource.read-only.url} is set, e.g. the same SQLite file opened
+ * with {@code ?open_mode=1} (SQLITE_OPEN_READONLY).
+ * <p>
+ * The primary DataSource is wrapped in a {@link LazyConnectionDataSourceProxy}: the physical
+ * connection is fetched on first use, after Spring has marked the transaction read-only,
+ * so {@code @Transactional(readOnly = true)} paths never hold a writable SQLite connection.
+ */
+@Configuration
+@ConditionalOnProperty("kmdb.datasource.read-only.url")
+class ReadOnlyRoutingConfig {
+
+    @Bean
+    static ReadOnlyRoutingPostProcessor readOnlyRoutingPostProcessor(Environment environment) {
+        return new ReadOnlyRoutingPostProcessor(environment);
+    }
+
+    static class ReadOnlyRoutingPostProcessor extends PrimaryDataSourcePostProcessor implements DisposableBean {
+
+        private final Environment environment;
+        private HikariDataSource readOnlyPool;
+
+        ReadOnlyRoutingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        protected DataSource replace(DataSource primary) {
+            readOnlyPool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(environment.getRequiredProperty("kmdb.datasource.read-only.url"))
+                    .driverClassName(environment.getProperty("spring.datasource.driver-class-name"))
+                    .build();
+            readOnlyPool.setPoolName("sqlite-read-only");
+
+            LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+            routing.setReadOnlyDataSource(readOnlyPool);
+            return routing;
+        }
+
+        @Override
+        public void destroy() {
+            if (readOnlyPool != null) {
+                readOnlyPool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.movesapi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned SQL migrations from {@code classpath:db/migration} before JPA starts.
+ * <p>
+ * Files are named {@code V<version>__<description>.sql} and applied in version order.
+ * Every applied version is recorded in the {@code schema_version} table together with
+ * a CRC32 checksum, so an already applied script that was edited afterwards is detected
+ * and the application refuses to start.
+ */
+@Component
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private final DataSource dataSource;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        migrate();
+    }
+
+    /**
+     * Applies every migration with a version higher than the last recorded one.
+     * Each script runs in its own transaction together with its schema_version row.
+     */
+    public void migrate() throws SQLException, IOException {
+        List<Migration> migrations = findMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            createVersionTable(connection);
+            Map<Integer, Long> applied = appliedChecksums(connection);
+
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.version());
+                if (checksum != null) {
+                    if (checksum != migration.checksum()) {
+                        throw new IllegalStateException("Migration V" + migration.version()
+                                + " was modified after it had been applied");
+                    }
+                    continue;
+                }
+                apply(connection, migration);
+                log.info("Applied migration V{} {} to {}", migration.version(), migration.description(),
+                        connection.getMetaData().getURL());
+            }
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            ScriptUtils.executeSqlScript(connection, migration.resource());
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, installed_on) VALUES (?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setLong(3, migration.checksum());
+                insert.setString(4, Instant.now().toString());
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (RuntimeException | SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version      INTEGER PRIMARY KEY,
+                    description  VARCHAR(255) NOT NULL,
+                    checksum     BIGINT NOT NULL,
+                    installed_on VARCHAR(64) NOT NULL
+                )
+                """);
+        }
+    }
+
+    private Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Resolves all migration scripts on the classpath, sorted by version.
+     */
+    static List<Migration> findMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher matcher = FILE_NAME.matcher(Objects.requireNonNull(resource.getFilename()));
+            if (!matcher.matches()) {
+                continue;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(StreamUtils.copyToByteArray(resource.getInputStream()));
+            migrations.add(new Migration(
+                    Integer.parseInt(matcher.group(1)),
+                    matcher.group(2).replace('_', ' '),
+                    crc.getValue(),
+                    resource));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    record Migration(int version, String description, long checksum, Resource resource) {
+    }
+
+    /**
+     * Makes the JPA EntityManagerFactory wait for the migrations,
+     * the same way Spring Boot wires Flyway and Liquibase.
+     */
+    @Component
+    static class DependsOnPostProcessor extends EntityManagerFactoryDependsOnPostProcessor {
+        DependsOnPostProcessor() {
+            super(SchemaMigrator.class);
+        }
+    }
+}
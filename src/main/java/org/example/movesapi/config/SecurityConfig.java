@@ -1,5 +1,7 @@
 package org.example.movesapi.config;
 
+import org.example.movesapi.warmup.WarmUp;
+import org.example.movesapi.warmup.WarmUpAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -11,6 +13,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 /**
  * Super basic Spring Security configuration.
@@ -22,15 +25,19 @@ class SecurityConfig {
 
     /*
      * Configures a basic security filter chain with HTTP Basic authentication.
-     * All requests must be authenticated. CSRF is disabled for simplicity.
+     * All requests except the readiness probe must be authenticated. CSRF is disabled for simplicity.
+     * The startup warm-up authenticates with its own per-process token instead of a password.
      */
     @Bean
-    SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain filterChain(HttpSecurity http, WarmUp warmUp) throws Exception {
         http
                 .authorizeHttpRequests(request -> request
+                        .requestMatchers("/ready")
+                        .permitAll()
                         .requestMatchers("/**")
                         .authenticated())
                 .httpBasic(Customizer.withDefaults())
+                .addFilterBefore(new WarmUpAuthenticationFilter(warmUp), BasicAuthenticationFilter.class)
                 .csrf(csrf -> csrf.disable());
         return http.build();
     }
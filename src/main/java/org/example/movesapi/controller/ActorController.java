@@ -1,25 +1,84 @@
 package org.example.movesapi.controller;
 
+import org.example.movesapi.index.NameSuggestIndex;
 import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Movie;
 import org.example.movesapi.service.CRUDService;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.example.movesapi.service.CoStarService;
+import org.example.movesapi.service.FilmographyService;
+import org.example.movesapi.service.SuggestionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
 
 /**
  * REST controller for managing {@link Actor} entities via the /actors endpoint.
  * <p>
  * Inherits all basic CRUD operations from {@link BaseController}.
  * <p>
- * You can override or extend methods here to add custom behavior specific to actors.
+ * Adds co-star endpoints served from the in-memory co-star graph,
+ * name suggestions for type-ahead and a keyset-paged filmography.
  */
 
 
 @RestController
 @RequestMapping("/actors")
 public class ActorController extends BaseController<Actor, Long> {
-    public ActorController(CRUDService<Actor, Long> service) {
+
+    private final CoStarService coStarService;
+    private final SuggestionService suggestionService;
+    private final FilmographyService filmographyService;
+
+    public ActorController(CRUDService<Actor, Long> service, CoStarService coStarService,
+                           SuggestionService suggestionService, FilmographyService filmographyService) {
         super(service);
+        this.coStarService = coStarService;
+        this.suggestionService = suggestionService;
+        this.filmographyService = filmographyService;
+    }
+
+    /**
+     * Returns up to {@code limit} actors whose name starts with the prefix (case-insensitive).
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<NameSuggestIndex.Suggestion>> suggest(@RequestParam String prefix,
+                                                                     @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionService.suggestActors(prefix, limit));
     }
 
-    // Place here any custom endpoints or overrides specific to actors
+    /**
+     * Lists the actors who played together with the given actor, most shared movies first.
+     *
+     * @param id    the actor ID
+     * @param limit maximum number of co-stars (1-100)
+     */
+    @GetMapping("/{id}/costars")
+    public ResponseEntity<List<CoStarService.CoStar>> coStars(@PathVariable Long id,
+                                                              @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(coStarService.getCoStars(id, limit));
+    }
+
+    /**
+     * Returns the degrees of separation between two actors and one shortest chain of movies linking them.
+     */
+    @GetMapping("/{a}/path/{b}")
+    public ResponseEntity<CoStarService.Separation> path(@PathVariable Long a, @PathVariable Long b) {
+        return ResponseEntity.ok(coStarService.getSeparation(a, b));
+    }
+
+    /**
+     * Returns the movies of an actor ordered by id; pass the {@code X-Next-After} header of
+     * the previous response as {@code after} to get the next page.
+     *
+     * @param id    the actor ID
+     * @param after only movies with a larger id are returned
+     * @param size  maximum number of movies (1-100)
+     */
+    @GetMapping("/{id}/movies")
+    public ResponseEntity<List<Movie>> movies(@PathVariable Long id,
+                                              @RequestParam(name = "after", defaultValue = "0") long after,
+                                              @RequestParam(name = "size", defaultValue = "20") int size) {
+        return window(filmographyService.moviesOfActor(id, after, size));
+    }
 }
@@ -0,0 +1,48 @@
+package org.example.movesapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.movesapi.backup.BackupService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Local admin endpoint for online database backups taken by {@link BackupService}.
+ * <p>
+ * Only answers requests from the loopback interface; everyone else gets a 404.
+ */
+@RestController
+@RequestMapping("/admin/backups")
+public class BackupController {
+
+    private final BackupService backupService;
+
+    public BackupController(BackupService backupService) {
+        this.backupService = backupService;
+    }
+
+    /**
+     * Starts a backup in the background and returns 202 with its progress,
+     * or 409 with the running one if a backup is already in progress.
+     */
+    @PostMapping
+    public ResponseEntity<BackupService.Run> start(HttpServletRequest request) {
+        LocalRequests.require(request);
+        return backupService.start("admin")
+                .map(run -> ResponseEntity.status(HttpStatus.ACCEPTED).body(run))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(backupService.status().backup()));
+    }
+
+    /**
+     * Returns the progress of the running (or last) backup, request latency during it and
+     * outside backups, and the backup files, newest first.
+     */
+    @GetMapping
+    public ResponseEntity<BackupService.Status> status(HttpServletRequest request) {
+        LocalRequests.require(request);
+        return ResponseEntity.ok(backupService.status());
+    }
+}
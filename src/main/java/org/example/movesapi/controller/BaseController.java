@@ -1,8 +1,15 @@
 package org.example.movesapi.controller;
 
 import jakarta.validation.Valid;
+import org.example.movesapi.exceptions.ErrorResponses;
+import org.example.movesapi.exceptions.InvalidRequestException;
 import org.example.movesapi.service.CRUDService;
+import org.example.movesapi.service.FieldSelection;
+import org.example.movesapi.service.FilmographyService;
+import org.example.movesapi.service.NormalizedPage;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -12,6 +19,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Universal generic REST controller for basic CRUD operations.
@@ -23,6 +31,12 @@ import java.util.Optional;
 
 public abstract class BaseController<T, ID> {
 
+    static final String HAS_NEXT_HEADER = "X-Has-Next";
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    static final String APPROXIMATE_TOTAL_COUNT_HEADER = "X-Approximate-Total-Count";
+    static final String MISSING_IDS_HEADER = "X-Missing-Ids";
+    static final String NEXT_AFTER_HEADER = "X-Next-After";
+
     // Interface that defines CRUD operations which must be implemented by any service class.
     protected final CRUDService<T, ID> service;
 
@@ -51,21 +65,113 @@ public abstract class BaseController<T, ID> {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable ID id,
+    public ResponseEntity<?> delete(@PathVariable ID id,
                                     @RequestParam(name = "force", required = false, defaultValue = "false") Boolean force) {
-        service.delete(id, force);
+        if (!service.delete(id, force)) {
+            return ErrorResponses.NOT_FOUND;
+        }
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Returns one entity. {@code ?fields=name,releaseYear} limits the scalar properties and
+     * {@code ?expand=actors} the associations included; only those are read from the database.
+     * Unknown ids get the shared {@link ErrorResponses#NOT_FOUND} response without any exception.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<T> findById(@PathVariable ID id) {
-        return ResponseEntity.ok(service.getById(id));
+    public ResponseEntity<?> findById(@PathVariable ID id,
+                                      @RequestParam Optional<String> fields,
+                                      @RequestParam Optional<String> expand) {
+        Optional<FieldSelection> selection = FieldSelection.parse(fields, expand);
+        Optional<?> entity = selection.isPresent()
+                ? service.findById(id, selection.get())
+                : service.findById(id);
+        if (entity.isEmpty()) {
+            return ErrorResponses.NOT_FOUND;
+        }
+        return ResponseEntity.ok(entity.get());
+    }
+
+    /**
+     * Returns the entities with the given ids as a JSON array, in request order,
+     * e.g. {@code GET /movies?ids=1,5,9}. Ids that match nothing are listed in {@code X-Missing-Ids}.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<T>> getByIds(@RequestParam List<ID> ids) {
+        CRUDService.MultiGet<T, ID> result = service.getByIds(ids);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!result.missing().isEmpty()) {
+            response.header(MISSING_IDS_HEADER, result.missing().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        return response.body(result.found());
     }
 
+    /**
+     * Returns one page of entities as a JSON array.
+     * <p>
+     * By default no total is computed; {@code X-Has-Next} tells whether another page exists.
+     * Clients that need a total pass {@code count=exact} (extra COUNT query, {@code X-Total-Count})
+     * or {@code count=estimate} (cached value, {@code X-Approximate-Total-Count}).
+     * {@code fields} and {@code expand} shape each element as in {@link #findById}.
+     * <p>
+     * {@code normalize=true} returns a {@link NormalizedPage} instead: associations are listed as ids
+     * and each referenced entity appears once in {@code included}. Without {@code fields}/{@code expand}
+     * all properties and associations are included.
+     */
     @GetMapping
-    public ResponseEntity<List<T>> getAll(Pageable pageable, @RequestParam Optional<String> filter) {
-        return ResponseEntity.ok(service.getAll(pageable, filter).getContent());
+    public ResponseEntity<?> getAll(Pageable pageable, @RequestParam Optional<String> filter,
+                                    @RequestParam(name = "count", required = false, defaultValue = "none") String count,
+                                    @RequestParam Optional<String> fields,
+                                    @RequestParam Optional<String> expand,
+                                    @RequestParam(name = "normalize", required = false, defaultValue = "false") boolean normalize) {
+        Optional<FieldSelection> selection = FieldSelection.parse(fields, expand);
+        if (normalize && selection.isEmpty()) {
+            selection = Optional.of(service.fullSelection());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        Slice<?> slice = switch (count) {
+            case "none" -> slice(pageable, filter, selection);
+            case "exact" -> {
+                Page<?> page = selection.isPresent()
+                        ? service.getPage(pageable, filter, selection.get())
+                        : service.getPage(pageable, filter);
+                response.header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()));
+                yield page;
+            }
+            case "estimate" -> {
+                Slice<?> result = slice(pageable, filter, selection);
+                response.header(APPROXIMATE_TOTAL_COUNT_HEADER, String.valueOf(service.estimateCount(filter)));
+                yield result;
+            }
+            default -> throw new InvalidRequestException("count must be one of: none, exact, estimate");
+        };
+        response.header(HAS_NEXT_HEADER, String.valueOf(slice.hasNext()));
+        if (normalize) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> rows = (List<Map<String, Object>>) slice.getContent();
+            return response.body(NormalizedPage.of(rows, selection.get().expand()));
+        }
+        return response.body(slice.getContent());
     }
 
+    /**
+     * Writes a keyset page as a JSON array with {@code X-Has-Next} and, if there is
+     * a next page, its cursor in {@code X-Next-After}.
+     */
+    static <E> ResponseEntity<List<E>> window(FilmographyService.Window<E> window) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HAS_NEXT_HEADER, String.valueOf(window.hasNext()));
+        if (window.hasNext()) {
+            response.header(NEXT_AFTER_HEADER, String.valueOf(window.nextAfter()));
+        }
+        return response.body(window.content());
+    }
 
+    private Slice<?> slice(Pageable pageable, Optional<String> filter, Optional<FieldSelection> selection) {
+        return selection.isPresent()
+                ? service.getAll(pageable, filter, selection.get())
+                : service.getAll(pageable, filter);
+    }
 }
@@ -1,24 +1,45 @@
 package org.example.movesapi.controller;
 
 import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
 import org.example.movesapi.service.CRUDService;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.example.movesapi.service.FilmographyService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
 
 /**
  * REST controller for managing {@link Genre} entities via the /genres endpoint.
  * <p>
  * Inherits all basic CRUD operations from {@link BaseController}.
  * <p>
- * You can extend this class to add custom behavior specific to genres.
+ * Adds a keyset-paged listing of the movies of a genre.
  */
 
 @RestController
 @RequestMapping("/genres")
 public class GenreController extends BaseController<Genre, Long> {
-    public GenreController(CRUDService<Genre, Long> service) {
+
+    private final FilmographyService filmographyService;
+
+    public GenreController(CRUDService<Genre, Long> service, FilmographyService filmographyService) {
         super(service);
+        this.filmographyService = filmographyService;
     }
 
-    // Extend this controller with custom genre-specific endpoints if needed
+    /**
+     * Returns the movies of a genre ordered by id; pass the {@code X-Next-After} header of
+     * the previous response as {@code after} to get the next page.
+     *
+     * @param id    the genre ID
+     * @param after only movies with a larger id are returned
+     * @param size  maximum number of movies (1-100)
+     */
+    @GetMapping("/{id}/movies")
+    public ResponseEntity<List<Movie>> movies(@PathVariable Long id,
+                                              @RequestParam(name = "after", defaultValue = "0") long after,
+                                              @RequestParam(name = "size", defaultValue = "20") int size) {
+        return window(filmographyService.moviesOfGenre(id, after, size));
+    }
 }
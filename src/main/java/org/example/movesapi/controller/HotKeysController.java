@@ -0,0 +1,41 @@
+package org.example.movesapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.movesapi.cache.HotKeys;
+import org.example.movesapi.cache.PinnedResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Local admin endpoint for the traffic skew seen by {@link HotKeys} and the responses
+ * pinned for the hot keys.
+ * <p>
+ * Only answers requests from the loopback interface; everyone else gets a 404.
+ */
+@RestController
+@RequestMapping("/admin/hot-keys")
+public class HotKeysController {
+
+    private final HotKeys hotKeys;
+    private final PinnedResponses pinned;
+
+    public HotKeysController(HotKeys hotKeys, PinnedResponses pinned) {
+        this.hotKeys = hotKeys;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Returns the hot keys, hottest first, with their estimated calls and share of the
+     * traffic, and the pinned responses.
+     */
+    @GetMapping
+    public ResponseEntity<HotKeysReport> hotKeys(HttpServletRequest request) {
+        LocalRequests.require(request);
+        return ResponseEntity.ok(new HotKeysReport(hotKeys.stats(), pinned.stats()));
+    }
+
+    public record HotKeysReport(HotKeys.Stats sketch, PinnedResponses.Stats pinned) {
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.movesapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.movesapi.exceptions.NotFoundException;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Guard for the local admin endpoints under {@code /admin}, and the single loopback check
+ * for everything else that only trusts local callers.
+ */
+public final class LocalRequests {
+
+    private LocalRequests() {
+    }
+
+    /**
+     * Throws a 404 unless the request came from the loopback interface,
+     * so remote clients cannot tell the endpoint exists.
+     */
+    static void require(HttpServletRequest request) {
+        if (!isLoopback(request)) {
+            throw new NotFoundException("Not found");
+        }
+    }
+
+    /**
+     * Whether the request came from the loopback interface.
+     */
+    public static boolean isLoopback(HttpServletRequest request) {
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
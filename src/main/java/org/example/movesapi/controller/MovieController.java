@@ -2,17 +2,26 @@ package org.example.movesapi.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.apache.coyote.BadRequestException;
+import org.example.movesapi.index.NameSuggestIndex;
+import org.example.movesapi.model.Actor;
 import org.example.movesapi.model.Movie;
 import org.example.movesapi.service.CRUDService;
+import org.example.movesapi.service.FilmographyService;
+import org.example.movesapi.service.RecommendationService;
+import org.example.movesapi.service.SuggestionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST controller for managing {@link Movie} entities via the /movies endpoint.
  * <p>
  * Inherits all basic CRUD operations from {@link BaseController}.
  * <p>
- * Includes a custom search endpoint for retrieving a movie by its title.
+ * Includes a custom search endpoint for retrieving a movie by its title,
+ * name suggestions for type-ahead, recommendations of similar movies
+ * and a keyset-paged cast listing.
  */
 
 
@@ -20,8 +29,16 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/movies")
 public class MovieController extends BaseController<Movie, Long> {
 
-    public MovieController(CRUDService<Movie, Long> service) {
+    private final RecommendationService recommendationService;
+    private final SuggestionService suggestionService;
+    private final FilmographyService filmographyService;
+
+    public MovieController(CRUDService<Movie, Long> service, RecommendationService recommendationService,
+                           SuggestionService suggestionService, FilmographyService filmographyService) {
         super(service);
+        this.recommendationService = recommendationService;
+        this.suggestionService = suggestionService;
+        this.filmographyService = filmographyService;
     }
 
     /**
@@ -35,4 +52,43 @@ public class MovieController extends BaseController<Movie, Long> {
     private ResponseEntity<Movie> search(@RequestParam String title) throws BadRequestException {
         return ResponseEntity.ok(service.findMovie(title));
     }
+
+    /**
+     * Returns up to {@code limit} movies whose title starts with the prefix (case-insensitive).
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<NameSuggestIndex.Suggestion>> suggest(@RequestParam String prefix,
+                                                                     @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionService.suggestMovies(prefix, limit));
+    }
+
+    /**
+     * Returns movies with similar genres and actors, optionally favouring close release years.
+     *
+     * @param id         the movie ID
+     * @param limit      maximum number of results (1-100)
+     * @param yearWeight weight of release-year proximity in the ranking (0-1)
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<RecommendationService.SimilarMovie>> similar(
+            @PathVariable Long id,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "yearWeight", defaultValue = "0") double yearWeight) {
+        return ResponseEntity.ok(recommendationService.getSimilar(id, limit, yearWeight));
+    }
+
+    /**
+     * Returns the cast of a movie ordered by id; pass the {@code X-Next-After} header of
+     * the previous response as {@code after} to get the next page.
+     *
+     * @param id    the movie ID
+     * @param after only actors with a larger id are returned
+     * @param size  maximum number of actors (1-100)
+     */
+    @GetMapping("/{id}/actors")
+    public ResponseEntity<List<Actor>> actors(@PathVariable Long id,
+                                              @RequestParam(name = "after", defaultValue = "0") long after,
+                                              @RequestParam(name = "size", defaultValue = "20") int size) {
+        return window(filmographyService.actorsOfMovie(id, after, size));
+    }
 }
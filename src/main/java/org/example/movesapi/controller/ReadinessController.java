@@ -0,0 +1,32 @@
+package org.example.movesapi.controller;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Readiness probe for load balancers: {@code 200} once the application accepts traffic,
+ * {@code 503} while it is starting (including the warm-up, see {@code WarmUp}) or shutting down.
+ * <p>
+ * Open to unauthenticated callers, since probes carry no credentials.
+ */
+@RestController
+public class ReadinessController {
+
+    private final ApplicationAvailability availability;
+
+    public ReadinessController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<ReadinessState> ready() {
+        ReadinessState state = availability.getReadinessState();
+        return ResponseEntity
+                .status(state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(state);
+    }
+}
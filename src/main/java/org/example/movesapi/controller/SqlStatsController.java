@@ -0,0 +1,50 @@
+package org.example.movesapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.monitoring.SlowQueryLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Local admin endpoint for the SQL timing table kept by {@link SlowQueryLog}.
+ * <p>
+ * Only answers requests from the loopback interface; everyone else gets a 404.
+ */
+@RestController
+@RequestMapping("/admin/sql")
+@ConditionalOnProperty(name = "kmdb.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SqlStatsController(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Returns the statements with the highest total execution time, with the route and
+     * service method that issued them.
+     *
+     * @param limit number of statements to return (1-500)
+     */
+    @GetMapping
+    public ResponseEntity<List<SlowQueryLog.StatementStats>> top(HttpServletRequest request,
+                                                                 @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        LocalRequests.require(request);
+        if (limit < 1 || limit > 500) {
+            throw new InvalidRequestException("limit must be between 1 and 500");
+        }
+        return ResponseEntity.ok(slowQueryLog.top(limit));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> reset(HttpServletRequest request) {
+        LocalRequests.require(request);
+        slowQueryLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.movesapi.controller;
+
+import org.example.movesapi.service.StatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for catalog statistics via the /stats endpoint.
+ * <p>
+ * All numbers are computed in memory, so dashboards can refresh often without loading SQLite.
+ */
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final StatsService service;
+
+    public StatsController(StatsService service) {
+        this.service = service;
+    }
+
+    /**
+     * Returns movies per year, average duration per genre, the most prolific actors
+     * and the genre co-occurrence matrix.
+     *
+     * @param topActors how many actors to include in the ranking (1-100)
+     */
+    @GetMapping
+    public ResponseEntity<StatsService.CatalogStats> getStats(
+            @RequestParam(name = "topActors", defaultValue = "10") int topActors) {
+        return ResponseEntity.ok(service.getStats(topActors));
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.movesapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.movesapi.monitoring.StatusCounters;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Local admin endpoint for the per-status-code response counters kept by {@link StatusCounters}.
+ * <p>
+ * Only answers requests from the loopback interface; everyone else gets a 404.
+ */
+@RestController
+@RequestMapping("/admin/status")
+public class StatusStatsController {
+
+    private final StatusCounters statusCounters;
+
+    public StatusStatsController(StatusCounters statusCounters) {
+        this.statusCounters = statusCounters;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<Integer, Long>> counts(HttpServletRequest request) {
+        LocalRequests.require(request);
+        return ResponseEntity.ok(statusCounters.snapshot());
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.movesapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.movesapi.warmup.WarmUp;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Local admin endpoint for the startup warm-up run by {@link WarmUp}.
+ * <p>
+ * Only answers requests from the loopback interface; everyone else gets a 404.
+ */
+@RestController
+@RequestMapping("/admin/warmup")
+public class WarmUpController {
+
+    private final WarmUp warmUp;
+
+    public WarmUpController(WarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Returns how long the warm-up took and the latency of each replayed request in the
+     * first (cold) and last round.
+     */
+    @GetMapping
+    public ResponseEntity<WarmUp.Report> report(HttpServletRequest request) {
+        LocalRequests.require(request);
+        return ResponseEntity.ok(warmUp.report());
+    }
+}
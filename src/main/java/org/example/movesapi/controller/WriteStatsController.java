@@ -0,0 +1,31 @@
+package org.example.movesapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.movesapi.service.WriteScheduler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Local admin endpoint for the {@link WriteScheduler} metrics:
+ * queue depth, wait and write times, retries and timed-out writes.
+ * <p>
+ * Only answers requests from the loopback interface; everyone else gets a 404.
+ */
+@RestController
+@RequestMapping("/admin/writes")
+public class WriteStatsController {
+
+    private final WriteScheduler writeScheduler;
+
+    public WriteStatsController(WriteScheduler writeScheduler) {
+        this.writeScheduler = writeScheduler;
+    }
+
+    @GetMapping
+    public ResponseEntity<WriteScheduler.Metrics> metrics(HttpServletRequest request) {
+        LocalRequests.require(request);
+        return ResponseEntity.ok(writeScheduler.metrics());
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.movesapi.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Error responses built once and shared by every request that needs them.
+ * <p>
+ * Used for the outcomes that crawlers and broken clients produce in bulk (unknown ids, unknown
+ * routes), so those requests allocate neither an exception nor a response body of their own.
+ * {@link ResponseEntity} is immutable, which makes sharing the instances safe.
+ */
+public final class ErrorResponses {
+
+    public static final ResponseEntity<String> NOT_FOUND = prebuilt(HttpStatus.NOT_FOUND, "Not Found");
+    public static final ResponseEntity<String> BAD_REQUEST = prebuilt(HttpStatus.BAD_REQUEST, "Bad Request");
+
+    private ErrorResponses() {
+    }
+
+    private static ResponseEntity<String> prebuilt(HttpStatus status, String body) {
+        return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN).body(body);
+    }
+}
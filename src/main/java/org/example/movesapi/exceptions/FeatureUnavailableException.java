@@ -0,0 +1,17 @@
+package org.example.movesapi.exceptions;
+
+/**
+ * Thrown by endpoints that the configured storage mode (sharding, journal) does not support,
+ * without a stack trace. Mapped to 501 Not Implemented.
+ */
+public class FeatureUnavailableException extends UnsupportedOperationException {
+
+    public FeatureUnavailableException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -2,11 +2,13 @@ package org.example.movesapi.exceptions;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.apache.coyote.BadRequestException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.time.format.DateTimeParseException;
 
@@ -41,12 +43,12 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Handles unexpected null pointer exceptions.
-     * Returns HTTP 404 Not Found (can be customized).
+     * Handles requests to paths that match no route (typically crawlers).
+     * Returns the pre-built HTTP 404 Not Found response.
      */
-    @ExceptionHandler(NullPointerException.class)
-    public ResponseEntity<Void> handleNullPointer() {
-        return ResponseEntity.notFound().build();
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<String> handleNoResource() {
+        return ErrorResponses.NOT_FOUND;
     }
 
     /**
@@ -58,6 +60,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    /**
+     * Handles writes that could not get the database before their deadline.
+     * Returns HTTP 503 Service Unavailable with {@code Retry-After}, so clients back off instead of retrying at once.
+     */
+    @ExceptionHandler(WriteTimeoutException.class)
+    public ResponseEntity<String> handleWriteTimeout(WriteTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Handles endpoints that the configured storage mode does not support.
+     * Returns HTTP 501 Not Implemented.
+     */
+    @ExceptionHandler(FeatureUnavailableException.class)
+    public ResponseEntity<String> handleFeatureUnavailable(FeatureUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(ex.getMessage());
+    }
+
     /**
      * Handles illegal arguments passed to methods.
      * Returns HTTP 400 Bad Request with a message.
@@ -69,7 +91,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<String> handleBadRequest() {
-        return ResponseEntity.badRequest().body("Bad Request");
+        return ErrorResponses.BAD_REQUEST;
     }
 
     @ExceptionHandler(DateTimeParseException.class)
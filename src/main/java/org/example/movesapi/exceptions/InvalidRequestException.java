@@ -0,0 +1,17 @@
+package org.example.movesapi.exceptions;
+
+/**
+ * {@link IllegalArgumentException} without a stack trace, for malformed client input
+ * (filters, paging and selection parameters). Mapped to 400 Bad Request like its parent.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
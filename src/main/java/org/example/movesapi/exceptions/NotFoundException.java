@@ -0,0 +1,22 @@
+package org.example.movesapi.exceptions;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * {@link EntityNotFoundException} without a stack trace.
+ * <p>
+ * Misses are an expected outcome of client input (unknown ids and names), not a bug,
+ * and under crawler traffic most responses are 404s; capturing a trace for each of them
+ * would dominate the cost of the request. Mapped to 404 Not Found like its parent.
+ */
+public class NotFoundException extends EntityNotFoundException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
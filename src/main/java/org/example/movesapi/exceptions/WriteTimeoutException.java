@@ -0,0 +1,21 @@
+package org.example.movesapi.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a write could not get the database before its deadline.
+ * Mapped to 503 Service Unavailable with a {@code Retry-After} header.
+ */
+@Getter
+public class WriteTimeoutException extends RuntimeException {
+
+    /**
+     * Suggested delay before the client tries again, in seconds.
+     */
+    private final long retryAfterSeconds;
+
+    public WriteTimeoutException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,370 @@
+package org.example.movesapi.index;
+
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.service.EntityChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * In-memory movie/actor incidence graph in compressed sparse row (CSR) form.
+ * <p>
+ * The {@code movie_actors} table is held twice as primitive int arrays: for every actor
+ * the dense indices of its movies, and for every movie the dense indices of its cast.
+ * Co-stars of an actor are the casts of its movies, and shortest paths between actors
+ * are a breadth-first search alternating between the two directions.
+ * <p>
+ * The CSR arrays are immutable and published through a volatile reference, so queries never
+ * lock. Committed {@link EntityChangedEvent}s are applied by the writing thread: the changed
+ * movie's cast replaces its old one in a patched copy of the arrays (array copies and one
+ * counting pass, no hashing or sorting of the catalog), and the copy is published.
+ */
+@Component
+public class CoStarIndex {
+
+    private final JdbcTemplate jdbc;
+
+    // Replaced only while holding this, so changes are applied one at a time
+    private volatile Graph graph = Graph.build(Map.of());
+
+    public CoStarIndex(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Loads all edges from the database. Runs once the application (and DataLoader) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1) // before the warm-up (see WarmUp)
+    public synchronized void reload() {
+        Map<Long, List<Long>> edges = new HashMap<>();
+        jdbc.query("""
+                SELECT ma.movie_id, ma.actor_id
+                FROM movie_actors ma
+                JOIN actor a ON a.id = ma.actor_id
+                """, rs -> {
+            edges.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        Map<Long, long[]> castByMovie = new HashMap<>();
+        edges.forEach((movieId, actors) -> castByMovie.put(movieId, toArray(actors)));
+        graph = Graph.build(castByMovie);
+    }
+
+    /**
+     * Keeps the casts in sync with committed movie and actor changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() == Movie.class) {
+            long movieId = (Long) event.id();
+            long[] cast = event.change() == EntityChangedEvent.Change.DELETED
+                    ? new long[0]
+                    : toArray(jdbc.queryForList("""
+                            SELECT ma.actor_id
+                            FROM movie_actors ma
+                            JOIN actor a ON a.id = ma.actor_id
+                            WHERE ma.movie_id = ?
+                            """, Long.class, movieId));
+            graph = graph.withCast(movieId, cast);
+        } else if (event.entityType() == Actor.class && event.change() == EntityChangedEvent.Change.DELETED) {
+            long actorId = (Long) event.id();
+            Graph g = graph;
+            int actor = g.actorIndex(actorId);
+            if (actor >= 0) {
+                Graph next = g;
+                for (int i = g.actorOffsets[actor]; i < g.actorOffsets[actor + 1]; i++) {
+                    int movie = g.actorMovies[i];
+                    long[] cast = Arrays.stream(g.castOf(movie)).filter(id -> id != actorId).toArray();
+                    next = next.withCast(g.movieIds[movie], cast);
+                }
+                graph = next;
+            }
+        }
+    }
+
+    /**
+     * Returns the actors who appeared in at least one movie with the given actor,
+     * ordered by the number of shared movies (most first), then by id.
+     *
+     * @param actorId the actor whose co-stars are requested
+     * @param limit   maximum number of co-stars to return
+     * @return co-stars with their shared movie counts; empty if the actor has no movies
+     */
+    public List<CoStar> coStars(long actorId, int limit) {
+        Graph g = graph;
+        int actor = g.actorIndex(actorId);
+        if (actor < 0) {
+            return List.of();
+        }
+
+        // Collect every co-star occurrence, then count runs after sorting
+        int total = 0;
+        for (int i = g.actorOffsets[actor]; i < g.actorOffsets[actor + 1]; i++) {
+            int movie = g.actorMovies[i];
+            total += g.movieOffsets[movie + 1] - g.movieOffsets[movie];
+        }
+        int[] occurrences = new int[total];
+        int n = 0;
+        for (int i = g.actorOffsets[actor]; i < g.actorOffsets[actor + 1]; i++) {
+            int movie = g.actorMovies[i];
+            for (int j = g.movieOffsets[movie]; j < g.movieOffsets[movie + 1]; j++) {
+                if (g.movieActors[j] != actor) {
+                    occurrences[n++] = g.movieActors[j];
+                }
+            }
+        }
+        Arrays.sort(occurrences, 0, n);
+
+        List<CoStar> result = new ArrayList<>();
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && occurrences[j] == occurrences[i]) {
+                j++;
+            }
+            result.add(new CoStar(g.actorIds[occurrences[i]], j - i));
+            i = j;
+        }
+        result.sort(Comparator.comparingInt(CoStar::sharedMovies).reversed()
+                .thenComparingLong(CoStar::actorId));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    /**
+     * Finds a shortest chain of co-star links between two actors.
+     *
+     * @return the chain, or empty if either actor has no movies or they are not connected
+     */
+    public Optional<Path> shortestPath(long fromActorId, long toActorId) {
+        Graph g = graph;
+        int from = g.actorIndex(fromActorId);
+        int to = g.actorIndex(toActorId);
+        if (from < 0 || to < 0) {
+            return Optional.empty();
+        }
+        if (from == to) {
+            return Optional.of(new Path(List.of(fromActorId), List.of()));
+        }
+
+        int[] parentActor = new int[g.actorIds.length];
+        int[] viaMovie = new int[g.actorIds.length];
+        Arrays.fill(parentActor, -1);
+        BitSet expandedMovies = new BitSet(g.movieIds.length);
+        int[] queue = new int[g.actorIds.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        parentActor[from] = from;
+
+        while (head < tail) {
+            int actor = queue[head++];
+            for (int i = g.actorOffsets[actor]; i < g.actorOffsets[actor + 1]; i++) {
+                int movie = g.actorMovies[i];
+                // A movie's cast is reached completely the first time it is expanded
+                if (expandedMovies.get(movie)) {
+                    continue;
+                }
+                expandedMovies.set(movie);
+                for (int j = g.movieOffsets[movie]; j < g.movieOffsets[movie + 1]; j++) {
+                    int next = g.movieActors[j];
+                    if (parentActor[next] != -1) {
+                        continue;
+                    }
+                    parentActor[next] = actor;
+                    viaMovie[next] = movie;
+                    if (next == to) {
+                        return Optional.of(g.path(from, to, parentActor, viaMovie));
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).distinct().toArray();
+    }
+
+    /**
+     * An actor that shares {@code sharedMovies} movies with the requested actor.
+     */
+    public record CoStar(long actorId, int sharedMovies) {
+    }
+
+    /**
+     * A chain of actors where {@code movieIds.get(i)} links {@code actorIds.get(i)}
+     * and {@code actorIds.get(i + 1)}. The number of links is the degree of separation.
+     */
+    public record Path(List<Long> actorIds, List<Long> movieIds) {
+        public int degrees() {
+            return movieIds.size();
+        }
+    }
+
+    /**
+     * Immutable CSR snapshot. Ids are mapped to dense indices through sorted id arrays.
+     */
+    private record Graph(long[] actorIds, long[] movieIds,
+                         int[] actorOffsets, int[] actorMovies,
+                         int[] movieOffsets, int[] movieActors) {
+
+        static Graph build(Map<Long, long[]> castByMovie) {
+            long[] movieIds = castByMovie.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] actorIds = castByMovie.values().stream()
+                    .flatMapToLong(Arrays::stream).distinct().sorted().toArray();
+
+            int edges = 0;
+            int[] movieOffsets = new int[movieIds.length + 1];
+            for (int m = 0; m < movieIds.length; m++) {
+                edges += castByMovie.get(movieIds[m]).length;
+                movieOffsets[m + 1] = edges;
+            }
+
+            int[] movieActors = new int[edges];
+            for (int m = 0; m < movieIds.length; m++) {
+                long[] cast = castByMovie.get(movieIds[m]);
+                for (int k = 0; k < cast.length; k++) {
+                    movieActors[movieOffsets[m] + k] = Arrays.binarySearch(actorIds, cast[k]);
+                }
+            }
+            return of(actorIds, movieIds, movieOffsets, movieActors);
+        }
+
+        /**
+         * A copy with the movie's cast replaced; an empty cast removes the movie. Actors left
+         * without movies are dropped and new ones inserted, so the copy equals a full build.
+         */
+        Graph withCast(long movieId, long[] cast) {
+            int m = Arrays.binarySearch(movieIds, movieId);
+            if (m < 0 && cast.length == 0) {
+                return this;
+            }
+
+            // Only the old and the new cast change their number of movies
+            int[] degree = new int[actorIds.length];
+            for (int a = 0; a < actorIds.length; a++) {
+                degree[a] = actorOffsets[a + 1] - actorOffsets[a];
+            }
+            if (m >= 0) {
+                for (int j = movieOffsets[m]; j < movieOffsets[m + 1]; j++) {
+                    degree[movieActors[j]]--;
+                }
+            }
+            int added = 0;
+            for (long id : cast) {
+                int a = actorIndex(id);
+                if (a >= 0) {
+                    degree[a]++;
+                } else {
+                    added++;
+                }
+            }
+
+            // Surviving actors merged with the new ones, both already in id order
+            long[] newActors = Arrays.stream(cast).filter(id -> actorIndex(id) < 0).sorted().toArray();
+            int survivors = 0;
+            for (int d : degree) {
+                if (d > 0) {
+                    survivors++;
+                }
+            }
+            long[] newActorIds = new long[survivors + added];
+            int[] remap = new int[actorIds.length];
+            int next = 0;
+            int k = 0;
+            for (int a = 0; a < actorIds.length; a++) {
+                while (k < newActors.length && newActors[k] < actorIds[a]) {
+                    newActorIds[next++] = newActors[k++];
+                }
+                remap[a] = degree[a] > 0 ? next : -1;
+                if (degree[a] > 0) {
+                    newActorIds[next++] = actorIds[a];
+                }
+            }
+            while (k < newActors.length) {
+                newActorIds[next++] = newActors[k++];
+            }
+
+            // The movie keeps, takes or gives up its position in id order
+            int at = m >= 0 ? m : -(m + 1);
+            int movieDelta = m < 0 ? 1 : cast.length == 0 ? -1 : 0;
+            long[] newMovieIds = new long[movieIds.length + movieDelta];
+            int oldCast = m >= 0 ? movieOffsets[m + 1] - movieOffsets[m] : 0;
+            int[] newMovieOffsets = new int[newMovieIds.length + 1];
+            int[] newMovieActors = new int[movieActors.length - oldCast + cast.length];
+            int nm = 0;
+            int edge = 0;
+            for (int om = 0; om <= movieIds.length; om++) {
+                if (om == at && cast.length > 0) {
+                    newMovieIds[nm] = movieId;
+                    for (long id : cast) {
+                        newMovieActors[edge++] = Arrays.binarySearch(newActorIds, id);
+                    }
+                    newMovieOffsets[++nm] = edge;
+                }
+                if (om == movieIds.length) {
+                    break;
+                }
+                if (om == m) {
+                    continue;
+                }
+                newMovieIds[nm] = movieIds[om];
+                for (int j = movieOffsets[om]; j < movieOffsets[om + 1]; j++) {
+                    newMovieActors[edge++] = remap[movieActors[j]];
+                }
+                newMovieOffsets[++nm] = edge;
+            }
+            return of(newActorIds, newMovieIds, newMovieOffsets, newMovieActors);
+        }
+
+        // Derives the actor-to-movies direction from the movie-to-cast one with a counting pass
+        private static Graph of(long[] actorIds, long[] movieIds, int[] movieOffsets, int[] movieActors) {
+            int[] actorOffsets = new int[actorIds.length + 1];
+            for (int actor : movieActors) {
+                actorOffsets[actor + 1]++;
+            }
+            for (int a = 0; a < actorIds.length; a++) {
+                actorOffsets[a + 1] += actorOffsets[a];
+            }
+            int[] fill = Arrays.copyOf(actorOffsets, actorIds.length);
+            int[] actorMovies = new int[movieActors.length];
+            for (int m = 0; m < movieIds.length; m++) {
+                for (int j = movieOffsets[m]; j < movieOffsets[m + 1]; j++) {
+                    actorMovies[fill[movieActors[j]]++] = m;
+                }
+            }
+            return new Graph(actorIds, movieIds, actorOffsets, actorMovies, movieOffsets, movieActors);
+        }
+
+        long[] castOf(int movie) {
+            long[] cast = new long[movieOffsets[movie + 1] - movieOffsets[movie]];
+            for (int j = movieOffsets[movie]; j < movieOffsets[movie + 1]; j++) {
+                cast[j - movieOffsets[movie]] = actorIds[movieActors[j]];
+            }
+            return cast;
+        }
+
+        int actorIndex(long actorId) {
+            int index = Arrays.binarySearch(actorIds, actorId);
+            return index >= 0 ? index : -1;
+        }
+
+        Path path(int from, int to, int[] parentActor, int[] viaMovie) {
+            LinkedList<Long> actors = new LinkedList<>();
+            LinkedList<Long> movies = new LinkedList<>();
+            for (int actor = to; actor != from; actor = parentActor[actor]) {
+                actors.addFirst(actorIds[actor]);
+                movies.addFirst(movieIds[viaMovie[actor]]);
+            }
+            actors.addFirst(actorIds[from]);
+            return new Path(List.copyOf(actors), List.copyOf(movies));
+        }
+    }
+}
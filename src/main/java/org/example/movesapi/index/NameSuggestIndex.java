@@ -0,0 +1,228 @@
+package org.example.movesapi.index;
+
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.service.EntityChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix lookup over movie and actor names for type-ahead suggestions.
+ * <p>
+ * Names are case-folded (lower case, diacritics removed) and kept in a sorted array per
+ * entity type. A lookup is a binary search for the folded prefix followed by a forward scan,
+ * so it never touches the database. Writes update an id-to-name map after commit and publish
+ * a new snapshot with only the changed name moved: its old row is cut out and the new one
+ * spliced in at its sorted position, a single array copy instead of refolding and re-sorting
+ * every name. Lookups read the published snapshot and never lock or rebuild.
+ */
+@Component
+public class NameSuggestIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final JdbcTemplate jdbc;
+    private final Names movies = new Names("movie");
+    private final Names actors = new Names("actor");
+
+    public NameSuggestIndex(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1) // before the warm-up (see WarmUp)
+    public void reload() {
+        movies.reload(jdbc);
+        actors.reload(jdbc);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() == Movie.class) {
+            movies.refresh(jdbc, (Long) event.id(), event.change());
+        } else if (event.entityType() == Actor.class) {
+            actors.refresh(jdbc, (Long) event.id(), event.change());
+        }
+    }
+
+    public List<Suggestion> suggestMovies(String prefix, int limit) {
+        return movies.suggest(prefix, limit);
+    }
+
+    public List<Suggestion> suggestActors(String prefix, int limit) {
+        return actors.suggest(prefix, limit);
+    }
+
+    /**
+     * Lower-cases and strips diacritics, so "Zoë" and "zoe" fold to the same key.
+     */
+    static String fold(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An id with its original (not folded) name.
+     */
+    public record Suggestion(Long id, String name) {
+    }
+
+    /**
+     * Names of one table: the id-to-name map plus the published sorted snapshot.
+     */
+    private static final class Names {
+        private final String table;
+        private final Map<Long, String> byId = new HashMap<>();  // guarded by this
+        private volatile Snapshot snapshot = Snapshot.build(Map.of());
+
+        Names(String table) {
+            this.table = table;
+        }
+
+        synchronized void reload(JdbcTemplate jdbc) {
+            byId.clear();
+            jdbc.query("SELECT id, name FROM " + table + " WHERE name IS NOT NULL", rs -> {
+                byId.put(rs.getLong(1), rs.getString(2));
+            });
+            snapshot = Snapshot.build(byId);
+        }
+
+        synchronized void refresh(JdbcTemplate jdbc, Long id, EntityChangedEvent.Change change) {
+            String name = null;
+            if (change != EntityChangedEvent.Change.DELETED) {
+                List<String> names = jdbc.queryForList(
+                        "SELECT name FROM " + table + " WHERE id = ? AND name IS NOT NULL", String.class, id);
+                name = names.isEmpty() ? null : names.get(0);
+            }
+            String previous = name == null ? byId.remove(id) : byId.put(id, name);
+            if (Objects.equals(previous, name)) {
+                return;
+            }
+            Snapshot next = snapshot;
+            if (previous != null) {
+                next = next.without(fold(previous), id);
+            }
+            if (name != null) {
+                next = next.with(fold(name), id, name);
+            }
+            snapshot = next;
+        }
+
+        List<Suggestion> suggest(String prefix, int limit) {
+            Snapshot s = snapshot;
+            String key = fold(prefix);
+            List<Suggestion> result = new ArrayList<>(Math.min(limit, 16));
+            for (int i = s.lowerBound(key); i < s.keys.length && result.size() < limit && s.keys[i].startsWith(key); i++) {
+                result.add(new Suggestion(s.ids[i], s.names[i]));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Parallel arrays sorted by folded name (ties broken by id).
+     */
+    private record Snapshot(String[] keys, long[] ids, String[] names) {
+
+        static Snapshot build(Map<Long, String> byId) {
+            record Row(String key, long id, String name) {
+            }
+            Row[] rows = byId.entrySet().stream()
+                    .map(e -> new Row(fold(e.getValue()), e.getKey(), e.getValue()))
+                    .sorted(Comparator.comparing(Row::key).thenComparingLong(Row::id))
+                    .toArray(Row[]::new);
+
+            String[] keys = new String[rows.length];
+            long[] ids = new long[rows.length];
+            String[] names = new String[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                keys[i] = rows[i].key();
+                ids[i] = rows[i].id();
+                names[i] = rows[i].name();
+            }
+            return new Snapshot(keys, ids, names);
+        }
+
+        /**
+         * A copy with the row inserted at its sorted position; the receiver is not changed.
+         */
+        Snapshot with(String key, long id, String name) {
+            int at = position(key, id);
+            int length = keys.length;
+            String[] newKeys = new String[length + 1];
+            long[] newIds = new long[length + 1];
+            String[] newNames = new String[length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(names, 0, newNames, 0, at);
+            newKeys[at] = key;
+            newIds[at] = id;
+            newNames[at] = name;
+            System.arraycopy(keys, at, newKeys, at + 1, length - at);
+            System.arraycopy(ids, at, newIds, at + 1, length - at);
+            System.arraycopy(names, at, newNames, at + 1, length - at);
+            return new Snapshot(newKeys, newIds, newNames);
+        }
+
+        /**
+         * A copy without the row, or this snapshot if it has no such row.
+         */
+        Snapshot without(String key, long id) {
+            int at = position(key, id);
+            int length = keys.length;
+            if (at == length || ids[at] != id || !keys[at].equals(key)) {
+                return this;
+            }
+            String[] newKeys = new String[length - 1];
+            long[] newIds = new long[length - 1];
+            String[] newNames = new String[length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(names, 0, newNames, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, length - at - 1);
+            System.arraycopy(ids, at + 1, newIds, at, length - at - 1);
+            System.arraycopy(names, at + 1, newNames, at, length - at - 1);
+            return new Snapshot(newKeys, newIds, newNames);
+        }
+
+        // First position whose key is >= the given key (several names may fold to the same key)
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First position whose (key, id) is >= the given pair, in the order the rows are sorted by
+        private int position(String key, long id) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = keys[mid].compareTo(key);
+                if (cmp < 0 || (cmp == 0 && ids[mid] < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.movesapi.index;
+
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.service.EntityChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Finds movies with similar genre and actor sets using MinHash signatures and LSH buckets.
+ * <p>
+ * Every movie is reduced to a feature set (its genre ids and actor ids, tagged so they
+ * cannot collide) and a MinHash signature of {@value #HASHES} values. The signature is cut
+ * into {@value #BANDS} bands of {@value #ROWS} rows; movies sharing any band land in the same
+ * bucket. With these numbers, pairs above ~50% Jaccard similarity share a bucket with high
+ * probability, and a query only ranks the movies found in its own buckets.
+ * <p>
+ * Candidates are ranked by their exact Jaccard similarity, optionally blended with
+ * release-year proximity. Signatures are not kept, only the band keys.
+ * <p>
+ * Queries read an immutable {@link Snapshot} (entries and buckets) through a volatile reference
+ * without locking. Committed {@link EntityChangedEvent}s are applied by the writing thread, one at
+ * a time: the changed movie's signature is recomputed, its old band keys are removed from their
+ * buckets and the new ones added in a copy-on-write copy of the maps, and the copy is published.
+ * Only deleting a genre or actor, which changes many feature sets, rebuilds the whole index.
+ */
+@Component
+public class SimilarMovieIndex {
+
+    static final int BANDS = 16;
+    static final int ROWS = 4;
+    static final int HASHES = BANDS * ROWS;
+    // Release years further apart than this get no proximity credit
+    static final double YEAR_HORIZON = 20.0;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5EED_CAFEL).longs(HASHES).toArray();
+
+    private final JdbcTemplate jdbc;
+
+    // Replaced only while holding this, so an older database read never replaces a newer one
+    private volatile Snapshot snapshot = Snapshot.build(Map.of());
+
+    public SimilarMovieIndex(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Computes signatures for the whole catalog. Runs once the application (and DataLoader) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1) // before the warm-up (see WarmUp)
+    public synchronized void reload() {
+        snapshot = Snapshot.build(loadAll());
+    }
+
+    /**
+     * Recomputes the signature of a created or patched movie after commit.
+     * Deleting a genre or actor changes many feature sets at once, so the index is rebuilt.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() == Movie.class) {
+            long movieId = (Long) event.id();
+            Entry entry = event.change() == EntityChangedEvent.Change.DELETED ? null : load(movieId);
+            snapshot = snapshot.with(movieId, entry);
+        } else if ((event.entityType() == Genre.class || event.entityType() == Actor.class)
+                && event.change() == EntityChangedEvent.Change.DELETED) {
+            reload();
+        }
+    }
+
+    /**
+     * Returns the movies most similar to the given one.
+     *
+     * @param movieId    the movie to compare against
+     * @param limit      maximum number of results
+     * @param yearWeight share of the score given to release-year proximity, from 0 (none) to 1 (only)
+     * @return similar movies, best first; empty if the movie is unknown or has no genres and actors
+     */
+    public List<Match> similar(long movieId, int limit, double yearWeight) {
+        Snapshot s = snapshot;
+        Entry target = s.movies().get(movieId);
+        if (target == null || target.features().length == 0) {
+            return List.of();
+        }
+
+        Set<Long> candidates = new HashSet<>();
+        for (long bandKey : target.bandKeys()) {
+            candidates.addAll(s.buckets().getOrDefault(bandKey, List.of()));
+        }
+        candidates.remove(movieId);
+
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (long candidateId : candidates) {
+            Entry candidate = s.movies().get(candidateId);
+            double jaccard = jaccard(target.features(), candidate.features());
+            double proximity = Math.max(0, 1 - Math.abs(target.releaseYear() - candidate.releaseYear()) / YEAR_HORIZON);
+            matches.add(new Match(candidateId, jaccard, (1 - yearWeight) * jaccard + yearWeight * proximity));
+        }
+        matches.sort(Comparator.comparingDouble(Match::score).reversed().thenComparingLong(Match::movieId));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private Map<Long, Entry> loadAll() {
+        Map<Long, Integer> years = new HashMap<>();
+        jdbc.query("SELECT id, release_year FROM movie", rs -> {
+            years.put(rs.getLong(1), rs.getInt(2));
+        });
+        Map<Long, List<Long>> features = new HashMap<>();
+        jdbc.query("""
+                SELECT mg.movie_id, mg.genre_id
+                FROM movie_genres mg
+                JOIN genre g ON g.id = mg.genre_id
+                """, rs -> {
+            features.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(genreFeature(rs.getLong(2)));
+        });
+        jdbc.query("""
+                SELECT ma.movie_id, ma.actor_id
+                FROM movie_actors ma
+                JOIN actor a ON a.id = ma.actor_id
+                """, rs -> {
+            features.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(actorFeature(rs.getLong(2)));
+        });
+
+        Map<Long, Entry> loaded = new HashMap<>();
+        years.forEach((movieId, year) -> loaded.put(movieId, entry(year, features.getOrDefault(movieId, List.of()))));
+        return loaded;
+    }
+
+    // null if the movie no longer exists
+    private Entry load(long movieId) {
+        List<Integer> year = jdbc.queryForList("SELECT release_year FROM movie WHERE id = ?", Integer.class, movieId);
+        if (year.isEmpty()) {
+            return null;
+        }
+        List<Long> features = new ArrayList<>();
+        jdbc.queryForList("""
+                SELECT mg.genre_id FROM movie_genres mg
+                JOIN genre g ON g.id = mg.genre_id
+                WHERE mg.movie_id = ?
+                """, Long.class, movieId).forEach(id -> features.add(genreFeature(id)));
+        jdbc.queryForList("""
+                SELECT ma.actor_id FROM movie_actors ma
+                JOIN actor a ON a.id = ma.actor_id
+                WHERE ma.movie_id = ?
+                """, Long.class, movieId).forEach(id -> features.add(actorFeature(id)));
+        return entry(year.get(0), features);
+    }
+
+    private static Entry entry(int releaseYear, List<Long> featureList) {
+        long[] features = featureList.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+        long[] bandKeys = features.length == 0 ? new long[0] : bandKeys(signature(features));
+        return new Entry(releaseYear, features, bandKeys);
+    }
+
+    static long[] signature(long[] features) {
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long feature : features) {
+            for (int i = 0; i < HASHES; i++) {
+                long h = mix(feature ^ SEEDS[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static long[] bandKeys(long[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    // Jaccard similarity of two sorted, duplicate-free arrays
+    static double jaccard(long[] a, long[] b) {
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+
+    // Genre and actor ids share one feature space; the low bit keeps them apart
+    private static long genreFeature(long genreId) {
+        return genreId << 1;
+    }
+
+    private static long actorFeature(long actorId) {
+        return (actorId << 1) | 1;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Entry(int releaseYear, long[] features, long[] bandKeys) {
+    }
+
+    /**
+     * The entries with their LSH buckets (band key to movie ids); never changed once built.
+     */
+    private record Snapshot(Map<Long, Entry> movies, Map<Long, List<Long>> buckets) {
+
+        static Snapshot build(Map<Long, Entry> movies) {
+            Map<Long, List<Long>> buckets = new HashMap<>();
+            movies.forEach((movieId, entry) -> {
+                for (long bandKey : entry.bandKeys()) {
+                    buckets.computeIfAbsent(bandKey, key -> new ArrayList<>()).add(movieId);
+                }
+            });
+            return new Snapshot(movies, buckets);
+        }
+
+        /**
+         * A copy with the movie's entry replaced, or removed if {@code entry} is null. Only the
+         * buckets of the old and the new band keys are copied; all other lists are shared.
+         */
+        Snapshot with(long movieId, Entry entry) {
+            Map<Long, Entry> newMovies = new HashMap<>(movies);
+            Map<Long, List<Long>> newBuckets = new HashMap<>(buckets);
+            Entry previous = entry == null ? newMovies.remove(movieId) : newMovies.put(movieId, entry);
+            if (previous != null) {
+                for (long bandKey : previous.bandKeys()) {
+                    List<Long> bucket = new ArrayList<>(newBuckets.getOrDefault(bandKey, List.of()));
+                    bucket.remove(Long.valueOf(movieId));
+                    if (bucket.isEmpty()) {
+                        newBuckets.remove(bandKey);
+                    } else {
+                        newBuckets.put(bandKey, bucket);
+                    }
+                }
+            }
+            if (entry != null) {
+                for (long bandKey : entry.bandKeys()) {
+                    List<Long> bucket = new ArrayList<>(newBuckets.getOrDefault(bandKey, List.of()));
+                    bucket.add(movieId);
+                    newBuckets.put(bandKey, bucket);
+                }
+            }
+            return new Snapshot(newMovies, newBuckets);
+        }
+    }
+}
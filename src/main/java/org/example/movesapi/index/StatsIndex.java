@@ -0,0 +1,506 @@
+package org.example.movesapi.index;
+
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.service.EntityChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Columnar in-memory copy of the catalog for dashboard aggregations.
+ * <p>
+ * {@code movie.release_year}, {@code movie.duration} and both join tables are held as
+ * primitive int columns addressed by dense row indices, so every statistic is a single
+ * tight loop over arrays (no boxing, no SQL). The columns are immutable and published through a
+ * volatile reference; committed {@link EntityChangedEvent}s are applied by the writing thread,
+ * which splices only the changed row and its join ranges into copies of the arrays.
+ * Callers take one {@link #snapshot()} and compute every statistic from it.
+ */
+@Component
+public class StatsIndex {
+
+    private final JdbcTemplate jdbc;
+
+    // Replaced only while holding this, so an older database read never replaces a newer one
+    private volatile Columns columns = Columns.build(Map.of(), Map.of(), Map.of());
+
+    public StatsIndex(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1) // before the warm-up (see WarmUp)
+    public synchronized void reload() {
+        Map<Long, String> genres = new HashMap<>();
+        jdbc.query("SELECT id, name FROM genre", rs -> {
+            genres.put(rs.getLong(1), rs.getString(2));
+        });
+        Map<Long, String> actors = new HashMap<>();
+        jdbc.query("SELECT id, name FROM actor", rs -> {
+            actors.put(rs.getLong(1), rs.getString(2));
+        });
+
+        Map<Long, List<Long>> genresByMovie = new HashMap<>();
+        jdbc.query("SELECT movie_id, genre_id FROM movie_genres", rs -> {
+            genresByMovie.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        Map<Long, List<Long>> actorsByMovie = new HashMap<>();
+        jdbc.query("SELECT movie_id, actor_id FROM movie_actors", rs -> {
+            actorsByMovie.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        Map<Long, MovieRow> movies = new HashMap<>();
+        jdbc.query("SELECT id, release_year, duration FROM movie", rs -> {
+            long id = rs.getLong(1);
+            movies.put(id, new MovieRow(rs.getInt(2), rs.getInt(3),
+                    toArray(genresByMovie.getOrDefault(id, List.of())),
+                    toArray(actorsByMovie.getOrDefault(id, List.of()))));
+        });
+        columns = Columns.build(movies, genres, actors);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEntityChanged(EntityChangedEvent event) {
+        long id = (Long) event.id();
+        boolean deleted = event.change() == EntityChangedEvent.Change.DELETED;
+        if (event.entityType() == Movie.class) {
+            columns = columns.withMovie(id, deleted ? null : loadMovie(id));
+        } else if (event.entityType() == Genre.class) {
+            columns = columns.withGenre(id, deleted ? null : loadName("SELECT name FROM genre WHERE id = ?", id));
+        } else if (event.entityType() == Actor.class) {
+            columns = columns.withActor(id, deleted ? null : loadName("SELECT name FROM actor WHERE id = ?", id));
+        }
+    }
+
+    // null if the movie no longer exists
+    private MovieRow loadMovie(long id) {
+        List<Map<String, Object>> row = jdbc.queryForList(
+                "SELECT release_year, duration FROM movie WHERE id = ?", id);
+        if (row.isEmpty()) {
+            return null;
+        }
+        return new MovieRow(
+                ((Number) row.get(0).get("release_year")).intValue(),
+                ((Number) row.get(0).get("duration")).intValue(),
+                toArray(jdbc.queryForList("SELECT genre_id FROM movie_genres WHERE movie_id = ?", Long.class, id)),
+                toArray(jdbc.queryForList("SELECT actor_id FROM movie_actors WHERE movie_id = ?", Long.class, id)));
+    }
+
+    // null if the row no longer exists
+    private String loadName(String sql, long id) {
+        List<String> name = jdbc.queryForList(sql, String.class, id);
+        return name.isEmpty() ? null : name.get(0);
+    }
+
+    /**
+     * The current column snapshot. Statistics taken from one snapshot describe the same catalog state,
+     * even if writes are applied while they are computed.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(columns);
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).distinct().toArray();
+    }
+
+    private record MovieRow(int year, int duration, long[] genreIds, long[] actorIds) {
+    }
+
+    /**
+     * Column snapshot; never changed once built, the {@code with*} methods return patched copies.
+     * Rows are in movie id order. Genre and actor ids are dense-indexed in name order (genres) and id
+     * order (actors); the join columns are grouped by movie, with {@code genreOffsets} and
+     * {@code castOffsets} marking each movie's range. Join rows pointing at unknown (force-deleted)
+     * genres or actors are left out.
+     */
+    private record Columns(long[] movieIds, int[] year, int[] duration,
+                           long[] genreIds, String[] genreNames, int[] genreOffsets, int[] genreMovie, int[] genreGenre,
+                           long[] actorIds, String[] actorNames, int[] castOffsets, int[] castActor) {
+
+        static Columns build(Map<Long, MovieRow> movies, Map<Long, String> genres, Map<Long, String> actors) {
+            long[] genreIds = genres.keySet().stream()
+                    .sorted((x, y) -> compareGenres(genres.get(x), x, genres.get(y), y))
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            String[] genreNames = new String[genreIds.length];
+            for (int g = 0; g < genreIds.length; g++) {
+                genreNames[g] = genres.get(genreIds[g]);
+            }
+            long[] actorIds = actors.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            String[] actorNames = new String[actorIds.length];
+            for (int a = 0; a < actorIds.length; a++) {
+                actorNames[a] = actors.get(actorIds[a]);
+            }
+
+            Columns columns = new Columns(new long[0], new int[0], new int[0],
+                    genreIds, genreNames, new int[1], new int[0], new int[0],
+                    actorIds, actorNames, new int[1], new int[0]);
+            long[] movieIds = movies.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int[] year = new int[movieIds.length];
+            int[] duration = new int[movieIds.length];
+            int[] genreOffsets = new int[movieIds.length + 1];
+            int[] castOffsets = new int[movieIds.length + 1];
+            int[] genreMovie = new int[movies.values().stream().mapToInt(r -> r.genreIds().length).sum()];
+            int[] genreGenre = new int[genreMovie.length];
+            int[] castActor = new int[movies.values().stream().mapToInt(r -> r.actorIds().length).sum()];
+
+            int gp = 0;
+            int ap = 0;
+            for (int m = 0; m < movieIds.length; m++) {
+                MovieRow row = movies.get(movieIds[m]);
+                year[m] = row.year();
+                duration[m] = row.duration();
+                for (int g : columns.genreIndices(row.genreIds())) {
+                    genreMovie[gp] = m;
+                    genreGenre[gp++] = g;
+                }
+                genreOffsets[m + 1] = gp;
+                for (int a : columns.actorIndices(row.actorIds())) {
+                    castActor[ap++] = a;
+                }
+                castOffsets[m + 1] = ap;
+            }
+            return new Columns(movieIds, year, duration,
+                    genreIds, genreNames, genreOffsets,
+                    Arrays.copyOf(genreMovie, gp), Arrays.copyOf(genreGenre, gp),
+                    actorIds, actorNames, castOffsets, Arrays.copyOf(castActor, ap));
+        }
+
+        /**
+         * A copy with the movie's row replaced, inserted, or removed if {@code row} is null.
+         */
+        Columns withMovie(long movieId, MovieRow row) {
+            int m = Arrays.binarySearch(movieIds, movieId);
+            boolean present = m >= 0;
+            if (!present && row == null) {
+                return this;
+            }
+            m = present ? m : -m - 1;
+            int oldEnd = present ? m + 1 : m;
+            boolean kept = row != null;
+            int rowShift = (kept ? 1 : 0) - (present ? 1 : 0);
+
+            int[] genres = kept ? genreIndices(row.genreIds()) : new int[0];
+            int[] cast = kept ? actorIndices(row.actorIds()) : new int[0];
+            int gFrom = genreOffsets[m];
+            int[] movieColumn = new int[genres.length];
+            Arrays.fill(movieColumn, m);
+            int[] newGenreMovie = splice(genreMovie, gFrom, genreOffsets[oldEnd], movieColumn);
+            if (rowShift != 0) {
+                for (int i = gFrom + genres.length; i < newGenreMovie.length; i++) {
+                    newGenreMovie[i] += rowShift;
+                }
+            }
+
+            return new Columns(
+                    splice(movieIds, m, oldEnd, kept ? new long[] {movieId} : new long[0]),
+                    splice(year, m, oldEnd, kept ? new int[] {row.year()} : new int[0]),
+                    splice(duration, m, oldEnd, kept ? new int[] {row.duration()} : new int[0]),
+                    genreIds, genreNames,
+                    offsets(genreOffsets, m, present, kept, genres.length),
+                    newGenreMovie,
+                    splice(genreGenre, gFrom, genreOffsets[oldEnd], genres),
+                    actorIds, actorNames,
+                    offsets(castOffsets, m, present, kept, cast.length),
+                    splice(castActor, castOffsets[m], castOffsets[oldEnd], cast));
+        }
+
+        /**
+         * A copy with the genre renamed, added, or removed if {@code name} is null. The genre
+         * column is remapped to the new name order; removing a genre drops its join rows.
+         */
+        Columns withGenre(long genreId, String name) {
+            int old = -1;
+            for (int g = 0; g < genreIds.length; g++) {
+                if (genreIds[g] == genreId) {
+                    old = g;
+                }
+            }
+            if (old < 0 && name == null) {
+                return this;
+            }
+
+            // Drop the genre, then insert it again at its place in name order
+            long[] newIds = old >= 0 ? splice(genreIds, old, old + 1, new long[0]) : genreIds;
+            String[] newNames = old >= 0 ? splice(genreNames, old, old + 1, new String[0]) : genreNames;
+            int at = -1;
+            if (name != null) {
+                at = 0;
+                while (at < newIds.length && compareGenres(newNames[at], newIds[at], name, genreId) < 0) {
+                    at++;
+                }
+                newIds = splice(newIds, at, at, new long[] {genreId});
+                newNames = splice(newNames, at, at, new String[] {name});
+            }
+            // old dense index -> new one, -1 once removed
+            int[] remap = new int[genreIds.length];
+            for (int g = 0; g < genreIds.length; g++) {
+                int shifted = old >= 0 && g > old ? g - 1 : g;
+                remap[g] = g == old ? at : at >= 0 && shifted >= at ? shifted + 1 : shifted;
+            }
+
+            int[] newOffsets = new int[genreOffsets.length];
+            int[] newMovie = new int[genreMovie.length];
+            int[] newGenre = new int[genreGenre.length];
+            int p = 0;
+            for (int m = 0; m + 1 < genreOffsets.length; m++) {
+                for (int i = genreOffsets[m]; i < genreOffsets[m + 1]; i++) {
+                    int g = remap[genreGenre[i]];
+                    if (g >= 0) {
+                        newMovie[p] = m;
+                        newGenre[p++] = g;
+                    }
+                }
+                newOffsets[m + 1] = p;
+            }
+            return new Columns(movieIds, year, duration,
+                    newIds, newNames, newOffsets, Arrays.copyOf(newMovie, p), Arrays.copyOf(newGenre, p),
+                    actorIds, actorNames, castOffsets, castActor);
+        }
+
+        /**
+         * A copy with the actor renamed, added, or removed if {@code name} is null; removing an
+         * actor drops their cast rows.
+         */
+        Columns withActor(long actorId, String name) {
+            int a = Arrays.binarySearch(actorIds, actorId);
+            if (a >= 0 && name != null) {
+                String[] newNames = actorNames.clone();
+                newNames[a] = name;
+                return new Columns(movieIds, year, duration,
+                        genreIds, genreNames, genreOffsets, genreMovie, genreGenre,
+                        actorIds, newNames, castOffsets, castActor);
+            }
+            if (a < 0 && name == null) {
+                return this;
+            }
+
+            // Inserting at or removing a shifts the dense indices after it
+            boolean added = name != null;
+            int at = added ? -a - 1 : a;
+            int[] newOffsets = new int[castOffsets.length];
+            int[] newCast = new int[castActor.length];
+            int p = 0;
+            for (int m = 0; m + 1 < castOffsets.length; m++) {
+                for (int i = castOffsets[m]; i < castOffsets[m + 1]; i++) {
+                    int actor = castActor[i];
+                    if (added) {
+                        newCast[p++] = actor >= at ? actor + 1 : actor;
+                    } else if (actor != at) {
+                        newCast[p++] = actor > at ? actor - 1 : actor;
+                    }
+                }
+                newOffsets[m + 1] = p;
+            }
+            return new Columns(movieIds, year, duration,
+                    genreIds, genreNames, genreOffsets, genreMovie, genreGenre,
+                    splice(actorIds, at, added ? at : at + 1, added ? new long[] {actorId} : new long[0]),
+                    splice(actorNames, at, added ? at : at + 1, added ? new String[] {name} : new String[0]),
+                    newOffsets, Arrays.copyOf(newCast, p));
+        }
+
+        // Name order, ties by id
+        private static int compareGenres(String name, long id, String otherName, long otherId) {
+            int byName = String.valueOf(name).compareTo(String.valueOf(otherName));
+            return byName != 0 ? byName : Long.compare(id, otherId);
+        }
+
+        // Dense indices of the known genres among the ids
+        private int[] genreIndices(long[] ids) {
+            return Arrays.stream(ids)
+                    .mapToInt(id -> {
+                        for (int g = 0; g < genreIds.length; g++) {
+                            if (genreIds[g] == id) {
+                                return g;
+                            }
+                        }
+                        return -1;
+                    })
+                    .filter(g -> g >= 0)
+                    .toArray();
+        }
+
+        // Dense indices of the known actors among the ids
+        private int[] actorIndices(long[] ids) {
+            return Arrays.stream(ids)
+                    .mapToInt(id -> Arrays.binarySearch(actorIds, id))
+                    .filter(a -> a >= 0)
+                    .toArray();
+        }
+
+        // Moves the end offset of row m to match its new range length, dropping or inserting it as needed
+        private static int[] offsets(int[] offsets, int m, boolean present, boolean kept, int length) {
+            int start = offsets[m];
+            int delta = length - (present ? offsets[m + 1] - start : 0);
+            int[] result = splice(offsets, m + 1, present ? m + 2 : m + 1, kept ? new int[] {start + length} : new int[0]);
+            for (int i = kept ? m + 2 : m + 1; i < result.length; i++) {
+                result[i] += delta;
+            }
+            return result;
+        }
+
+        // Copy of the array with [from, to) replaced by the replacement
+        private static int[] splice(int[] array, int from, int to, int[] replacement) {
+            int[] result = new int[array.length - (to - from) + replacement.length];
+            System.arraycopy(array, 0, result, 0, from);
+            System.arraycopy(replacement, 0, result, from, replacement.length);
+            System.arraycopy(array, to, result, from + replacement.length, array.length - to);
+            return result;
+        }
+
+        private static long[] splice(long[] array, int from, int to, long[] replacement) {
+            long[] result = new long[array.length - (to - from) + replacement.length];
+            System.arraycopy(array, 0, result, 0, from);
+            System.arraycopy(replacement, 0, result, from, replacement.length);
+            System.arraycopy(array, to, result, from + replacement.length, array.length - to);
+            return result;
+        }
+
+        private static String[] splice(String[] array, int from, int to, String[] replacement) {
+            String[] result = new String[array.length - (to - from) + replacement.length];
+            System.arraycopy(array, 0, result, 0, from);
+            System.arraycopy(replacement, 0, result, from, replacement.length);
+            System.arraycopy(array, to, result, from + replacement.length, array.length - to);
+            return result;
+        }
+    }
+
+    /**
+     * Statistics over one immutable {@link Columns} snapshot; every method is a loop over its arrays.
+     */
+    public static final class Snapshot {
+
+        private final Columns c;
+
+        private Snapshot(Columns c) {
+            this.c = c;
+        }
+
+        /**
+         * Number of movies per release year, in year order. Years without movies are omitted.
+         */
+        public List<YearCount> moviesPerYear() {
+            if (c.year.length == 0) {
+                return List.of();
+            }
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int y : c.year) {
+                min = Math.min(min, y);
+                max = Math.max(max, y);
+            }
+            int[] histogram = new int[max - min + 1];
+            for (int y : c.year) {
+                histogram[y - min]++;
+            }
+            List<YearCount> result = new ArrayList<>();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    result.add(new YearCount(min + i, histogram[i]));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Average movie duration per genre, in genre name order. Genres without movies are omitted.
+         */
+        public List<GenreDuration> averageDurationPerGenre() {
+            long[] sum = new long[c.genreIds.length];
+            int[] count = new int[c.genreIds.length];
+            int[] movieCol = c.genreMovie;
+            int[] genreCol = c.genreGenre;
+            int[] duration = c.duration;
+            for (int i = 0; i < genreCol.length; i++) {
+                sum[genreCol[i]] += duration[movieCol[i]];
+                count[genreCol[i]]++;
+            }
+            List<GenreDuration> result = new ArrayList<>();
+            for (int g = 0; g < c.genreIds.length; g++) {
+                if (count[g] > 0) {
+                    result.add(new GenreDuration(c.genreIds[g], c.genreNames[g], (double) sum[g] / count[g], count[g]));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Actors with the most movies, most first (ties by id).
+         */
+        public List<ActorCount> mostProlificActors(int limit) {
+            int[] count = new int[c.actorIds.length];
+            for (int a : c.castActor) {
+                count[a]++;
+            }
+            // Bounded min-heap of dense actor indices
+            PriorityQueue<Integer> top = new PriorityQueue<>(
+                    Comparator.<Integer>comparingInt(a -> count[a]).thenComparingLong(a -> -c.actorIds[a]));
+            for (int a = 0; a < count.length; a++) {
+                if (count[a] == 0) {
+                    continue;
+                }
+                top.add(a);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<ActorCount> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                int a = top.poll();
+                result.add(new ActorCount(c.actorIds[a], c.actorNames[a], count[a]));
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        /**
+         * Symmetric matrix of how many movies carry both genres; the diagonal holds each genre's movie count.
+         */
+        public GenreCooccurrence genreCooccurrence() {
+            int n = c.genreIds.length;
+            int[] matrix = new int[n * n];
+            int[] offsets = c.genreOffsets;
+            int[] genreCol = c.genreGenre;
+            for (int m = 0; m + 1 < offsets.length; m++) {
+                for (int i = offsets[m]; i < offsets[m + 1]; i++) {
+                    int row = genreCol[i] * n;
+                    for (int j = offsets[m]; j < offsets[m + 1]; j++) {
+                        matrix[row + genreCol[j]]++;
+                    }
+                }
+            }
+            int[][] counts = new int[n][];
+            for (int g = 0; g < n; g++) {
+                counts[g] = Arrays.copyOfRange(matrix, g * n, (g + 1) * n);
+            }
+            return new GenreCooccurrence(Arrays.asList(c.genreNames), counts);
+        }
+
+        public int movieCount() {
+            return c.year.length;
+        }
+    }
+
+    public record YearCount(int year, int movies) {
+    }
+
+    public record GenreDuration(Long genreId, String genre, double averageDuration, int movies) {
+    }
+
+    public record ActorCount(Long actorId, String name, int movies) {
+    }
+
+    /**
+     * {@code counts[i][j]} is the number of movies tagged with both {@code genres[i]} and {@code genres[j]}.
+     */
+    public record GenreCooccurrence(List<String> genres, int[][] counts) {
+    }
+}
@@ -0,0 +1,328 @@
+package org.example.movesapi.journal;
+
+import org.example.movesapi.exceptions.DependencyExistException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.journal.JournalCatalog.Row;
+import org.example.movesapi.journal.JournalCatalog.Table;
+import org.example.movesapi.service.AbstractCRUDService;
+import org.example.movesapi.service.CRUDService;
+import org.example.movesapi.service.EntityChangedEvent;
+import org.example.movesapi.service.FieldSelection;
+import org.example.movesapi.service.InMemoryOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.*;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * {@link CRUDService} over the {@link JournalCatalog} instead of JPA.
+ * <p>
+ * Keeps the contract of {@link AbstractCRUDService}: the same validation and dependency checks,
+ * filters, paging limits, default order (name, case-insensitive) and field selection, so the
+ * controllers cannot tell the two apart. Reads never leave memory; the default order is served
+ * straight from the name index, any other order sorts the table. Totals are always exact,
+ * which makes {@link #estimateCount} the same as a {@code count=exact} total.
+ *
+ * @param <T> the entity type
+ * @param <R> the catalog row type
+ */
+abstract class AbstractJournalService<T, R extends Row> implements CRUDService<T, Long>, ApplicationEventPublisherAware {
+
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Order.asc("name").ignoreCase());
+
+    protected final JournalCatalog catalog;
+    protected final Table<R> table;
+    private final Class<T> entityType;
+    private ApplicationEventPublisher events;
+
+    @SuppressWarnings("unchecked")
+    AbstractJournalService(JournalCatalog catalog, Table<R> table) {
+        this.catalog = catalog;
+        this.table = table;
+        this.entityType = (Class<T>) ResolvableType.forClass(AbstractJournalService.class, getClass()).resolveGeneric(0);
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    /**
+     * A detached entity with the row's values and associations.
+     */
+    protected abstract T toEntity(R row);
+
+    /**
+     * The row to store for the entity under the given id.
+     */
+    protected abstract R toRow(T entity, long id);
+
+    protected abstract Long getId(T entity);
+
+    /**
+     * Scalar properties in declaration order, as the entity is serialized.
+     */
+    protected abstract Map<String, Function<R, Object>> properties();
+
+    /**
+     * Associations included in the entity's JSON, each as a list of shaped rows ordered by id.
+     */
+    protected Map<String, Function<R, List<Map<String, Object>>>> associations() {
+        return Map.of();
+    }
+
+    /**
+     * Rejects entities that reference rows which do not exist.
+     */
+    protected void entityValidator(T entity) {
+    }
+
+    /**
+     * How many links keep the row from being deleted without {@code force}.
+     */
+    protected abstract int getDependencyCount(R row);
+
+    /**
+     * The rows matched by a {@code key:value} filter.
+     *
+     * @throws IllegalArgumentException for unsupported or malformed filters
+     */
+    protected abstract Predicate<R> filter(String filter);
+
+    @Override
+    public T create(T entity) {
+        R row = catalog.write(() -> {
+            entityValidator(entity);
+            R created = toRow(entity, catalog.nextId(table));
+            catalog.put(created);
+            return created;
+        });
+        publishChange(row.id(), EntityChangedEvent.Change.CREATED);
+        return toEntity(row);
+    }
+
+    /**
+     * Applies the fields by reflection to a copy of the entity, like {@link AbstractCRUDService#update}.
+     */
+    @Override
+    public void update(Long id, Map<String, Object> fields) {
+        catalog.write(() -> {
+            R row = table.get(id);
+            if (row == null) {
+                throw new NotFoundException("Entity with id " + id + " not found");
+            }
+            T entity = toEntity(row);
+            fields.forEach((key, value) -> {
+                Field field = ReflectionUtils.findField(entity.getClass(), key);
+                if (field != null) {
+                    field.setAccessible(true);
+                    ReflectionUtils.setField(field, entity, value);
+                }
+            });
+            catalog.put(toRow(entity, id));
+            return null;
+        });
+        publishChange(id, EntityChangedEvent.Change.UPDATED);
+    }
+
+    @Override
+    public boolean delete(Long id, boolean force) {
+        boolean deleted = catalog.write(() -> {
+            R row = table.get(id);
+            if (row == null) {
+                return false;
+            }
+            int dependencies = getDependencyCount(row);
+            if (!force && dependencies > 0) {
+                throw new DependencyExistException("Cannot delete " + row.name() + " because it has " + dependencies + " associations");
+            }
+            catalog.delete(table, id);
+            return true;
+        });
+        if (deleted) {
+            publishChange(id, EntityChangedEvent.Change.DELETED);
+        }
+        return deleted;
+    }
+
+    @Override
+    public T getById(Long id) {
+        return findById(id).orElseThrow(() -> new NotFoundException("Entity with id " + id + " not found"));
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return Optional.ofNullable(table.get(id)).map(this::toEntity);
+    }
+
+    @Override
+    public Map<String, Object> getById(Long id, FieldSelection selection) {
+        return findById(id, selection).orElseThrow(() -> new NotFoundException("Entity with id " + id + " not found"));
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findById(Long id, FieldSelection selection) {
+        validate(selection);
+        return Optional.ofNullable(table.get(id)).map(row -> shape(row, selection));
+    }
+
+    @Override
+    public Slice<T> getAll(Pageable pageable, Optional<String> filter) {
+        return rows(pageable, filter).map(this::toEntity);
+    }
+
+    @Override
+    public Page<T> getPage(Pageable pageable, Optional<String> filter) {
+        Slice<T> slice = getAll(pageable, filter);
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), () -> count(filter));
+    }
+
+    @Override
+    public Slice<Map<String, Object>> getAll(Pageable pageable, Optional<String> filter, FieldSelection selection) {
+        validate(selection);
+        return rows(pageable, filter).map(row -> shape(row, selection));
+    }
+
+    @Override
+    public Page<Map<String, Object>> getPage(Pageable pageable, Optional<String> filter, FieldSelection selection) {
+        Slice<Map<String, Object>> slice = getAll(pageable, filter, selection);
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), () -> count(filter));
+    }
+
+    @Override
+    public FieldSelection fullSelection() {
+        return new FieldSelection(Set.of(), new LinkedHashSet<>(associations().keySet()));
+    }
+
+    @Override
+    public long estimateCount(Optional<String> filter) {
+        return count(filter);
+    }
+
+    @Override
+    public MultiGet<T, Long> getByIds(List<Long> ids) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty() || distinct.size() > AbstractCRUDService.MAX_IDS) {
+            throw new InvalidRequestException("ids must contain between 1 and " + AbstractCRUDService.MAX_IDS + " ids");
+        }
+        List<T> found = new ArrayList<>(distinct.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            R row = table.get(id);
+            if (row == null) {
+                missing.add(id);
+            } else {
+                found.add(toEntity(row));
+            }
+        }
+        return new MultiGet<>(found, missing);
+    }
+
+    @Override
+    public Long extractId(T entity) {
+        return getId(entity);
+    }
+
+    private void publishChange(long id, EntityChangedEvent.Change change) {
+        if (events != null) {
+            events.publishEvent(new EntityChangedEvent(entityType, id, change));
+        }
+    }
+
+    // Reads size + 1 rows to know whether a next page exists, as the JPA services do
+    private Slice<R> rows(Pageable pageable, Optional<String> filter) {
+        int page = pageable.getPageNumber();
+        int size = pageable.getPageSize();
+        if (page < 0 || size <= 0 || size > 100) {
+            throw new InvalidRequestException("Invalid pagination parameters: page=" + page + ", size=" + size);
+        }
+        Pageable request = PageRequest.of(page, size, pageable.getSortOr(DEFAULT_SORT));
+        Predicate<R> matches = filter.map(this::filter).orElse(row -> true);
+        List<R> rows = table.consistent(() -> ordered(request.getSort())
+                .filter(matches)
+                .skip(request.getOffset())
+                .limit(size + 1L)
+                .toList());
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, request, hasNext);
+    }
+
+    private long count(Optional<String> filter) {
+        if (filter.isEmpty()) {
+            return table.size();
+        }
+        Predicate<R> matches = filter(filter.get());
+        return table.consistent(() -> table.rows.values().stream().filter(matches).count());
+    }
+
+    private Stream<R> ordered(Sort sort) {
+        if (sort.equals(DEFAULT_SORT)) {
+            return table.byName.stream().map(key -> table.get(key.id())).filter(Objects::nonNull);
+        }
+        return table.rows.values().stream().sorted(comparator(sort));
+    }
+
+    // Ties keep id order
+    private Comparator<R> comparator(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!properties().containsKey(order.getProperty())) {
+                throw new InvalidRequestException("Unknown sort property: " + order.getProperty());
+            }
+        }
+        Comparator<R> comparator = InMemoryOrder.comparator(sort,
+                (row, order) -> sortValue(properties().get(order.getProperty()).apply(row), order.isIgnoreCase()));
+        return comparator.thenComparingLong(Row::id);
+    }
+
+    private static Comparable<?> sortValue(Object value, boolean ignoreCase) {
+        if (ignoreCase && value instanceof String text) {
+            return text.toLowerCase(Locale.ROOT);
+        }
+        return (Comparable<?>) value;
+    }
+
+    private void validate(FieldSelection selection) {
+        for (String field : selection.fields()) {
+            if (!properties().containsKey(field)) {
+                throw new InvalidRequestException("Unknown field: " + field);
+            }
+        }
+        for (String association : selection.expand()) {
+            if (!associations().containsKey(association)) {
+                throw new InvalidRequestException("Cannot expand: " + association);
+            }
+        }
+    }
+
+    // Same shape as ProjectionQueries: id first, then the selected properties, then the expanded associations
+    private Map<String, Object> shape(R row, FieldSelection selection) {
+        Map<String, Object> shaped = new LinkedHashMap<>();
+        shaped.put("id", row.id());
+        Collection<String> fields = selection.fields().isEmpty() ? properties().keySet() : selection.fields();
+        fields.forEach(field -> shaped.put(field, properties().get(field).apply(row)));
+        selection.expand().forEach(association -> shaped.put(association, associations().get(association).apply(row)));
+        return shaped;
+    }
+
+    /**
+     * Splits {@code key:value} like the JPA services do.
+     *
+     * @return the trimmed key and value
+     */
+    static String[] keyValue(String filter) {
+        String[] parts = filter.split(":", 2);
+        if (parts.length < 2 || parts[1].isBlank()) {
+            throw new InvalidRequestException("Filter must be in format key:value[,value...]");
+        }
+        return new String[]{parts[0].trim(), parts[1].trim()};
+    }
+}
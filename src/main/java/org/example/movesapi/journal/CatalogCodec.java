@@ -0,0 +1,310 @@
+package org.example.movesapi.journal;
+
+import org.example.movesapi.journal.JournalCatalog.*;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary format of journal records and snapshots.
+ * <p>
+ * A record is a one-byte tag followed by the row ({@code PUT_*}) or just the id ({@code DELETE_*}).
+ * Ids, counts and lengths are unsigned varints and other numbers zig-zag varints, so a typical
+ * movie record takes a few dozen bytes. A snapshot is a header, the last used id of each table
+ * and all rows in the same encoding, followed by a CRC32 of everything before it.
+ */
+final class CatalogCodec {
+
+    private static final byte PUT_MOVIE = 1;
+    private static final byte PUT_ACTOR = 2;
+    private static final byte PUT_GENRE = 3;
+    private static final byte DELETE_MOVIE = 4;
+    private static final byte DELETE_ACTOR = 5;
+    private static final byte DELETE_GENRE = 6;
+
+    private static final int SNAPSHOT_MAGIC = 0x4B4D444A;  // "KMDJ"
+    private static final byte SNAPSHOT_VERSION = 1;
+
+    private CatalogCodec() {
+    }
+
+    static byte[] put(Row row) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (row) {
+                case MovieRow movie -> {
+                    out.writeByte(PUT_MOVIE);
+                    writeMovie(out, movie);
+                }
+                case ActorRow actor -> {
+                    out.writeByte(PUT_ACTOR);
+                    writeActor(out, actor);
+                }
+                case GenreRow genre -> {
+                    out.writeByte(PUT_GENRE);
+                    writeGenre(out, genre);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] delete(Kind kind, long id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(switch (kind) {
+                case MOVIE -> DELETE_MOVIE;
+                case ACTOR -> DELETE_ACTOR;
+                case GENRE -> DELETE_GENRE;
+            });
+            writeVarLong(out, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a journal record and applies it to the catalog without journaling it again.
+     */
+    static void apply(byte[] record, JournalCatalog catalog) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            byte tag = in.readByte();
+            switch (tag) {
+                case PUT_MOVIE -> catalog.applyPut(readMovie(in));
+                case PUT_ACTOR -> catalog.applyPut(readActor(in));
+                case PUT_GENRE -> catalog.applyPut(readGenre(in));
+                case DELETE_MOVIE -> catalog.applyDelete(Kind.MOVIE, readVarLong(in));
+                case DELETE_ACTOR -> catalog.applyDelete(Kind.ACTOR, readVarLong(in));
+                case DELETE_GENRE -> catalog.applyDelete(Kind.GENRE, readVarLong(in));
+                default -> throw new IllegalStateException("Unknown journal record type " + tag);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes and fsyncs a snapshot file.
+     */
+    static void writeSnapshot(Path file, Snapshot snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_VERSION);
+            writeVarLong(out, snapshot.segment());
+            writeVarLong(out, snapshot.lastMovieId());
+            writeVarLong(out, snapshot.lastActorId());
+            writeVarLong(out, snapshot.lastGenreId());
+            writeVarLong(out, snapshot.genres().size());
+            for (GenreRow genre : snapshot.genres()) {
+                writeGenre(out, genre);
+            }
+            writeVarLong(out, snapshot.actors().size());
+            for (ActorRow actor : snapshot.actors()) {
+                writeActor(out, actor);
+            }
+            writeVarLong(out, snapshot.movies().size());
+            for (MovieRow movie : snapshot.movies()) {
+                writeMovie(out, movie);
+            }
+            out.flush();
+            new DataOutputStream(Channels.newOutputStream(channel)).writeInt((int) crc.getValue());
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Loads a snapshot into the (empty) catalog.
+     *
+     * @throws IllegalStateException if the file is not a complete snapshot
+     */
+    static void readSnapshot(Path file, JournalCatalog catalog) throws IOException {
+        long size = Files.size(file);
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(new BoundedInputStream(raw, size - 4), crc));
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readByte() != SNAPSHOT_VERSION) {
+                throw new IllegalStateException(file + " is not a journal snapshot");
+            }
+            readVarLong(in);  // segment, already known from the file name
+            long lastMovieId = readVarLong(in);
+            long lastActorId = readVarLong(in);
+            long lastGenreId = readVarLong(in);
+            for (long i = readVarLong(in); i > 0; i--) {
+                catalog.applyPut(readGenre(in));
+            }
+            for (long i = readVarLong(in); i > 0; i--) {
+                catalog.applyPut(readActor(in));
+            }
+            for (long i = readVarLong(in); i > 0; i--) {
+                catalog.applyPut(readMovie(in));
+            }
+            if (in.read() != -1 || new DataInputStream(raw).readInt() != (int) crc.getValue()) {
+                throw new IllegalStateException("Snapshot " + file + " is corrupt");
+            }
+            catalog.movies.lastId = Math.max(catalog.movies.lastId, lastMovieId);
+            catalog.actors.lastId = Math.max(catalog.actors.lastId, lastActorId);
+            catalog.genres.lastId = Math.max(catalog.genres.lastId, lastGenreId);
+        } catch (EOFException e) {
+            throw new IllegalStateException("Snapshot " + file + " is truncated", e);
+        }
+    }
+
+    private static void writeMovie(DataOutput out, MovieRow movie) throws IOException {
+        writeVarLong(out, movie.id());
+        writeString(out, movie.name());
+        writeVarLong(out, zigZag(movie.releaseYear()));
+        writeVarLong(out, zigZag(movie.duration()));
+        writeIds(out, movie.genreIds());
+        writeIds(out, movie.actorIds());
+    }
+
+    private static MovieRow readMovie(DataInput in) throws IOException {
+        return new MovieRow(readVarLong(in), readString(in), (int) unZigZag(readVarLong(in)),
+                (int) unZigZag(readVarLong(in)), readIds(in), readIds(in));
+    }
+
+    // A missing birth date is written as 0, any other as its zig-zag epoch day plus one
+    private static void writeActor(DataOutput out, ActorRow actor) throws IOException {
+        writeVarLong(out, actor.id());
+        writeString(out, actor.name());
+        writeVarLong(out, actor.birthDate() == null ? 0 : zigZag(actor.birthDate().toEpochDay()) + 1);
+    }
+
+    private static ActorRow readActor(DataInput in) throws IOException {
+        long id = readVarLong(in);
+        String name = readString(in);
+        long birthDate = readVarLong(in);
+        return new ActorRow(id, name, birthDate == 0 ? null : LocalDate.ofEpochDay(unZigZag(birthDate - 1)));
+    }
+
+    private static void writeGenre(DataOutput out, GenreRow genre) throws IOException {
+        writeVarLong(out, genre.id());
+        writeString(out, genre.name());
+    }
+
+    private static GenreRow readGenre(DataInput in) throws IOException {
+        return new GenreRow(readVarLong(in), readString(in));
+    }
+
+    // Sorted ids are written as deltas, which keeps them to a byte or two each
+    private static void writeIds(DataOutput out, long[] ids) throws IOException {
+        writeVarLong(out, ids.length);
+        long previous = 0;
+        for (long id : ids) {
+            writeVarLong(out, id - previous);
+            previous = id;
+        }
+    }
+
+    private static long[] readIds(DataInput in) throws IOException {
+        long[] ids = new long[(int) readVarLong(in)];
+        long previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            previous += readVarLong(in);
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    // Length plus one, so that 0 stands for null
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length + 1L);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[(int) (length - 1)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Stops reading before the trailing checksum.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
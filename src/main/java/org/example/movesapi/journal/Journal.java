@@ -0,0 +1,264 @@
+package org.example.movesapi.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of binary records, split into numbered segment files
+ * ({@code journal-0000000001.log}, ...).
+ * <p>
+ * Each record is framed as {@code length (int), crc32 (int), payload}. Appends are queued and
+ * written by a single flusher thread, which drains everything queued since its last pass,
+ * writes it and calls {@code fsync} once for the whole batch (group commit): under load one
+ * fsync covers many writes, while a lone write is still durable after a single fsync.
+ * <p>
+ * Appends and the flusher's decision to stop synchronize on one lock, so every record either
+ * reaches the flusher or is refused: once the journal has failed or is closed, nothing that is
+ * still queued or appended later is left without an outcome.
+ */
+final class Journal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(Journal.class);
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    // Records queued at once are written in batches of at most this many, one fsync each
+    private static final int MAX_BATCH = 4096;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private final Path dir;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private FileChannel channel;  // flusher thread only
+    // Held while queueing and while the flusher decides to stop
+    private final Object gate = new Object();
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    /**
+     * Opens the segment for appending (creating it if needed) and starts the flusher.
+     */
+    Journal(Path dir, long segment) throws IOException {
+        this.dir = dir;
+        this.channel = open(segment);
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    static Path segmentFile(Path dir, long segment) {
+        return dir.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Queues a record; the future completes once it is on disk.
+     * Records become durable in the order they were appended.
+     *
+     * @throws IllegalStateException if an earlier write failed or the journal is closed; it accepts nothing after that
+     */
+    CompletableFuture<Void> append(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        return enqueue(new Entry(frame, 0, new CompletableFuture<>()));
+    }
+
+    /**
+     * Ends the current segment after everything queued so far and continues in {@code segment}.
+     * The future completes once the old segment is fsynced and closed.
+     */
+    CompletableFuture<Void> rotate(long segment) {
+        return enqueue(new Entry(null, segment, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        synchronized (gate) {
+            checkWritable();
+            queue.add(entry);
+        }
+        return entry.done();
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new IllegalStateException("Journal is not writable after an earlier I/O error", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    private void flushLoop() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    synchronized (gate) {
+                        if (closed && queue.isEmpty()) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+                batch.forEach(entry -> entry.done().complete(null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop(new IOException("Journal flusher was interrupted", e));
+                return;
+            } catch (Throwable e) {
+                log.error("Journal write failed; no further writes are accepted", e);
+                batch.forEach(entry -> entry.done().completeExceptionally(e));
+                stop(e);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Refuses further appends, then fails everything still queued
+    private void stop(Throwable cause) {
+        List<Entry> orphans = new ArrayList<>();
+        synchronized (gate) {
+            failure = cause;
+            queue.drainTo(orphans);
+        }
+        orphans.forEach(entry -> entry.done().completeExceptionally(cause));
+    }
+
+    private void write(List<Entry> batch) throws IOException {
+        for (Entry entry : batch) {
+            if (entry.frame() == null) {
+                channel.force(false);
+                channel.close();
+                channel = open(entry.rotateTo());
+            } else {
+                while (entry.frame().hasRemaining()) {
+                    channel.write(entry.frame());
+                }
+            }
+        }
+        channel.force(false);
+    }
+
+    private FileChannel open(long segment) throws IOException {
+        FileChannel file = FileChannel.open(segmentFile(dir, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        syncDirectory(dir);
+        return file;
+    }
+
+    /**
+     * Makes created, renamed or deleted files in the directory durable.
+     */
+    static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on every platform (e.g. Windows), which syncs them itself
+        }
+    }
+
+    /**
+     * Writes out everything already queued, then stops the flusher and closes the segment.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (gate) {
+            closed = true;
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Reads the records of a segment in order.
+     * <p>
+     * A short or corrupt record ends the segment. In the last segment that is the expected
+     * result of a crash during a write, so the file is truncated to the last complete record;
+     * in any earlier segment it means lost data and recovery stops.
+     *
+     * @return the number of records read
+     */
+    static long replay(Path file, boolean last, Consumer<byte[]> apply) throws IOException {
+        long records = 0;
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int first;
+            while ((first = in.read()) >= 0) {
+                byte[] payload = readRecord(in, first);
+                if (payload == null) {
+                    break;
+                }
+                apply.accept(payload);
+                records++;
+                valid += HEADER_BYTES + payload.length;
+            }
+            if (first < 0) {
+                return records;  // clean end
+            }
+        }
+        if (!last) {
+            throw new IllegalStateException("Journal segment " + file + " is corrupt after " + records + " records");
+        }
+        log.warn("Discarding a torn record at the end of {} after {} records", file, records);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        return records;
+    }
+
+    // Null if the record is cut short or its checksum does not match
+    private static byte[] readRecord(DataInputStream in, int firstByte) throws IOException {
+        try {
+            int length = firstByte << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+            if (length < 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            int expected = in.readInt();
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == expected ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A queued record, or (with a null frame) a switch to segment {@code rotateTo}.
+     */
+    private record Entry(ByteBuffer frame, long rotateTo, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.movesapi.journal;
+
+import org.apache.coyote.BadRequestException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.journal.JournalCatalog.ActorRow;
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.service.ActorService;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Actors in journal mode, with the filters of {@link ActorService}.
+ */
+class JournalActorService extends AbstractJournalService<Actor, ActorRow> {
+
+    private static final Map<String, Function<ActorRow, Object>> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("id", ActorRow::id);
+        PROPERTIES.put("name", ActorRow::name);
+        PROPERTIES.put("birthDate", ActorRow::birthDate);
+    }
+
+    JournalActorService(JournalCatalog catalog) {
+        super(catalog, catalog.actors);
+    }
+
+    static Actor entity(ActorRow row) {
+        return Actor.builder()
+                .id(row.id())
+                .name(row.name())
+                .birthDate(row.birthDate())
+                .build();
+    }
+
+    static Map<String, Object> shape(ActorRow row) {
+        Map<String, Object> shaped = new LinkedHashMap<>();
+        PROPERTIES.forEach((property, value) -> shaped.put(property, value.apply(row)));
+        return shaped;
+    }
+
+    @Override
+    public Actor findMovie(String title) throws BadRequestException {
+        throw new BadRequestException("../actor/search is not supported");
+    }
+
+    @Override
+    protected Actor toEntity(ActorRow row) {
+        return entity(row);
+    }
+
+    @Override
+    protected ActorRow toRow(Actor entity, long id) {
+        return new ActorRow(id, entity.getName(), entity.getBirthDate());
+    }
+
+    @Override
+    protected Long getId(Actor entity) {
+        return entity.getId();
+    }
+
+    @Override
+    protected Map<String, Function<ActorRow, Object>> properties() {
+        return PROPERTIES;
+    }
+
+    @Override
+    protected void entityValidator(Actor entity) {
+        if (entity.getMovies() != null) {
+            entity.getMovies().forEach(movie -> {
+                if (movie.getId() == null || catalog.movies.get(movie.getId()) == null) {
+                    throw new NotFoundException("Movie with id " + movie.getId() + " not found");
+                }
+            });
+        }
+    }
+
+    @Override
+    protected int getDependencyCount(ActorRow row) {
+        return catalog.moviesOfActor(row.id()).size();
+    }
+
+    /**
+     * Supports {@code movie:The Matrix,Speed} (actors in any of them), {@code birthDate:from..to}
+     * and {@code age:min..max}.
+     */
+    @Override
+    protected Predicate<ActorRow> filter(String filter) {
+        String[] keyValue = keyValue(filter);
+        String key = keyValue[0];
+        String value = keyValue[1];
+        if (key.equals("movie")) {
+            Set<Long> actors = new HashSet<>();
+            for (String name : value.split(",")) {
+                JournalCatalog.MovieRow movie = catalog.movies.findByName(name.trim());
+                if (movie == null) {
+                    throw new NotFoundException("Movie not found:" + name.trim());
+                }
+                Arrays.stream(movie.actorIds()).forEach(actors::add);
+            }
+            return actor -> actors.contains(actor.id());
+        }
+        if (key.equals("birthDate") || key.equals("age")) {
+            ActorService.DateRange range = ActorService.dateRange(key, value);
+            return actor -> actor.birthDate() != null
+                    && !actor.birthDate().isBefore(range.from())
+                    && !actor.birthDate().isAfter(range.to());
+        }
+        throw new InvalidRequestException("Filter key:" + key + " not supported");
+    }
+}
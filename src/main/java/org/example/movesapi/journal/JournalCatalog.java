@@ -0,0 +1,612 @@
+package org.example.movesapi.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The whole catalog (movies, actors, genres and their links) held in memory and made durable
+ * by an append-only {@link Journal} plus periodic snapshots.
+ * <p>
+ * Mutations run one at a time under a write lock: each appends a compact binary record (see
+ * {@link CatalogCodec}) and applies it to the in-memory tables, then, outside the lock, waits
+ * until the journal has fsynced it. Concurrent writers therefore share fsyncs, and a write is
+ * only acknowledged once it is on disk. Readers take no lock; rows are immutable and the tables
+ * are concurrent maps, so a reader may see a write shortly before it is acknowledged. A listing
+ * in name order that overlaps a rename is repeated (see {@link Table#consistent}), so it never
+ * skips the renamed row.
+ * <p>
+ * If the journal fails, writes applied in memory may never reach the disk. The catalog then
+ * stops: every later read and write throws, until a restart recovers what the journal holds.
+ * <p>
+ * After {@code snapshotEvery} records the journal moves to a new segment and the tables as of
+ * that point are written to {@code snapshot-<segment>.bin} in the background; older segments
+ * and snapshots are deleted once it is on disk. Recovery loads the newest snapshot and replays
+ * the segments from its number on. On the very first start the catalog is imported from the
+ * SQLite database.
+ */
+final class JournalCatalog implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalCatalog.class);
+
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final Pattern FILE_NUMBER = Pattern.compile("(?:journal|snapshot)-(\\d+)\\.(?:log|bin)");
+
+    private final Path dir;
+    private final long snapshotEvery;
+    private final boolean snapshotOnShutdown;
+    private final long appendTimeoutMillis;
+    private final DataSource importFrom;
+
+    final Table<MovieRow> movies = new Table<>(this::checkAvailable);
+    final Table<ActorRow> actors = new Table<>(this::checkAvailable);
+    final Table<GenreRow> genres = new Table<>(this::checkAvailable);
+    private final Map<Long, Set<Long>> moviesByActor = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> moviesByGenre = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by writeLock
+    private Journal journal;
+    private long segment;
+    private long sinceSnapshot;
+    private CompletableFuture<Void> lastAppend;
+    private Future<?> pendingSnapshot = CompletableFuture.completedFuture(null);
+
+    private volatile Recovery recovery;
+    // The journal failure that stopped the catalog, if any
+    private volatile Throwable failure;
+
+    /**
+     * @param appendTimeoutMillis how long a write waits for its records to reach the disk before the catalog stops
+     * @param importFrom          the SQLite database to copy the catalog from when the directory is empty, or {@code null}
+     */
+    JournalCatalog(Path dir, long snapshotEvery, boolean snapshotOnShutdown, long appendTimeoutMillis, DataSource importFrom) {
+        if (snapshotEvery < 1) {
+            throw new IllegalArgumentException("kmdb.journal.snapshot-every must be at least 1");
+        }
+        this.dir = dir;
+        this.snapshotEvery = snapshotEvery;
+        this.snapshotOnShutdown = snapshotOnShutdown;
+        this.appendTimeoutMillis = appendTimeoutMillis;
+        this.importFrom = importFrom;
+    }
+
+    /**
+     * Recovers once every other singleton exists, so a database filled by {@code data.sql} is imported complete.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the journal in " + dir, e);
+        }
+    }
+
+    void recover() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(dir);
+        Optional<Long> snapshot = numbers(SNAPSHOT_PREFIX).stream().max(Long::compare);
+        long from = snapshot.orElse(1L);
+        List<Long> segments = numbers(Journal.SEGMENT_PREFIX).stream().filter(n -> n >= from).sorted().toList();
+
+        boolean imported = false;
+        if (snapshot.isPresent()) {
+            CatalogCodec.readSnapshot(snapshotFile(from), this);
+        } else if (segments.isEmpty()) {
+            importCatalog();
+            imported = true;
+        } else {
+            throw new IllegalStateException("Journal segments in " + dir + " have no snapshot to start from");
+        }
+
+        long replayed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            boolean last = i == segments.size() - 1;
+            replayed += Journal.replay(Journal.segmentFile(dir, segments.get(i)), last, payload -> CatalogCodec.apply(payload, this));
+        }
+
+        writeLock.lock();
+        try {
+            segment = segments.isEmpty() ? from : segments.get(segments.size() - 1) + 1;
+            journal = new Journal(dir, segment);
+            if (imported) {
+                writeSnapshot(capture());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        recovery = new Recovery(replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Journal catalog in {}: {} movies, {} actors, {} genres; replayed {} records in {} ms",
+                dir, movies.size(), actors.size(), genres.size(), replayed, recovery.millis());
+    }
+
+    Recovery recovery() {
+        return recovery;
+    }
+
+    /**
+     * Runs a mutation under the write lock and returns once the records it appended are on disk,
+     * waiting at most {@code kmdb.journal.append-timeout-ms}.
+     * Validation errors thrown before the first {@link #put} or {@link #delete} leave no trace.
+     *
+     * @throws IllegalStateException if the journal failed, now or earlier; the catalog is stopped
+     */
+    <R> R write(Supplier<R> mutation) {
+        checkAvailable();
+        CompletableFuture<Void> durable;
+        R result;
+        writeLock.lock();
+        try {
+            lastAppend = null;
+            result = mutation.get();
+            durable = lastAppend;
+            if (sinceSnapshot >= snapshotEvery && pendingSnapshot.isDone()) {
+                startSnapshot();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (durable != null) {
+            try {
+                durable.get(appendTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw fail(e.getCause());
+            } catch (TimeoutException e) {
+                // Memory already holds the write, so the catalog cannot go on without knowing whether the disk does
+                throw fail(new IOException("Journal records were not on disk after " + appendTimeoutMillis + " ms", e));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the journal; the write may still be durable", e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Throws once a journal failure stopped the catalog; memory may then hold writes the disk does not.
+     */
+    void checkAvailable() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Journal catalog stopped after a journal failure; restart to recover", cause);
+        }
+    }
+
+    private IllegalStateException fail(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+            log.error("Journal failed; the catalog serves no reads or writes until it is restarted", cause);
+        }
+        return new IllegalStateException("Could not write the journal", cause);
+    }
+
+    /**
+     * The id for a new row of the table; ids are never reused, like SQLite's AUTOINCREMENT.
+     * Only valid inside {@link #write}.
+     */
+    long nextId(Table<?> table) {
+        return table.lastId + 1;
+    }
+
+    /**
+     * Journals and applies an insert or replacement. Only valid inside {@link #write}.
+     */
+    void put(Row row) {
+        append(CatalogCodec.put(row));
+        applyPut(row);
+    }
+
+    /**
+     * Journals and applies a delete; links from movies to a deleted actor or genre are dropped with it.
+     * Only valid inside {@link #write}.
+     */
+    void delete(Table<?> table, long id) {
+        append(CatalogCodec.delete(kind(table), id));
+        applyDelete(kind(table), id);
+    }
+
+    // Appends before applying, so a record the journal refuses is never visible
+    private void append(byte[] record) {
+        try {
+            lastAppend = journal.append(record);
+        } catch (IllegalStateException e) {
+            throw fail(e);
+        }
+        sinceSnapshot++;
+    }
+
+    // Also used for replay and snapshots, which must not journal again
+    void applyPut(Row row) {
+        switch (row) {
+            case MovieRow movie -> {
+                MovieRow old = movies.put(movie);
+                if (old != null) {
+                    unlink(moviesByActor, old.actorIds(), old.id());
+                    unlink(moviesByGenre, old.genreIds(), old.id());
+                }
+                link(moviesByActor, movie.actorIds(), movie.id());
+                link(moviesByGenre, movie.genreIds(), movie.id());
+            }
+            case ActorRow actor -> actors.put(actor);
+            case GenreRow genre -> genres.put(genre);
+        }
+    }
+
+    void applyDelete(Kind kind, long id) {
+        switch (kind) {
+            case MOVIE -> {
+                MovieRow old = movies.remove(id);
+                if (old != null) {
+                    unlink(moviesByActor, old.actorIds(), id);
+                    unlink(moviesByGenre, old.genreIds(), id);
+                }
+            }
+            case ACTOR -> {
+                actors.remove(id);
+                for (Long movieId : Optional.ofNullable(moviesByActor.remove(id)).orElse(Set.of())) {
+                    movies.rows.computeIfPresent(movieId, (key, movie) -> movie.withActorIds(without(movie.actorIds(), id)));
+                }
+            }
+            case GENRE -> {
+                genres.remove(id);
+                for (Long movieId : Optional.ofNullable(moviesByGenre.remove(id)).orElse(Set.of())) {
+                    movies.rows.computeIfPresent(movieId, (key, movie) -> movie.withGenreIds(without(movie.genreIds(), id)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ids of the movies that link to the actor.
+     */
+    Set<Long> moviesOfActor(long actorId) {
+        checkAvailable();
+        return moviesByActor.getOrDefault(actorId, Set.of());
+    }
+
+    /**
+     * Ids of the movies that link to the genre.
+     */
+    Set<Long> moviesOfGenre(long genreId) {
+        checkAvailable();
+        return moviesByGenre.getOrDefault(genreId, Set.of());
+    }
+
+    private static void link(Map<Long, Set<Long>> index, long[] targets, long movieId) {
+        for (long target : targets) {
+            index.computeIfAbsent(target, key -> ConcurrentHashMap.newKeySet()).add(movieId);
+        }
+    }
+
+    private static void unlink(Map<Long, Set<Long>> index, long[] targets, long movieId) {
+        for (long target : targets) {
+            index.computeIfPresent(target, (key, ids) -> {
+                ids.remove(movieId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static long[] without(long[] ids, long id) {
+        return Arrays.stream(ids).filter(other -> other != id).toArray();
+    }
+
+    private Kind kind(Table<?> table) {
+        return table == movies ? Kind.MOVIE : table == actors ? Kind.ACTOR : Kind.GENRE;
+    }
+
+    Table<?> table(Kind kind) {
+        return switch (kind) {
+            case MOVIE -> movies;
+            case ACTOR -> actors;
+            case GENRE -> genres;
+        };
+    }
+
+    // Under writeLock: the next segment starts exactly where the captured state ends
+    private void startSnapshot() {
+        segment++;
+        CompletableFuture<Void> rotated;
+        try {
+            rotated = journal.rotate(segment);
+        } catch (IllegalStateException e) {
+            throw fail(e);
+        }
+        Snapshot snapshot = capture();
+        sinceSnapshot = 0;
+        pendingSnapshot = snapshotter.submit(() -> {
+            try {
+                rotated.join();
+                writeSnapshot(snapshot);
+            } catch (Exception e) {
+                log.error("Could not write journal snapshot {}", snapshot.segment(), e);
+            }
+        });
+    }
+
+    private Snapshot capture() {
+        return new Snapshot(segment, movies.lastId, actors.lastId, genres.lastId,
+                List.copyOf(genres.rows.values()), List.copyOf(actors.rows.values()), List.copyOf(movies.rows.values()));
+    }
+
+    // Written next to the final name and renamed, so a snapshot file is always complete
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        Path file = snapshotFile(snapshot.segment());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CatalogCodec.writeSnapshot(temporary, snapshot);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Journal.syncDirectory(dir);
+        for (long older : numbers(SNAPSHOT_PREFIX)) {
+            if (older < snapshot.segment()) {
+                Files.deleteIfExists(snapshotFile(older));
+            }
+        }
+        for (long older : numbers(Journal.SEGMENT_PREFIX)) {
+            if (older < snapshot.segment()) {
+                Files.deleteIfExists(Journal.segmentFile(dir, older));
+            }
+        }
+        Journal.syncDirectory(dir);
+    }
+
+    private Path snapshotFile(long number) {
+        return dir.resolve(String.format("%s%010d%s", SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+    }
+
+    private List<Long> numbers(String prefix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .map(FILE_NUMBER::matcher)
+                    .filter(Matcher::matches)
+                    .forEach(matcher -> numbers.add(Long.parseLong(matcher.group(1))));
+        }
+        return numbers;
+    }
+
+    // First start: copy the SQLite catalog, keeping its ids
+    private void importCatalog() {
+        if (importFrom == null) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(importFrom);
+        jdbc.query("SELECT id, name FROM genre", rs -> {
+            applyPut(new GenreRow(rs.getLong("id"), rs.getString("name")));
+        });
+        jdbc.query("SELECT id, name, birth_date FROM actor", rs -> {
+            long epochDay = rs.getLong("birth_date");
+            LocalDate birthDate = rs.wasNull() ? null : LocalDate.ofEpochDay(epochDay);
+            applyPut(new ActorRow(rs.getLong("id"), rs.getString("name"), birthDate));
+        });
+        Map<Long, List<Long>> genreIds = links(jdbc, "SELECT movie_id, genre_id FROM movie_genres");
+        Map<Long, List<Long>> actorIds = links(jdbc, "SELECT movie_id, actor_id FROM movie_actors");
+        jdbc.query("SELECT id, name, release_year, duration FROM movie", rs -> {
+            long id = rs.getLong("id");
+            applyPut(new MovieRow(id, rs.getString("name"), rs.getInt("release_year"), rs.getInt("duration"),
+                    toArray(genreIds.get(id)), toArray(actorIds.get(id))));
+        });
+    }
+
+    private static Map<Long, List<Long>> links(JdbcTemplate jdbc, String sql) {
+        Map<Long, List<Long>> links = new HashMap<>();
+        jdbc.query(sql, rs -> {
+            links.computeIfAbsent(rs.getLong(1), key -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        return links;
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids == null ? new long[0] : ids.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    /**
+     * Waits for a running snapshot, takes a final one if anything was written since
+     * (unless disabled, e.g. to measure recovery, or the catalog stopped), and closes the journal.
+     */
+    @Override
+    public void destroy() throws Exception {
+        writeLock.lock();
+        try {
+            if (journal == null) {
+                return;
+            }
+            pendingSnapshot.get();
+            if (snapshotOnShutdown && sinceSnapshot > 0 && failure == null) {
+                segment++;
+                journal.rotate(segment).join();
+                writeSnapshot(capture());
+                sinceSnapshot = 0;
+            }
+            journal.close();
+            journal = null;
+        } finally {
+            writeLock.unlock();
+            snapshotter.shutdown();
+        }
+    }
+
+    enum Kind {
+        MOVIE,
+        ACTOR,
+        GENRE
+    }
+
+    /**
+     * A catalog row; immutable, so readers can use it without locking.
+     */
+    sealed interface Row permits MovieRow, ActorRow, GenreRow {
+        long id();
+
+        String name();
+    }
+
+    /**
+     * A movie with the ids of its genres and actors, each sorted ascending.
+     */
+    record MovieRow(long id, String name, int releaseYear, int duration, long[] genreIds, long[] actorIds) implements Row {
+
+        MovieRow withGenreIds(long[] ids) {
+            return new MovieRow(id, name, releaseYear, duration, ids, actorIds);
+        }
+
+        MovieRow withActorIds(long[] ids) {
+            return new MovieRow(id, name, releaseYear, duration, genreIds, ids);
+        }
+    }
+
+    record ActorRow(long id, String name, LocalDate birthDate) implements Row {
+    }
+
+    record GenreRow(long id, String name) implements Row {
+    }
+
+    /**
+     * One table: rows by id, a case-insensitive name index (the default listing order) and
+     * the highest id ever used.
+     */
+    static final class Table<R extends Row> {
+
+        final NavigableMap<Long, R> rows = new ConcurrentSkipListMap<>();
+        final NavigableSet<NameKey> byName = new ConcurrentSkipListSet<>();
+        volatile long lastId;  // written under the write lock or during recovery
+
+        // Held exclusively while a row moves from one name key to another
+        private final StampedLock renames = new StampedLock();
+        private final Runnable checkAvailable;
+
+        Table(Runnable checkAvailable) {
+            this.checkAvailable = checkAvailable;
+        }
+
+        R get(long id) {
+            checkAvailable.run();
+            return rows.get(id);
+        }
+
+        int size() {
+            checkAvailable.run();
+            return rows.size();
+        }
+
+        /**
+         * Runs a read over {@link #rows} or {@link #byName} without locking, and again under the
+         * read lock if a rename ran meanwhile, when the name index may have shown the row under
+         * neither or both of its names.
+         */
+        <T> T consistent(Supplier<T> read) {
+            checkAvailable.run();
+            long stamp = renames.tryOptimisticRead();
+            T result = read.get();
+            if (renames.validate(stamp)) {
+                return result;
+            }
+            stamp = renames.readLock();
+            try {
+                return read.get();
+            } finally {
+                renames.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * The row with exactly this name, found through the name index; {@code null} if there is none.
+         */
+        R findByName(String name) {
+            checkAvailable.run();
+            String folded = name.toLowerCase(Locale.ROOT);
+            for (NameKey key : byName.subSet(new NameKey(folded, Long.MIN_VALUE), true, new NameKey(folded, Long.MAX_VALUE), true)) {
+                R row = rows.get(key.id());
+                if (row != null && name.equals(row.name())) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        // Only the writer (or recovery) calls this, so reading the old row first is safe
+        private R put(R row) {
+            NameKey key = NameKey.of(row);
+            R old = rows.get(row.id());
+            NameKey oldKey = old == null ? null : NameKey.of(old);
+            if (oldKey == null || oldKey.equals(key)) {
+                rows.put(row.id(), row);
+                byName.add(key);
+            } else {
+                long stamp = renames.writeLock();
+                try {
+                    rows.put(row.id(), row);
+                    byName.remove(oldKey);
+                    byName.add(key);
+                } finally {
+                    renames.unlockWrite(stamp);
+                }
+            }
+            lastId = Math.max(lastId, row.id());
+            return old;
+        }
+
+        private R remove(long id) {
+            R old = rows.remove(id);
+            if (old != null) {
+                byName.remove(NameKey.of(old));
+            }
+            return old;
+        }
+    }
+
+    /**
+     * Sort key of the name index: lower-cased name, then id. Missing names sort first, as NULLs do in SQLite.
+     */
+    record NameKey(String folded, long id) implements Comparable<NameKey> {
+
+        static NameKey of(Row row) {
+            return new NameKey(row.name() == null ? "" : row.name().toLowerCase(Locale.ROOT), row.id());
+        }
+
+        @Override
+        public int compareTo(NameKey other) {
+            int byName = folded.compareTo(other.folded);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * The tables as of the start of journal segment {@code segment}.
+     */
+    record Snapshot(long segment, long lastMovieId, long lastActorId, long lastGenreId,
+                    List<GenreRow> genres, List<ActorRow> actors, List<MovieRow> movies) {
+    }
+
+    /**
+     * How the last start went: journal records replayed after the snapshot and total recovery time.
+     */
+    record Recovery(long replayedRecords, long millis) {
+    }
+}
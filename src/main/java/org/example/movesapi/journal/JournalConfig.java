@@ -0,0 +1,58 @@
+package org.example.movesapi.journal;
+
+import org.example.movesapi.service.ServiceAdvisingPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * Journal storage mode, enabled by {@code kmdb.journal.dir}.
+ * <p>
+ * The movie, actor and genre {@code CRUDService}s are replaced by in-memory services over a
+ * {@link JournalCatalog} stored in that directory; controllers get them instead of the JPA
+ * services through {@link Primary}. The SQLite database is only read once, to import the
+ * catalog when the directory is empty. The services that query SQLite directly (filmography,
+ * co-stars, suggestions, recommendations, statistics) would answer from that stale copy, so
+ * they answer 501 in this mode (see {@link ServiceAdvisingPostProcessor#SQLITE_SERVICES}).
+ */
+@Configuration
+@ConditionalOnProperty("kmdb.journal.dir")
+class JournalConfig {
+
+    @Bean
+    static ServiceAdvisingPostProcessor sqliteServicesPostProcessor() {
+        return ServiceAdvisingPostProcessor.rejectingSqliteServices("in journal mode");
+    }
+
+    @Bean
+    JournalCatalog journalCatalog(@Value("${kmdb.journal.dir}") Path dir,
+                                  @Value("${kmdb.journal.snapshot-every:100000}") long snapshotEvery,
+                                  @Value("${kmdb.journal.snapshot-on-shutdown:true}") boolean snapshotOnShutdown,
+                                  @Value("${kmdb.journal.append-timeout-ms:10000}") long appendTimeoutMillis,
+                                  DataSource dataSource) {
+        return new JournalCatalog(dir, snapshotEvery, snapshotOnShutdown, appendTimeoutMillis, dataSource);
+    }
+
+    @Bean
+    @Primary
+    JournalMovieService journalMovieService(JournalCatalog catalog) {
+        return new JournalMovieService(catalog);
+    }
+
+    @Bean
+    @Primary
+    JournalActorService journalActorService(JournalCatalog catalog) {
+        return new JournalActorService(catalog);
+    }
+
+    @Bean
+    @Primary
+    JournalGenreService journalGenreService(JournalCatalog catalog) {
+        return new JournalGenreService(catalog);
+    }
+}
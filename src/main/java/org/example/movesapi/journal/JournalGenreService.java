@@ -0,0 +1,88 @@
+package org.example.movesapi.journal;
+
+import org.apache.coyote.BadRequestException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.journal.JournalCatalog.GenreRow;
+import org.example.movesapi.model.Genre;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Genres in journal mode; like the JPA service they cannot be filtered.
+ */
+class JournalGenreService extends AbstractJournalService<Genre, GenreRow> {
+
+    private static final Map<String, Function<GenreRow, Object>> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("id", GenreRow::id);
+        PROPERTIES.put("name", GenreRow::name);
+    }
+
+    JournalGenreService(JournalCatalog catalog) {
+        super(catalog, catalog.genres);
+    }
+
+    static Genre entity(GenreRow row) {
+        return Genre.builder()
+                .id(row.id())
+                .name(row.name())
+                .build();
+    }
+
+    static Map<String, Object> shape(GenreRow row) {
+        Map<String, Object> shaped = new LinkedHashMap<>();
+        PROPERTIES.forEach((property, value) -> shaped.put(property, value.apply(row)));
+        return shaped;
+    }
+
+    @Override
+    public Genre findMovie(String title) throws BadRequestException {
+        throw new BadRequestException("../genre/search is not supported");
+    }
+
+    @Override
+    protected Genre toEntity(GenreRow row) {
+        return entity(row);
+    }
+
+    @Override
+    protected GenreRow toRow(Genre entity, long id) {
+        return new GenreRow(id, entity.getName());
+    }
+
+    @Override
+    protected Long getId(Genre entity) {
+        return entity.getId();
+    }
+
+    @Override
+    protected Map<String, Function<GenreRow, Object>> properties() {
+        return PROPERTIES;
+    }
+
+    @Override
+    protected void entityValidator(Genre entity) {
+        if (entity.getMovies() != null) {
+            entity.getMovies().forEach(movie -> {
+                if (movie.getId() == null || catalog.movies.get(movie.getId()) == null) {
+                    throw new NotFoundException("Movie with id " + movie.getId() + " not found");
+                }
+            });
+        }
+    }
+
+    @Override
+    protected int getDependencyCount(GenreRow row) {
+        return catalog.moviesOfGenre(row.id()).size();
+    }
+
+    @Override
+    protected Predicate<GenreRow> filter(String filter) {
+        throw new InvalidRequestException(".../genres does not support filtering");
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.movesapi.journal;
+
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.journal.JournalCatalog.ActorRow;
+import org.example.movesapi.journal.JournalCatalog.GenreRow;
+import org.example.movesapi.journal.JournalCatalog.MovieRow;
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.service.MovieService;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Movies in journal mode, with the filters and reference checks of {@link MovieService}.
+ */
+class JournalMovieService extends AbstractJournalService<Movie, MovieRow> {
+
+    private static final Map<String, Function<MovieRow, Object>> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("id", MovieRow::id);
+        PROPERTIES.put("name", MovieRow::name);
+        PROPERTIES.put("releaseYear", MovieRow::releaseYear);
+        PROPERTIES.put("duration", MovieRow::duration);
+    }
+
+    private final Map<String, Function<MovieRow, List<Map<String, Object>>>> associations = new LinkedHashMap<>();
+
+    JournalMovieService(JournalCatalog catalog) {
+        super(catalog, catalog.movies);
+        associations.put("genres", movie -> shaped(movie.genreIds(), catalog.genres::get, JournalGenreService::shape));
+        associations.put("actors", movie -> shaped(movie.actorIds(), catalog.actors::get, JournalActorService::shape));
+    }
+
+    @Override
+    public Movie findMovie(String title) {
+        MovieRow movie = table.findByName(title);
+        if (movie == null) {
+            throw new NotFoundException("Movie with name " + title + " not found");
+        }
+        return toEntity(movie);
+    }
+
+    @Override
+    protected Movie toEntity(MovieRow row) {
+        Set<Genre> genres = new LinkedHashSet<>();
+        for (long id : row.genreIds()) {
+            GenreRow genre = catalog.genres.get(id);
+            if (genre != null) {
+                genres.add(JournalGenreService.entity(genre));
+            }
+        }
+        Set<Actor> actors = new LinkedHashSet<>();
+        for (long id : row.actorIds()) {
+            ActorRow actor = catalog.actors.get(id);
+            if (actor != null) {
+                actors.add(JournalActorService.entity(actor));
+            }
+        }
+        return Movie.builder()
+                .id(row.id())
+                .name(row.name())
+                .releaseYear(row.releaseYear())
+                .duration(row.duration())
+                .genres(genres)
+                .actors(actors)
+                .build();
+    }
+
+    @Override
+    protected MovieRow toRow(Movie entity, long id) {
+        return new MovieRow(id, entity.getName(), entity.getReleaseYear(), entity.getDuration(),
+                ids(entity.getGenres(), Genre::getId), ids(entity.getActors(), Actor::getId));
+    }
+
+    @Override
+    protected Long getId(Movie entity) {
+        return entity.getId();
+    }
+
+    @Override
+    protected Map<String, Function<MovieRow, Object>> properties() {
+        return PROPERTIES;
+    }
+
+    @Override
+    protected Map<String, Function<MovieRow, List<Map<String, Object>>>> associations() {
+        return associations;
+    }
+
+    @Override
+    protected void entityValidator(Movie entity) {
+        if (entity.getActors() != null) {
+            entity.getActors().forEach(actor -> {
+                if (actor.getId() == null || catalog.actors.get(actor.getId()) == null) {
+                    throw new NotFoundException("Actor with id " + actor.getId() + " not found");
+                }
+            });
+        }
+        if (entity.getGenres() != null) {
+            entity.getGenres().forEach(genre -> {
+                if (genre.getId() == null || catalog.genres.get(genre.getId()) == null) {
+                    throw new NotFoundException("Genre with id " + genre.getId() + " not found");
+                }
+            });
+        }
+    }
+
+    @Override
+    protected int getDependencyCount(MovieRow row) {
+        return row.genreIds().length + row.actorIds().length;
+    }
+
+    /**
+     * Supports {@code genre:Action,Comedy} and {@code actor:Keanu Reeves} (movies with all of them)
+     * and {@code releaseYear:1999}.
+     */
+    @Override
+    protected Predicate<MovieRow> filter(String filter) {
+        String[] keyValue = keyValue(filter);
+        String key = keyValue[0];
+        String value = keyValue[1];
+        return switch (key) {
+            case "genre" -> {
+                long[] genres = names(value, catalog.genres, "Genre");
+                yield movie -> containsAll(movie.genreIds(), genres);
+            }
+            case "releaseYear" -> {
+                int year = Integer.parseInt(value);
+                yield movie -> movie.releaseYear() == year;
+            }
+            case "actor" -> {
+                long[] actors = names(value, catalog.actors, "Actor");
+                yield movie -> containsAll(movie.actorIds(), actors);
+            }
+            default -> throw new InvalidRequestException("Filter key: " + key + " not supported");
+        };
+    }
+
+    private static long[] names(String value, JournalCatalog.Table<?> table, String label) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .mapToLong(name -> Optional.ofNullable(table.findByName(name))
+                        .orElseThrow(() -> new NotFoundException(label + " not found: " + name))
+                        .id())
+                .distinct()
+                .toArray();
+    }
+
+    // Both arrays are small; link ids are kept sorted
+    private static boolean containsAll(long[] sortedIds, long[] wanted) {
+        for (long id : wanted) {
+            if (Arrays.binarySearch(sortedIds, id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <E> long[] ids(Set<E> entities, Function<E, Long> id) {
+        if (entities == null) {
+            return new long[0];
+        }
+        return entities.stream().map(id).filter(Objects::nonNull).mapToLong(Long::longValue).distinct().sorted().toArray();
+    }
+
+    private static <R> List<Map<String, Object>> shaped(long[] ids, Function<Long, R> rows, Function<R, Map<String, Object>> shape) {
+        List<Map<String, Object>> shaped = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            R row = rows.apply(id);
+            if (row != null) {
+                shaped.add(shape.apply(row));
+            }
+        }
+        return shaped;
+    }
+}
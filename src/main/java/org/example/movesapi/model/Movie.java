@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.validator.constraints.Range;
 
 import java.time.Year;
@@ -54,8 +55,10 @@ public class Movie {
     @Range(min = 60, max = 1000)
     private int duration;
 
+    // Genres and actors of a whole page are loaded with one IN query each instead of one query per movie
     @Builder.Default
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
             name = "movie_genres",
             joinColumns = @JoinColumn(name = "movie_id"),
@@ -67,6 +70,7 @@ public class Movie {
 
     @Builder.Default
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
             name = "movie_actors",
             joinColumns = @JoinColumn(name = "movie_id"),
@@ -0,0 +1,115 @@
+package org.example.movesapi.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sampled access log: one JSON object per line in {@code kmdb.access-log.file}, with the
+ * route, status and the {@link ServerTiming} phases of the request.
+ * <p>
+ * A fraction {@code kmdb.access-log.sample-rate} of requests is logged, plus every 5xx.
+ * Like {@link SlowQueryLog}, lines are written by a single background thread and dropped
+ * when it falls behind, so the file never delays a request; unsampled requests cost one
+ * random number.
+ */
+class AccessLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    private final double sampleRate;
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter out;
+    private final ThreadPoolExecutor writer;
+
+    AccessLog(Path file, double sampleRate, ObjectMapper objectMapper) throws IOException {
+        this.sampleRate = sampleRate;
+        this.objectMapper = objectMapper;
+        if (sampleRate > 0) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } else {
+            this.out = null;
+        }
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "access-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    void offer(HttpServletRequest request, int status, ServerTiming.Timings timings) {
+        if (out == null || (status < 500 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Entry entry = new Entry(
+                Instant.now().toString(),
+                request.getMethod(),
+                request.getRequestURI(),
+                pattern != null ? pattern.toString() : null,
+                status,
+                millis(timings.elapsedNanos()),
+                millis(timings.nanos(ServerTiming.Phase.AUTH)),
+                millis(timings.nanos(ServerTiming.Phase.RESOLVE)),
+                millis(timings.nanos(ServerTiming.Phase.DB)),
+                millis(timings.nanos(ServerTiming.Phase.ASSOCIATIONS)),
+                millis(timings.nanos(ServerTiming.Phase.SERIALIZE)),
+                timings.statements());
+        writer.execute(() -> write(entry));
+    }
+
+    private void write(Entry entry) {
+        try {
+            out.write(objectMapper.writeValueAsString(entry));
+            out.newLine();
+            // Batches lines while the queue is busy
+            if (writer.getQueue().isEmpty()) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Cannot write access log: {}", e.getMessage());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000 / 1000.0;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    /**
+     * One access log line; times in milliseconds.
+     */
+    record Entry(String time, String method, String path, String route, int status, double totalMillis,
+                 double authMillis, double resolveMillis, double dbMillis, double assocMillis,
+                 double serializeMillis, int statements) {
+    }
+}
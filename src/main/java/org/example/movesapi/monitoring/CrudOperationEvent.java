@@ -0,0 +1,38 @@
+package org.example.movesapi.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to a {@code CRUDService} method through its proxy, including the transaction.
+ */
+@Name("kmdb.CrudOperation")
+@Label("CRUD Operation")
+@Category({"KMDB", "Service"})
+@StackTrace(false)
+public class CrudOperationEvent extends jdk.jfr.Event {
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Id")
+    @Description("Id argument of single-entity operations, 0 otherwise")
+    long id;
+
+    @Label("Filter Key")
+    @Description("Key of the key:value filter, without the value")
+    String filterKey;
+
+    @Label("Rows")
+    @Description("Entities returned")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,178 @@
+package org.example.movesapi.monitoring;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.example.movesapi.service.CRUDService;
+import org.example.movesapi.service.ServiceAdvisingPostProcessor;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Emits JDK Flight Recorder events for every {@link CRUDService} call ({@link CrudOperationEvent})
+ * and every Spring Data repository call ({@link RepositoryQueryEvent}); SQL statements and
+ * response cache lookups are recorded where they happen ({@link TimedDataSource}, {@code ResponseCacheFilter}).
+ * <p>
+ * While no recording includes an event type its advice only checks {@code isEnabled()}, so the
+ * advisors can stay on in production. {@code src/main/resources/jfr/kmdb.jfc} enables all of them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kmdb.jfr.enabled", havingValue = "true", matchIfMissing = true)
+class FlightRecorderConfig {
+
+    // Simple names, resolved once per class
+    private static final ClassValue<String> ENTITY_TYPES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            Class<?> entity = ResolvableType.forClass(CRUDService.class, type).resolveGeneric(0);
+            return entity != null ? entity.getSimpleName() : type.getSimpleName();
+        }
+    };
+
+    private static final ClassValue<String> REPOSITORIES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> proxyType) {
+            return Arrays.stream(proxyType.getInterfaces())
+                    .filter(Repository.class::isAssignableFrom)
+                    .filter(type -> !type.getName().startsWith("org.springframework."))
+                    .map(Class::getSimpleName)
+                    .findFirst()
+                    .orElse(proxyType.getSimpleName());
+        }
+    };
+
+    @Bean
+    static CrudEventPostProcessor crudEventPostProcessor() {
+        return new CrudEventPostProcessor();
+    }
+
+    @Bean
+    static RepositoryEventPostProcessor repositoryEventPostProcessor() {
+        return new RepositoryEventPostProcessor();
+    }
+
+    /**
+     * Adds the {@link CrudOperationEvent} advice to every {@link CRUDService} bean, outside its transaction.
+     */
+    static class CrudEventPostProcessor extends ServiceAdvisingPostProcessor {
+
+        CrudEventPostProcessor() {
+            super(invocation -> {
+                CrudOperationEvent event = new CrudOperationEvent();
+                if (!event.isEnabled()) {
+                    return invocation.proceed();
+                }
+                event.begin();
+                Object result = null;
+                boolean failed = true;
+                try {
+                    result = invocation.proceed();
+                    failed = false;
+                    return result;
+                } finally {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.entityType = ENTITY_TYPES.get(ClassUtils.getUserClass(invocation.getThis().getClass()));
+                        event.operation = invocation.getMethod().getName();
+                        event.id = id(invocation.getArguments());
+                        event.filterKey = filterKey(invocation.getArguments());
+                        event.rows = rows(result);
+                        event.failed = failed;
+                        event.commit();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds the {@link RepositoryQueryEvent} advice to the Spring Data repository proxies.
+     */
+    static class RepositoryEventPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+        RepositoryEventPostProcessor() {
+            MethodInterceptor interceptor = invocation -> {
+                RepositoryQueryEvent event = new RepositoryQueryEvent();
+                if (!event.isEnabled()) {
+                    return invocation.proceed();
+                }
+                event.begin();
+                Object result = null;
+                boolean failed = true;
+                try {
+                    result = invocation.proceed();
+                    failed = false;
+                    return result;
+                } finally {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.repository = repository(invocation);
+                        event.method = invocation.getMethod().getName();
+                        event.rows = rows(result);
+                        event.failed = failed;
+                        event.commit();
+                    }
+                }
+            };
+            this.advisor = new DefaultPointcutAdvisor(
+                    new ComposablePointcut(new RootClassFilter(Repository.class)), interceptor);
+            this.beforeExistingAdvisors = true;
+        }
+    }
+
+    private static String repository(MethodInvocation invocation) {
+        if (invocation instanceof ProxyMethodInvocation proxied) {
+            return REPOSITORIES.get(proxied.getProxy().getClass());
+        }
+        return invocation.getMethod().getDeclaringClass().getSimpleName();
+    }
+
+    // Single-entity operations take the id first
+    private static long id(Object[] arguments) {
+        return arguments.length > 0 && arguments[0] instanceof Long id ? id : 0;
+    }
+
+    private static String filterKey(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof Optional<?> optional && optional.orElse(null) instanceof String filter) {
+                int colon = filter.indexOf(':');
+                return (colon < 0 ? filter : filter.substring(0, colon)).trim();
+            }
+        }
+        return null;
+    }
+
+    // Entities returned; 0 for results that are not entities (void, booleans, counts)
+    private static int rows(Object result) {
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof CRUDService.MultiGet<?, ?> multiGet) {
+            return multiGet.found().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result == null || result instanceof Boolean || result instanceof Number) {
+            return 0;
+        }
+        // An entity, or one entity shaped as a map
+        return 1;
+    }
+}
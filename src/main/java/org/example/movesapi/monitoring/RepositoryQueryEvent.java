@@ -0,0 +1,30 @@
+package org.example.movesapi.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to a Spring Data repository method, e.g. {@code MovieRepository.findByGenres}.
+ */
+@Name("kmdb.RepositoryQuery")
+@Label("Repository Query")
+@Category({"KMDB", "Repository"})
+@StackTrace(false)
+public class RepositoryQueryEvent extends jdk.jfr.Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Rows")
+    @Description("Entities returned")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
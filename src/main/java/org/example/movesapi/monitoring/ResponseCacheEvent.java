@@ -0,0 +1,27 @@
+package org.example.movesapi.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One lookup in the HTTP response cache; a miss lasts until the response is computed.
+ */
+@Name("kmdb.ResponseCache")
+@Label("Response Cache")
+@Category({"KMDB", "Cache"})
+@StackTrace(false)
+public class ResponseCacheEvent extends jdk.jfr.Event {
+
+    @Label("Route")
+    public String route;
+
+    @Label("Hit")
+    public boolean hit;
+
+    @Label("Body Size")
+    @DataAmount
+    public long bytes;
+}
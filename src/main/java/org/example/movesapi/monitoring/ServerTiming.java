@@ -0,0 +1,182 @@
+package org.example.movesapi.monitoring;
+
+import java.util.Arrays;
+
+/**
+ * Per-request phase timings, reported in the {@code Server-Timing} response header
+ * (see {@link ServerTimingFilter}) and in the access log.
+ * <p>
+ * Timings live in a per-thread object that is reset for every request, so recording a phase
+ * costs two {@link System#nanoTime()} calls and a thread-local lookup, and allocates nothing.
+ * Outside a timed request every call is a no-op.
+ * <p>
+ * Phases nest inside the service call: statements issued while resolving names or loading
+ * associations count towards those phases, only the rest towards {@link Phase#DB}.
+ */
+public final class ServerTiming {
+
+    /**
+     * Returned by {@link #start()} when the current thread is not timing a request.
+     */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    public enum Phase {
+        /** Spring Security, including BCrypt password checks. */
+        AUTH("auth"),
+        /** Looking up genres, actors or movies named in a filter. */
+        RESOLVE("resolve"),
+        /** SQL statements outside the other phases, typically the main query and counts. */
+        DB("db"),
+        /** Loading the lazy associations serialized with the entities. */
+        ASSOCIATIONS("assoc"),
+        /** Writing the JSON body. */
+        SERIALIZE("serialize");
+
+        final String metric;
+
+        Phase(String metric) {
+            this.metric = metric;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<Timings> CURRENT = ThreadLocal.withInitial(Timings::new);
+
+    private ServerTiming() {
+    }
+
+    /**
+     * Starts a phase on the current thread.
+     *
+     * @return the start time to pass to {@link #stop}, or {@link #NOT_TIMED}
+     */
+    public static long start() {
+        Timings timings = CURRENT.get();
+        if (!timings.active) {
+            return NOT_TIMED;
+        }
+        timings.depth++;
+        return System.nanoTime();
+    }
+
+    public static void stop(Phase phase, long started) {
+        if (started == NOT_TIMED) {
+            return;
+        }
+        Timings timings = CURRENT.get();
+        timings.depth--;
+        timings.nanos[phase.ordinal()] += System.nanoTime() - started;
+    }
+
+    /**
+     * Records one executed statement, counted as {@link Phase#DB} unless another phase is open.
+     */
+    static void statement(long nanos) {
+        Timings timings = CURRENT.get();
+        if (timings.active) {
+            timings.statements++;
+            if (timings.depth == 0) {
+                timings.nanos[Phase.DB.ordinal()] += nanos;
+            }
+        }
+    }
+
+    /**
+     * Starts timing a request on the current thread, discarding anything left from the previous one.
+     *
+     * @param header whether the timings are sent back in the {@code Server-Timing} header
+     */
+    static Timings begin(boolean header) {
+        Timings timings = CURRENT.get();
+        timings.active = true;
+        timings.header = header;
+        timings.startedNanos = System.nanoTime();
+        timings.depth = 0;
+        timings.statements = 0;
+        timings.authenticated = false;
+        Arrays.fill(timings.nanos, 0);
+        return timings;
+    }
+
+    /**
+     * Closes the {@link Phase#AUTH} phase: everything since {@link #begin(boolean)} was security.
+     */
+    static void authenticated() {
+        Timings timings = CURRENT.get();
+        if (timings.active && !timings.authenticated) {
+            timings.authenticated = true;
+            timings.nanos[Phase.AUTH.ordinal()] = System.nanoTime() - timings.startedNanos;
+        }
+    }
+
+    static void end() {
+        CURRENT.get().active = false;
+    }
+
+    /**
+     * Whether the current request gets the {@code Server-Timing} header, so phases that end
+     * after the body is opened must be finished before it.
+     */
+    static boolean reportsHeader() {
+        Timings timings = CURRENT.get();
+        return timings.active && timings.header;
+    }
+
+    /**
+     * The timings of one request. Only touched by the thread serving it.
+     */
+    static final class Timings {
+
+        private final long[] nanos = new long[PHASES.length];
+        private boolean active;
+        private boolean header;
+        private boolean authenticated;
+        private long startedNanos;
+        private int depth;
+        private int statements;
+
+        long nanos(Phase phase) {
+            return nanos[phase.ordinal()];
+        }
+
+        long elapsedNanos() {
+            return System.nanoTime() - startedNanos;
+        }
+
+        int statements() {
+            return statements;
+        }
+
+        /**
+         * The {@code Server-Timing} value, e.g. {@code auth;dur=71.204, ..., db;dur=1.380, ..., total;dur=75.012}.
+         * Security rejected the request if {@code auth} is missing.
+         */
+        String header() {
+            StringBuilder header = new StringBuilder(128);
+            for (Phase phase : PHASES) {
+                if (phase != Phase.AUTH || authenticated) {
+                    append(header, phase.metric, nanos[phase.ordinal()]);
+                }
+            }
+            append(header, "total", elapsedNanos());
+            return header.toString();
+        }
+
+        private static void append(StringBuilder header, String metric, long nanos) {
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            // Milliseconds with microsecond precision, without going through String.format
+            long micros = nanos / 1000;
+            header.append(metric).append(";dur=").append(micros / 1000).append('.');
+            long fraction = micros % 1000;
+            if (fraction < 100) {
+                header.append('0');
+            }
+            if (fraction < 10) {
+                header.append('0');
+            }
+            header.append(fraction);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.movesapi.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Wires the per-request {@code Server-Timing} header (see {@link ServerTiming}) and the sampled access log.
+ * Off unless {@code kmdb.server-timing.enabled} is set; even then the header only goes to loopback
+ * callers (see {@link ServerTimingFilter}).
+ * <p>
+ * Phases: {@code auth} is the Spring Security filter chain (BCrypt dominates it), measured up to a
+ * marker filter right behind it; {@code resolve} and {@code assoc} are timed in the services;
+ * {@code db} comes from {@link TimedDataSource}, so it needs {@code kmdb.sql-log.enabled};
+ * {@code serialize} is timed by {@link TimedJacksonConverter}, which replaces Boot's JSON converter.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kmdb.server-timing.enabled", havingValue = "true")
+class ServerTimingConfig {
+
+    @Bean
+    AccessLog accessLog(@Value("${kmdb.access-log.file:logs/access.jsonl}") Path file,
+                        @Value("${kmdb.access-log.sample-rate:0.01}") double sampleRate,
+                        ObjectMapper objectMapper) throws IOException {
+        return new AccessLog(file, sampleRate, objectMapper);
+    }
+
+    // Right behind StatusCounters and the backup latency filter, ahead of security
+    @Bean
+    FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(AccessLog accessLog) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter(accessLog));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Bean
+    FilterRegistrationBean<OncePerRequestFilter> authenticatedMarkerFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                ServerTiming.authenticated();
+                chain.doFilter(request, response);
+            }
+        });
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    // Named like Boot's bean, which backs off when one exists
+    @Bean
+    TimedJacksonConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJacksonConverter(objectMapper);
+    }
+}
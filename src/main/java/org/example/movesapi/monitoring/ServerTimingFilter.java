@@ -0,0 +1,95 @@
+package org.example.movesapi.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.example.movesapi.controller.LocalRequests;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Times each request with {@link ServerTiming} and adds the {@code Server-Timing} header.
+ * <p>
+ * The header is only sent to callers on the loopback interface: the {@code auth} phase tells a
+ * remote client whether BCrypt ran, i.e. whether the user name exists. Remote requests are still
+ * timed for the access log, but their response is not wrapped and their body not buffered.
+ * <p>
+ * Headers cannot change once the body starts, so the header is added when the response body
+ * is first opened, with the phases recorded up to that point; the JSON converter serializes
+ * into a buffer before opening it (see {@link TimedJacksonConverter}), so serialization is
+ * included. Responses without a body get the header when the chain returns. Afterwards the
+ * request is offered to the sampled {@link AccessLog}.
+ */
+class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    private final AccessLog accessLog;
+
+    ServerTimingFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean header = LocalRequests.isLoopback(request);
+        ServerTiming.Timings timings = ServerTiming.begin(header);
+        TimingResponse timed = header ? new TimingResponse(response, timings) : null;
+        boolean failed = true;
+        try {
+            chain.doFilter(request, header ? timed : response);
+            failed = false;
+        } finally {
+            if (timed != null) {
+                timed.addHeader();
+            }
+            ServerTiming.end();
+            accessLog.offer(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), timings);
+        }
+    }
+
+    /**
+     * Adds the header right before anything can commit the response.
+     */
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming.Timings timings;
+        private boolean added;
+
+        TimingResponse(HttpServletResponse response, ServerTiming.Timings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeader();
+            super.flushBuffer();
+        }
+
+        void addHeader() {
+            if (!added && !isCommitted()) {
+                added = true;
+                setHeader(HEADER, timings.header());
+            }
+        }
+    }
+}
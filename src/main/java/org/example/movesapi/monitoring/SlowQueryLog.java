@@ -0,0 +1,117 @@
+package org.example.movesapi.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated timings of every SQL statement, plus an asynchronous log of the slow ones.
+ * <p>
+ * Statements are grouped by SQL text, controller route and service method (see {@link SqlAttribution}).
+ * Recording is lock-free; statements slower than {@code kmdb.sql-log.threshold-ms} are handed to a
+ * single background thread for logging, so a slow disk never delays a request. If that thread falls
+ * behind, further slow statements are dropped from the log (they still count in the table).
+ */
+@Component
+public class SlowQueryLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final long thresholdNanos;
+    private final int maxEntries;
+    private final Map<Key, Timings> timings = new ConcurrentHashMap<>();
+    private final LongAdder droppedLogLines = new LongAdder();
+    private final ThreadPoolExecutor writer;
+
+    public SlowQueryLog(@Value("${kmdb.sql-log.threshold-ms:100}") long thresholdMillis,
+                        @Value("${kmdb.sql-log.max-entries:1000}") int maxEntries) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.maxEntries = maxEntries;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1024),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedLogLines.increment());
+    }
+
+    void record(String sql, long nanos) {
+        String route = SqlAttribution.route();
+        String serviceMethod = SqlAttribution.serviceMethod();
+        Key key = new Key(sql == null ? "(batch)" : sql, route, serviceMethod);
+
+        Timings t = timings.get(key);
+        // Statements with inlined literals could grow the table without bound
+        if (t == null && timings.size() < maxEntries) {
+            t = timings.computeIfAbsent(key, k -> new Timings());
+        }
+        if (t != null) {
+            t.add(nanos);
+        }
+
+        if (nanos >= thresholdNanos) {
+            writer.execute(() -> log.warn("Slow SQL ({} ms) route={} service={}: {}",
+                    String.format("%.1f", nanos / 1_000_000.0), route, serviceMethod, key.sql()));
+        }
+    }
+
+    /**
+     * The statements with the highest total execution time, highest first.
+     */
+    public List<StatementStats> top(int limit) {
+        return timings.entrySet().stream()
+                .map(e -> e.getValue().toStats(e.getKey()))
+                .sorted(Comparator.comparingDouble(StatementStats::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public long droppedLogLines() {
+        return droppedLogLines.sum();
+    }
+
+    public void reset() {
+        timings.clear();
+    }
+
+    @Override
+    public void destroy() {
+        writer.shutdown();
+    }
+
+    private record Key(String sql, String route, String serviceMethod) {
+    }
+
+    private static final class Timings {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        StatementStats toStats(Key key) {
+            long n = count.sum();
+            double total = totalNanos.sum() / 1_000_000.0;
+            return new StatementStats(key.sql(), key.route(), key.serviceMethod(), n,
+                    total, n == 0 ? 0 : total / n, maxNanos.get() / 1_000_000.0);
+        }
+    }
+
+    public record StatementStats(String sql, String route, String serviceMethod, long count,
+                                 double totalMillis, double meanMillis, double maxMillis) {
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.movesapi.monitoring;
+
+/**
+ * Where the statements running on the current thread come from: the controller route
+ * being served and the outermost {@code CRUDService} method on the stack.
+ * <p>
+ * Both are set and cleared on the request thread, so statements issued by after-commit
+ * listeners during the request are attributed to it as well.
+ */
+public final class SqlAttribution {
+
+    static final String NONE = "-";
+
+    private static final ThreadLocal<String> ROUTE = new ThreadLocal<>();
+    private static final ThreadLocal<String> SERVICE_METHOD = new ThreadLocal<>();
+
+    private SqlAttribution() {
+    }
+
+    public static String route() {
+        String route = ROUTE.get();
+        return route == null ? NONE : route;
+    }
+
+    public static String serviceMethod() {
+        String method = SERVICE_METHOD.get();
+        return method == null ? NONE : method;
+    }
+
+    static void enterRoute(String route) {
+        ROUTE.set(route);
+    }
+
+    static void exitRoute() {
+        ROUTE.remove();
+    }
+
+    /**
+     * Marks the current thread as running inside the given service method, unless an
+     * outer service method is already recorded.
+     *
+     * @return whether this call set the marker (and must clear it)
+     */
+    static boolean enterServiceMethod(String method) {
+        if (SERVICE_METHOD.get() != null) {
+            return false;
+        }
+        SERVICE_METHOD.set(method);
+        return true;
+    }
+
+    static void exitServiceMethod() {
+        SERVICE_METHOD.remove();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.movesapi.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.movesapi.service.CRUDService;
+import org.example.movesapi.service.ServiceAdvisingPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires the SQL timing layer: the {@link TimedDataSource} wrapper, the route interceptor
+ * and the advice that records which {@link CRUDService} method is running.
+ * <p>
+ * Replaces {@code spring.jpa.show-sql}, which prints every statement synchronously and without timings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kmdb.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+class SqlMonitoringConfig implements WebMvcConfigurer {
+
+    // Static so the post-processors don't force early initialization of this configuration
+    @Bean
+    static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(dataSource, slowQueryLog::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    static ServiceMethodPostProcessor serviceMethodPostProcessor() {
+        return new ServiceMethodPostProcessor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RouteInterceptor());
+    }
+
+    /**
+     * Records the matched route pattern, e.g. {@code GET /movies/{id}}, for the duration of the handler call.
+     */
+    static class RouteInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            SqlAttribution.enterRoute(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+            return true;
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+            SqlAttribution.exitRoute();
+        }
+    }
+
+    /**
+     * Adds an advisor to every {@link CRUDService} bean (or to its existing transactional proxy)
+     * that records the outermost service method called through the proxy, e.g. {@code MovieService.getAll}
+     * for a filtered listing. Protected hooks such as {@code filter} run inside it and are not proxied,
+     * so their statements are attributed to the public method that called them.
+     */
+    static class ServiceMethodPostProcessor extends ServiceAdvisingPostProcessor {
+
+        // Outside the transaction advice, so commit-time statements are attributed too
+        ServiceMethodPostProcessor() {
+            super(invocation -> {
+                String name = ClassUtils.getUserClass(invocation.getThis().getClass()).getSimpleName()
+                        + "." + invocation.getMethod().getName();
+                boolean outermost = SqlAttribution.enterServiceMethod(name);
+                try {
+                    return invocation.proceed();
+                } finally {
+                    if (outermost) {
+                        SqlAttribution.exitServiceMethod();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.movesapi.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One executed SQL statement, attributed like the {@link SlowQueryLog} table.
+ */
+@Name("kmdb.SqlStatement")
+@Label("SQL Statement")
+@Category({"KMDB", "Database"})
+@StackTrace(false)
+public class SqlStatementEvent extends jdk.jfr.Event {
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Route")
+    String route;
+
+    @Label("Service Method")
+    String serviceMethod;
+}
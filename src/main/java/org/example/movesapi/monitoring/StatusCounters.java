@@ -0,0 +1,64 @@
+package org.example.movesapi.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts responses per HTTP status code.
+ * <p>
+ * Runs first in the filter chain, so responses produced by Spring Security (401) and served
+ * from the response cache are counted too. One array slot per status code: counting costs
+ * a single atomic increment and no allocation.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatusCounters extends OncePerRequestFilter {
+
+    private static final int MAX_STATUS = 600;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAX_STATUS);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            // An exception escaping the chain becomes a 500 in the container's error handling
+            record(failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus());
+        }
+    }
+
+    void record(int status) {
+        if (status >= 0 && status < MAX_STATUS) {
+            counts.incrementAndGet(status);
+        }
+    }
+
+    /**
+     * Returns the number of responses per status code since startup, only for codes that occurred.
+     */
+    public Map<Integer, Long> snapshot() {
+        Map<Integer, Long> snapshot = new TreeMap<>();
+        for (int status = 0; status < MAX_STATUS; status++) {
+            long count = counts.get(status);
+            if (count > 0) {
+                snapshot.put(status, count);
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.movesapi.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the application {@link DataSource} so that every {@code execute*} call on a
+ * statement is timed and reported to the {@link SlowQueryLog} and to {@link ServerTiming}, and
+ * recorded as a {@link SqlStatementEvent} when Flight Recorder is recording.
+ * <p>
+ * Sits below Hibernate, Spring Data and {@code JdbcTemplate} alike, so the in-memory
+ * indexes and the migrator are measured too. Only statement execution is timed;
+ * reading the rows of a result set is not.
+ */
+class TimedDataSource extends DelegatingDataSource {
+
+    private final Supplier<SlowQueryLog> log;
+
+    TimedDataSource(DataSource target, Supplier<SlowQueryLog> log) {
+        super(target);
+        this.log = log;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "createStatement" -> timed((Statement) result, Statement.class, null);
+                        case "prepareStatement" -> timed((Statement) result, PreparedStatement.class, (String) args[0]);
+                        case "prepareCall" -> timed((Statement) result, CallableStatement.class, (String) args[0]);
+                        default -> result;
+                    };
+                });
+    }
+
+    // preparedSql is null for plain statements, which pass their SQL to execute(...)
+    private Statement timed(Statement statement, Class<? extends Statement> type, String preparedSql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            SqlStatementEvent event = new SqlStatementEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                log.get().record(sql, nanos);
+                ServerTiming.statement(nanos);
+                if (event.shouldCommit()) {
+                    event.sql = sql == null ? "(batch)" : sql;
+                    event.route = SqlAttribution.route();
+                    event.serviceMethod = SqlAttribution.serviceMethod();
+                    event.commit();
+                }
+            }
+        };
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
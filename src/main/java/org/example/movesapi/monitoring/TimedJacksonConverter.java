@@ -0,0 +1,60 @@
+package org.example.movesapi.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter, timing serialization as {@link ServerTiming.Phase#SERIALIZE}.
+ * <p>
+ * When the request gets the {@code Server-Timing} header, the body is serialized into a buffer
+ * first and written afterwards, so the header, added when the response body is opened, includes
+ * it. Other timed requests (for the access log only) are serialized straight into the response.
+ */
+class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+    TimedJacksonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        long started = ServerTiming.start();
+        if (started == ServerTiming.NOT_TIMED) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        if (!ServerTiming.reportsHeader()) {
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                ServerTiming.stop(ServerTiming.Phase.SERIALIZE, started);
+            }
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        try {
+            super.writeInternal(object, type, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return buffer;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return outputMessage.getHeaders();
+                }
+            });
+        } finally {
+            ServerTiming.stop(ServerTiming.Phase.SERIALIZE, started);
+        }
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
@@ -2,16 +2,17 @@ package org.example.movesapi.repository;
 
 import org.example.movesapi.model.Actor;
 import org.example.movesapi.model.Movie;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
-public interface ActorRepository extends JpaRepository<Actor, Long>, PagingAndSortingRepository<Actor, Long> {
+public interface ActorRepository extends BaseRepository<Actor, Long>, PagingAndSortingRepository<Actor, Long> {
     Actor findByName(String name);
     /**
      * Check whether an Actor is linked to at least one Movie.
@@ -51,5 +52,30 @@ public interface ActorRepository extends JpaRepository<Actor, Long>, PagingAndSo
         """)
     int getDependencyCount(@Param("actorId") Long actorId);
 
-    Page<Actor> findByMovies(Set<Movie> movies, Pageable pageable);
+    Slice<Actor> findByMovies(Set<Movie> movies, Pageable pageable);
+
+    long countByMovies(Set<Movie> movies);
+
+    /**
+     * Actors born between the two dates (inclusive); a range scan of {@code idx_actor_birth_date}.
+     */
+    Slice<Actor> findByBirthDateBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    long countByBirthDateBetween(LocalDate from, LocalDate to);
+
+    /**
+     * One keyset page of a movie's cast, read from the {@code movie_actors} join table
+     * (primary key {@code movie_id, actor_id}).
+     *
+     * @param after only actors with a larger id are returned; 0 for the first page
+     * @param limit maximum number of rows
+     */
+    @Query(value = """
+        SELECT a.* FROM movie_actors ma
+        JOIN actor a ON a.id = ma.actor_id
+        WHERE ma.movie_id = :movieId AND ma.actor_id > :after
+        ORDER BY ma.actor_id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Actor> findByMovieAfter(@Param("movieId") Long movieId, @Param("after") long after, @Param("limit") int limit);
 }
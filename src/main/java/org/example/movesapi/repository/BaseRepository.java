@@ -0,0 +1,21 @@
+package org.example.movesapi.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Common base for all entity repositories.
+ * <p>
+ * Adds a {@link Slice}-returning variant of {@code findAll(Pageable)}:
+ * Spring Data reads {@code size + 1} rows to detect the next page
+ * and never issues the extra {@code COUNT} query that a {@code Page} needs.
+ *
+ * @param <T>  the entity type
+ * @param <ID> the type of the entity's identifier
+ */
+@NoRepositoryBean
+public interface BaseRepository<T, ID> extends JpaRepository<T, ID> {
+    Slice<T> findAllBy(Pageable pageable);
+}
@@ -1,12 +1,11 @@
 package org.example.movesapi.repository;
 
 import org.example.movesapi.model.Genre;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
-public interface GenreRepository extends JpaRepository<Genre, Long>, PagingAndSortingRepository<Genre, Long> {
+public interface GenreRepository extends BaseRepository<Genre, Long>, PagingAndSortingRepository<Genre, Long> {
     Genre findByName(String name);
 
 
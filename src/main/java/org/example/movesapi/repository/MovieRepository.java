@@ -3,9 +3,8 @@ package org.example.movesapi.repository;
 import org.example.movesapi.model.Actor;
 import org.example.movesapi.model.Genre;
 import org.example.movesapi.model.Movie;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -14,7 +13,7 @@ import java.util.List;
 import java.util.Set;
 
 
-public interface MovieRepository extends JpaRepository<Movie, Long>, PagingAndSortingRepository<Movie, Long> {
+public interface MovieRepository extends BaseRepository<Movie, Long>, PagingAndSortingRepository<Movie, Long> {
 
     /**
      * Finds all movies that contain exactly the provided set of genres.
@@ -24,7 +23,7 @@ public interface MovieRepository extends JpaRepository<Movie, Long>, PagingAndSo
      * @param genres the set of genres to filter by
      * @param genreCount the number of genres provided (used for validation)
      * @param pageable pagination settings
-     * @return a page of matching movies
+     * @return a slice of matching movies
      */
     @Query("""
         SELECT m FROM Movie m
@@ -33,11 +32,29 @@ public interface MovieRepository extends JpaRepository<Movie, Long>, PagingAndSo
         GROUP BY m
         HAVING COUNT(DISTINCT g) = :genreCount
     """)
-    Page<Movie> findByGenres(@Param("genres") Set<Genre> genres,
-                             @Param("genreCount") long genreCount,
-                             Pageable pageable);
+    Slice<Movie> findByGenres(@Param("genres") Set<Genre> genres,
+                              @Param("genreCount") long genreCount,
+                              Pageable pageable);
 
-    Page<Movie> findByReleaseYear(int releaseYear, Pageable pageable);
+    /**
+     * Counts the movies matched by {@link #findByGenres}.
+     * Only executed when a client explicitly asks for totals.
+     */
+    @Query("""
+        SELECT COUNT(m) FROM Movie m
+        WHERE m.id IN (
+            SELECT mg.id FROM Movie mg
+            JOIN mg.genres g
+            WHERE g IN :genres
+            GROUP BY mg.id
+            HAVING COUNT(DISTINCT g) = :genreCount)
+    """)
+    long countByGenres(@Param("genres") Set<Genre> genres,
+                       @Param("genreCount") long genreCount);
+
+    Slice<Movie> findByReleaseYear(int releaseYear, Pageable pageable);
+
+    long countByReleaseYear(int releaseYear);
 
     /**
      * Finds all movies that contain exactly the provided set of actors.
@@ -46,7 +63,7 @@ public interface MovieRepository extends JpaRepository<Movie, Long>, PagingAndSo
      * @param actors the set of actors to filter by
      * @param actorCount the number of actors provided (used for validation)
      * @param pageable pagination settings
-     * @return a page of matching movies
+     * @return a slice of matching movies
      */
     @Query("""
         SELECT m FROM Movie m
@@ -55,9 +72,25 @@ public interface MovieRepository extends JpaRepository<Movie, Long>, PagingAndSo
         GROUP BY m
         HAVING COUNT(DISTINCT a) = :actorCount
     """)
-    Page<Movie> findByActors(@Param("actors") Set<Actor> actors,
-                             @Param("actorCount") long actorCount,
-                             Pageable pageable);
+    Slice<Movie> findByActors(@Param("actors") Set<Actor> actors,
+                              @Param("actorCount") long actorCount,
+                              Pageable pageable);
+
+    /**
+     * Counts the movies matched by {@link #findByActors}.
+     * Only executed when a client explicitly asks for totals.
+     */
+    @Query("""
+        SELECT COUNT(m) FROM Movie m
+        WHERE m.id IN (
+            SELECT ma.id FROM Movie ma
+            JOIN ma.actors a
+            WHERE a IN :actors
+            GROUP BY ma.id
+            HAVING COUNT(DISTINCT a) = :actorCount)
+    """)
+    long countByActors(@Param("actors") Set<Actor> actors,
+                       @Param("actorCount") long actorCount);
 
     /**
      * Check whether a Movie has any Actor or Genre relationships.
@@ -101,6 +134,34 @@ public interface MovieRepository extends JpaRepository<Movie, Long>, PagingAndSo
     """)
     int getDependencyCount(@Param("movieId") Long movieId);
 
+    /**
+     * One keyset page of an actor's movies, read from the {@code movie_actors} join table
+     * (index on {@code actor_id, movie_id}) without touching {@code Actor.movies}.
+     *
+     * @param after only movies with a larger id are returned; 0 for the first page
+     * @param limit maximum number of rows
+     */
+    @Query(value = """
+        SELECT m.* FROM movie_actors ma
+        JOIN movie m ON m.id = ma.movie_id
+        WHERE ma.actor_id = :actorId AND ma.movie_id > :after
+        ORDER BY ma.movie_id
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<Movie> findByActorAfter(@Param("actorId") Long actorId, @Param("after") long after, @Param("limit") int limit);
+
+    /**
+     * Same as {@link #findByActorAfter} over {@code movie_genres}, without touching {@code Genre.movies}.
+     */
+    @Query(value = """
+        SELECT m.* FROM movie_genres mg
+        JOIN movie m ON m.id = mg.movie_id
+        WHERE mg.genre_id = :genreId AND mg.movie_id > :after
+        ORDER BY mg.movie_id
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<Movie> findByGenreAfter(@Param("genreId") Long genreId, @Param("after") long after, @Param("limit") int limit);
+
     List<Movie> id(Long id);
 
     Movie findByName(String name);
@@ -1,49 +1,182 @@
 package org.example.movesapi.service;
 
-import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Id;
+import jakarta.persistence.PersistenceContext;
+import org.example.movesapi.cache.HotKeys;
 import org.example.movesapi.exceptions.DependencyExistException;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.monitoring.ServerTiming;
+import org.example.movesapi.repository.BaseRepository;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.*;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
-import java.util.Map;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
 
 /**
  * Abstract generic service that provides basic CRUD operations
  * and leaves entity-specific logic to be implemented by subclasses.
+ * <p>
+ * Writes go through the {@link WriteScheduler}, which queues them and runs each in its own
+ * read-write transaction (retried on transient SQLite lock errors); every query path is
+ * {@code readOnly}, which gives Hibernate a read-only session (no dirty-checking snapshots) with manual flush.
  *
  * @param <T>  the entity type
  * @param <ID> the type of the entity's identifier
  */
 @Transactional
-public abstract class AbstractCRUDService<T, ID> implements CRUDService<T, ID> {
+public abstract class AbstractCRUDService<T, ID> implements CRUDService<T, ID>, ApplicationEventPublisherAware {
+
+    /**
+     * How long a total returned by {@link #estimateCount} may be reused.
+     */
+    static final Duration APPROXIMATE_COUNT_TTL = Duration.ofSeconds(30);
+
+    /**
+     * Most totals kept by {@link #estimateCount}; the least recently used filter is dropped first.
+     */
+    static final int APPROXIMATE_COUNT_ENTRIES = 256;
+
+    /**
+     * Most ids accepted by {@link #getByIds}, same as the largest page.
+     */
+    public static final int MAX_IDS = 100;
 
     /**
      * JPA repository for performing basic database operations.
      */
-    protected final JpaRepository<T, ID> repository;
+    protected final BaseRepository<T, ID> repository;
+
+    /**
+     * The entity class handled by this service, resolved from the generic type.
+     */
+    protected final Class<T> entityType;
+
+    /**
+     * The entity's {@code @Id} field, restored before every attempt of {@link #create}.
+     */
+    private final Field idField;
+
+    /**
+     * Used to announce committed changes (see {@link EntityChangedEvent}).
+     */
+    private ApplicationEventPublisher events;
+
+    /**
+     * Serializes mutations and opens their transactions (see {@link WriteScheduler}).
+     */
+    private WriteScheduler writes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private ProjectionQueries projections;
+
+    /**
+     * Counts by-id lookups and filters to find the hot ones (see {@link HotKeys}).
+     */
+    private HotKeys hotKeys;
+
+    /**
+     * Cached totals for {@link #estimateCount}, keyed by normalized filter ("" for unfiltered),
+     * in LRU order; guarded by itself. Filters come from clients, so the map is bounded.
+     */
+    private final Map<String, CachedCount> approximateCounts = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+            return size() > APPROXIMATE_COUNT_ENTRIES;
+        }
+    };
     /**
      * Should return the ID of a given entity (used in extractId).
      */
     protected abstract ID getId(T entity);
 
-    public AbstractCRUDService(JpaRepository<T, ID> repository) {
+    @SuppressWarnings("unchecked")
+    public AbstractCRUDService(BaseRepository<T, ID> repository) {
         this.repository = repository;
+        this.entityType = (Class<T>) ResolvableType.forClass(AbstractCRUDService.class, getClass()).resolveGeneric(0);
+        this.idField = idField(entityType);
+    }
+
+    private static Field idField(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    ReflectionUtils.makeAccessible(field);
+                    return field;
+                }
+            }
+        }
+        throw new IllegalStateException("No @Id field in " + type.getName());
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @Autowired
+    public void setWriteScheduler(WriteScheduler writes) {
+        this.writes = writes;
+    }
+
+    @Autowired
+    public void setProjectionQueries(ProjectionQueries projections) {
+        this.projections = projections;
+    }
+
+    @Autowired
+    public void setHotKeys(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    /**
+     * Counts one call for a {@link HotKeys} key.
+     */
+    protected void recordHotKey(String key) {
+        if (hotKeys != null) {
+            hotKeys.record(key);
+        }
+    }
+
+    /**
+     * Publishes an {@link EntityChangedEvent} for this service's entity type once the write
+     * has committed and released its queue (see {@link WriteScheduler#afterWrite}).
+     */
+    protected void publishChange(ID id, EntityChangedEvent.Change change) {
+        if (events != null) {
+            EntityChangedEvent event = new EntityChangedEvent(entityType, id, change);
+            writes.afterWrite(() -> events.publishEvent(event));
+        }
     }
 
     /**
      * Saves a new entity to the database.
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public T create(T entity) {
-        entityValidator(entity);
-        return repository.save(entity);
+        Object requestedId = ReflectionUtils.getField(idField, entity);
+        return writes.execute(() -> {
+            // A retry must insert again: after a rolled-back insert the entity holds an id that names no row
+            ReflectionUtils.setField(idField, entity, requestedId);
+            entityValidator(entity);
+            T saved = repository.save(entity);
+            publishChange(getId(saved), EntityChangedEvent.Change.CREATED);
+            return saved;
+        });
     }
     protected abstract void entityValidator(T entity);
 
@@ -67,20 +200,24 @@ public abstract class AbstractCRUDService<T, ID> implements CRUDService<T, ID> {
      * @param fields a map of field names and their new values
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void update(ID id, Map<String, Object> fields) {
-        T entity = repository.findById(id).orElse(null);
-        if (entity != null) {
-            fields.forEach((key, value) -> {
-                Field field = ReflectionUtils.findField(entity.getClass(), key);
-                if (field != null) {
-                    field.setAccessible(true);
-                    ReflectionUtils.setField(field, entity, value);
-                }
-            });
-            repository.save(entity);
-        } else {
-            throw new EntityNotFoundException("Entity with id " + id + " not found");
-        }
+        writes.run(() -> {
+            T entity = repository.findById(id).orElse(null);
+            if (entity != null) {
+                fields.forEach((key, value) -> {
+                    Field field = ReflectionUtils.findField(entity.getClass(), key);
+                    if (field != null) {
+                        field.setAccessible(true);
+                        ReflectionUtils.setField(field, entity, value);
+                    }
+                });
+                repository.save(entity);
+                publishChange(id, EntityChangedEvent.Change.UPDATED);
+            } else {
+                throw new NotFoundException("Entity with id " + id + " not found");
+            }
+        });
     }
 
     /**
@@ -90,13 +227,18 @@ public abstract class AbstractCRUDService<T, ID> implements CRUDService<T, ID> {
      * @throws DependencyExistException if entity has relations and force is false
      */
     @Override
-    public void delete(ID id, boolean force) {
-        if (!repository.existsById(id)) {
-            throw new EntityNotFoundException("Movie not found: " + id);
-        }
-        if (force || !isDependencyExist(id)) {
-            repository.deleteById(id);
-        } else throw new DependencyExistException("Cannot delete " + getName(id) + " because it has " + getDependencyCount(id) + " associations");
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean delete(ID id, boolean force) {
+        return writes.execute(() -> {
+            if (!repository.existsById(id)) {
+                return false;
+            }
+            if (force || !isDependencyExist(id)) {
+                repository.deleteById(id);
+                publishChange(id, EntityChangedEvent.Change.DELETED);
+                return true;
+            } else throw new DependencyExistException("Cannot delete " + getName(id) + " because it has " + getDependencyCount(id) + " associations");
+        });
     }
 
     /**
@@ -116,42 +258,233 @@ public abstract class AbstractCRUDService<T, ID> implements CRUDService<T, ID> {
      * Finds an entity by ID or throws 404 if not found.
      */
     @Override
+    @Transactional(readOnly = true)
     public T getById(ID id) {
-        T entity = repository.findById(id).orElse(null);
-        if (entity != null) {
-            return entity;
-        } else {
-            throw new EntityNotFoundException("Entity with id " + id + " not found");
-        }
+        return findById(id).orElseThrow(() -> new NotFoundException("Entity with id " + id + " not found"));
+    }
+
+    /**
+     * Finds an entity by ID; empty if not found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<T> findById(ID id) {
+        recordHotKey(HotKeys.entityKey(entityType, id));
+        Optional<T> entity = repository.findById(id);
+        entity.ifPresent(found -> resolveAll(List.of(found)));
+        return entity;
     }
 
     /**
-     * Returns a paginated list of all entities, optionally filtered by a string.
+     * Returns a slice of all entities, optionally filtered by a string.
      * Sorting defaults to case-insensitive ascending by "name".
+     * <p>
+     * Reads {@code size + 1} rows to know whether a next page exists, so no COUNT query is run.
      */
     @Override
-    public Page<T> getAll(Pageable pageable, Optional<String> filter) {
-        if (filter.isPresent()) {
-            return filter(filter.get(), pageable);
-        }
+    @Transactional(readOnly = true)
+    public Slice<T> getAll(Pageable pageable, Optional<String> filter) {
+        Slice<T> slice = filter.isPresent() ? filter(filter.get(), pageable) : findAll(pageable);
+        resolveAll(slice);
+        return slice;
+    }
+
+    private Slice<T> findAll(Pageable pageable) {
+        return repository.findAllBy(pageRequest(pageable));
+    }
+
+    private static Pageable pageRequest(Pageable pageable) {
         int page = pageable.getPageNumber();
         int size = pageable.getPageSize();
         if (page < 0 || size <= 0 || size > 100) {
-            throw new IllegalArgumentException("Invalid pagination parameters: page=" + page + ", size=" + size);
+            throw new InvalidRequestException("Invalid pagination parameters: page=" + page + ", size=" + size);
         }
-        return repository.findAll(PageRequest.of(
-                page,
-                size,
+        return sortedByName(pageable);
+    }
+
+    // The order of every listing unless the client asks for another, as the filter queries use it
+    private static Pageable sortedByName(Pageable pageable) {
+        return PageRequest.of(
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
                 pageable.getSortOr(Sort.by(
                         Sort.Order.asc("name").ignoreCase()
                 ))
-        ));
+        );
+    }
+
+    /**
+     * Same as {@link #getById} with only the requested properties; unrequested columns are not
+     * selected and unrequested associations are not loaded (see {@link ProjectionQueries}).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getById(ID id, FieldSelection selection) {
+        return findById(id, selection).orElseThrow(() -> new NotFoundException("Entity with id " + id + " not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findById(ID id, FieldSelection selection) {
+        return projections.byId(entityType, id, selection);
+    }
+
+    /**
+     * Same as {@link #getAll} with only the requested properties. Pages select just the requested
+     * columns, with the filter's {@link #filterCondition} in the query; a filter without one runs
+     * the entity query and drops the other properties.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getAll(Pageable pageable, Optional<String> filter, FieldSelection selection) {
+        if (filter.isPresent()) {
+            ProjectionQueries.Condition<T> condition = filterCondition(filter.get());
+            if (condition == null) {
+                return projections.fromEntities(entityType, selection, filter(filter.get(), pageable));
+            }
+            return projections.page(entityType, selection, sortedByName(pageable), condition);
+        }
+        return projections.page(entityType, selection, pageRequest(pageable));
+    }
+
+    /**
+     * Same as {@link #getPage} with only the requested properties.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getPage(Pageable pageable, Optional<String> filter, FieldSelection selection) {
+        Slice<Map<String, Object>> slice = getAll(pageable, filter, selection);
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), () -> count(filter));
+    }
+
+    @Override
+    public FieldSelection fullSelection() {
+        return projections.fullSelection(entityType);
+    }
+
+    /**
+     * Returns the same content as {@link #getAll} with an exact total.
+     * The COUNT query is skipped when the total follows from the page itself
+     * (first page not full, or last page).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<T> getPage(Pageable pageable, Optional<String> filter) {
+        Slice<T> slice = getAll(pageable, filter);
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), () -> count(filter));
+    }
+
+    /**
+     * Returns the total number of entities matching the filter, reusing a value
+     * computed within the last {@link #APPROXIMATE_COUNT_TTL}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount(Optional<String> filter) {
+        String key = filter.map(AbstractCRUDService::countKey).orElse("");
+        long now = System.nanoTime();
+        synchronized (approximateCounts) {
+            CachedCount cached = approximateCounts.get(key);
+            if (cached != null && now - cached.computedAt() < APPROXIMATE_COUNT_TTL.toNanos()) {
+                return cached.value();
+            }
+            if (cached != null) {
+                approximateCounts.remove(key);
+            }
+        }
+        long value = count(filter);
+        synchronized (approximateCounts) {
+            approximateCounts.put(key, new CachedCount(value, now));
+        }
+        return value;
+    }
+
+    // " genre : Action " and "genre:Action" count the same rows
+    private static String countKey(String filter) {
+        int colon = filter.indexOf(':');
+        return colon < 0
+                ? filter.trim()
+                : filter.substring(0, colon).trim() + ":" + filter.substring(colon + 1).trim();
+    }
+
+    /**
+     * Loads all ids with a single {@code IN} query (entities already in the session are not
+     * fetched again) and resolves their associations in batches.
+     * Duplicate ids are returned once, at their first position.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MultiGet<T, ID> getByIds(List<ID> ids) {
+        List<ID> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty() || distinct.size() > MAX_IDS) {
+            throw new InvalidRequestException("ids must contain between 1 and " + MAX_IDS + " ids");
+        }
+        Map<ID, T> byId = new HashMap<>();
+        entityManager.unwrap(Session.class)
+                .byMultipleIds(entityType)
+                .withBatchSize(distinct.size())
+                .enableSessionCheck(true)
+                .multiLoad(distinct)
+                .stream()
+                .filter(Objects::nonNull)
+                .forEach(entity -> byId.put(getId(entity), entity));
+
+        List<T> found = new ArrayList<>(byId.size());
+        List<ID> missing = new ArrayList<>();
+        for (ID id : distinct) {
+            T entity = byId.get(id);
+            if (entity == null) {
+                missing.add(id);
+            } else {
+                found.add(entity);
+            }
+        }
+        resolveAll(found);
+        return new MultiGet<>(found, missing);
+    }
+
+    private long count(Optional<String> filter) {
+        return filter.isPresent() ? countFiltered(filter.get()) : repository.count();
+    }
+
+    /**
+     * Loads the lazy associations that are part of the entity's JSON representation.
+     * Open-session-in-view is disabled, so anything not loaded here is unavailable once the
+     * read-only transaction ends. Does nothing by default.
+     */
+    protected void resolveAssociations(T entity) {
+    }
+
+    // Timed as the "assoc" phase of the Server-Timing header
+    protected void resolveAll(Iterable<T> entities) {
+        long started = ServerTiming.start();
+        try {
+            entities.forEach(this::resolveAssociations);
+        } finally {
+            ServerTiming.stop(ServerTiming.Phase.ASSOCIATIONS, started);
+        }
     }
 
     /**
      * Defines how the filtering logic should be applied (e.g. search by name).
      */
-    protected abstract Page<T> filter(String filter, Pageable pageable);
+    protected abstract Slice<T> filter(String filter, Pageable pageable);
+
+    /**
+     * Counts all entities matched by {@link #filter}.
+     */
+    protected abstract long countFiltered(String filter);
+
+    /**
+     * The condition matching the same entities as {@link #filter}, for listings with a field
+     * selection; null if the filter can only run as an entity query.
+     */
+    protected ProjectionQueries.Condition<T> filterCondition(String filter) {
+        return null;
+    }
+
+    private record CachedCount(long value, long computedAt) {
+    }
 
 
 }
@@ -1,13 +1,23 @@
 package org.example.movesapi.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.apache.coyote.BadRequestException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
 import org.example.movesapi.model.Actor;
 import org.example.movesapi.model.Movie;
+import org.example.movesapi.monitoring.ServerTiming;
 import org.example.movesapi.repository.ActorRepository;
 import org.example.movesapi.repository.MovieRepository;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -69,7 +79,7 @@ public class ActorService extends AbstractCRUDService<Actor, Long>{
         if(actor.isPresent()) {
             return actor.get().getName();
         }
-        throw new EntityNotFoundException("Actor not found");
+        throw new NotFoundException("Actor not found");
     }
 
     /**
@@ -83,21 +93,25 @@ public class ActorService extends AbstractCRUDService<Actor, Long>{
     /**
      * Handles custom filtering for actor entities.
      * <p>
-     * Currently supports filtering by movie title(s):
+     * Supports filtering by movie title(s), birth date and age ranges:
      * <pre>
      * /actors?filter=movie:Inception,Matrix
+     * /actors?filter=birthDate:1970..1985
+     * /actors?filter=birthDate:1970-06-01..1970-12-31
+     * /actors?filter=age:30..40
      * </pre>
+     * Either end of a range may be left out ({@code birthDate:1980..}, {@code age:..25}).
      *
      * @param filter   filter string in the format key:value[,value]
      * @param pageable pagination and sorting information
-     * @return paginated list of matching actors
+     * @return slice of matching actors
      * @throws IllegalArgumentException for unsupported or malformed filters
      */
     @Override
-    protected Page<Actor> filter(String filter, Pageable pageable) {
+    protected Slice<Actor> filter(String filter, Pageable pageable) {
         String[] parts = filter.split(":", 2);
         if (parts.length < 2 || parts[1].isBlank()) {
-            throw new IllegalArgumentException("Filter must be in format key:value[,value...]");
+            throw new InvalidRequestException("Filter must be in format key:value[,value...]");
         }
         String key = parts[0].trim();
         String value = parts[1].trim();
@@ -105,7 +119,60 @@ public class ActorService extends AbstractCRUDService<Actor, Long>{
         if (key.equals("movie")) {
             return repository.findByMovies(getMovies(value), getPageable(pageable));
         }
-        throw new IllegalArgumentException("Filter key:" + key + " not supported");
+        if (key.equals("birthDate") || key.equals("age")) {
+            DateRange range = dateRange(key, value);
+            return repository.findByBirthDateBetween(range.from(), range.to(), getPageable(pageable));
+        }
+        throw new InvalidRequestException("Filter key:" + key + " not supported");
+    }
+
+    /**
+     * Counts the actors matched by {@link #filter(String, Pageable)}.
+     */
+    @Override
+    protected long countFiltered(String filter) {
+        String[] parts = filter.split(":", 2);
+        if (parts.length < 2 || parts[1].isBlank()) {
+            throw new InvalidRequestException("Filter must be in format key:value[,value...]");
+        }
+        String key = parts[0].trim();
+        String value = parts[1].trim();
+        if (key.equals("movie")) {
+            return repository.countByMovies(getMovies(value));
+        }
+        if (key.equals("birthDate") || key.equals("age")) {
+            DateRange range = dateRange(key, value);
+            return repository.countByBirthDateBetween(range.from(), range.to());
+        }
+        throw new InvalidRequestException("Filter key:" + key + " not supported");
+    }
+
+    /**
+     * The conditions of {@link #filter(String, Pageable)} for listings with a field selection.
+     * Actors in several of the named movies are listed once.
+     */
+    @Override
+    protected ProjectionQueries.Condition<Actor> filterCondition(String filter) {
+        String[] parts = filter.split(":", 2);
+        if (parts.length < 2 || parts[1].isBlank()) {
+            throw new InvalidRequestException("Filter must be in format key:value[,value...]");
+        }
+        String key = parts[0].trim();
+        String value = parts[1].trim();
+        if (key.equals("movie")) {
+            Set<Movie> movies = getMovies(value);
+            return (root, query, cb) -> {
+                Subquery<Long> cast = query.subquery(Long.class);
+                Root<Actor> actor = cast.from(Actor.class);
+                cast.select(actor.<Long>get("id")).where(actor.join("movies").in(movies));
+                return root.get("id").in(cast);
+            };
+        }
+        if (key.equals("birthDate") || key.equals("age")) {
+            DateRange range = dateRange(key, value);
+            return (root, query, cb) -> cb.between(root.<LocalDate>get("birthDate"), range.from(), range.to());
+        }
+        throw new InvalidRequestException("Filter key:" + key + " not supported");
     }
 
     /**
@@ -117,11 +184,68 @@ public class ActorService extends AbstractCRUDService<Actor, Long>{
      * @throws EntityNotFoundException if any movie is not found
      */
     private Set<Movie> getMovies(String value) {
-        return Arrays.stream(value.split(","))
-                .map(String::trim)
-                .map(name -> Optional.ofNullable(movieRepository.findByName(name))
-                        .orElseThrow(() -> new EntityNotFoundException("Movie not found:" + name)))
-                .collect(Collectors.toSet());
+        long started = ServerTiming.start();
+        try {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .map(name -> Optional.ofNullable(movieRepository.findByName(name))
+                            .orElseThrow(() -> new NotFoundException("Movie not found:" + name)))
+                    .collect(Collectors.toSet());
+        } finally {
+            ServerTiming.stop(ServerTiming.Phase.RESOLVE, started);
+        }
+    }
+
+    /**
+     * Parses {@code from..to} into an inclusive birth date range.
+     * <p>
+     * For {@code birthDate} each bound is a year ({@code 1970}, covering the whole year)
+     * or an ISO date ({@code 1970-06-01}). For {@code age} the bounds are ages in full years
+     * today, so {@code age:30..40} means born after today minus 41 years and at most 30 years ago.
+     *
+     * @throws IllegalArgumentException if the range is malformed or empty
+     */
+    public static DateRange dateRange(String key, String value) {
+        String[] bounds = value.split("\\.\\.", -1);
+        if (bounds.length != 2 || (bounds[0].isBlank() && bounds[1].isBlank())) {
+            throw new InvalidRequestException("Filter " + key + " must be in format from..to");
+        }
+        String low = bounds[0].trim();
+        String high = bounds[1].trim();
+        DateRange range;
+        try {
+            if (key.equals("age")) {
+                LocalDate today = LocalDate.now();
+                LocalDate from = high.isEmpty() ? LocalDate.MIN : today.minusYears(Integer.parseInt(high) + 1L).plusDays(1);
+                LocalDate to = low.isEmpty() ? today : today.minusYears(Integer.parseInt(low));
+                range = new DateRange(from, to);
+            } else {
+                LocalDate from = low.isEmpty() ? LocalDate.MIN : parseBound(low, false);
+                LocalDate to = high.isEmpty() ? LocalDate.MAX : parseBound(high, true);
+                range = new DateRange(from, to);
+            }
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new InvalidRequestException("Invalid " + key + " range: " + value);
+        }
+        if (range.from().isAfter(range.to())) {
+            throw new InvalidRequestException("Invalid " + key + " range: " + value);
+        }
+        return range;
+    }
+
+    // A bare year stands for its first (lower bound) or last (upper bound) day
+    private static LocalDate parseBound(String bound, boolean upper) {
+        if (bound.length() == 4) {
+            Year year = Year.parse(bound);
+            return upper ? year.atMonthDay(MonthDay.of(12, 31)) : year.atDay(1);
+        }
+        return LocalDate.parse(bound);
+    }
+
+    /**
+     * Inclusive birth date bounds; an open end is {@link LocalDate#MIN} or {@link LocalDate#MAX}.
+     */
+    public record DateRange(LocalDate from, LocalDate to) {
     }
 
     /**
@@ -153,7 +277,7 @@ public class ActorService extends AbstractCRUDService<Actor, Long>{
         if(movies != null && !movies.isEmpty()) {
             movies.forEach(movie -> {
                 if(!movieRepository.existsById(movie.getId())) {
-                    throw new EntityNotFoundException("Movie with id " + movie.getId() + " not found");
+                    throw new NotFoundException("Movie with id " + movie.getId() + " not found");
                 }
             });
         }
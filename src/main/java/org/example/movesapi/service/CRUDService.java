@@ -3,7 +3,9 @@ package org.example.movesapi.service;
 import org.apache.coyote.BadRequestException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -17,9 +19,52 @@ import java.util.Optional;
 public interface CRUDService<T, ID> {
     T create(T entity);
     void update(ID id, Map<String, Object> entity);
-    void delete(ID id, boolean force);
+    /**
+     * Deletes the entity; returns {@code false} instead of throwing if there is none with this id.
+     */
+    boolean delete(ID id, boolean force);
     T getById(ID id);
-    Page<T> getAll(Pageable pageable, Optional<String> filter);
+    /**
+     * Same as {@link #getById} but reports a miss as an empty result instead of an exception,
+     * so the common not-found case costs no exception at all.
+     */
+    Optional<T> findById(ID id);
+    /**
+     * Returns only the properties and associations named in the selection.
+     */
+    Map<String, Object> getById(ID id, FieldSelection selection);
+    Optional<Map<String, Object>> findById(ID id, FieldSelection selection);
+    /**
+     * Returns one page of entities without counting the total (no COUNT query).
+     */
+    Slice<T> getAll(Pageable pageable, Optional<String> filter);
+    /**
+     * Same as {@link #getAll} but with an exact total, which costs an extra COUNT query.
+     */
+    Page<T> getPage(Pageable pageable, Optional<String> filter);
+    /**
+     * Shaped variants of {@link #getAll} and {@link #getPage} (see {@link FieldSelection}).
+     */
+    Slice<Map<String, Object>> getAll(Pageable pageable, Optional<String> filter, FieldSelection selection);
+    Page<Map<String, Object>> getPage(Pageable pageable, Optional<String> filter, FieldSelection selection);
+    /**
+     * The selection matching the full representation: all properties and every included association.
+     */
+    FieldSelection fullSelection();
+    /**
+     * Returns a possibly stale total served from a short-lived cache.
+     */
+    long estimateCount(Optional<String> filter);
+    /**
+     * Loads many entities by id at once, in request order; ids without an entity are reported in {@code missing}.
+     */
+    MultiGet<T, ID> getByIds(List<ID> ids);
     ID extractId(T entity);
     T findMovie(String name) throws BadRequestException;
+
+    /**
+     * Result of {@link #getByIds}: the entities found, in request order, and the ids that matched nothing.
+     */
+    record MultiGet<T, ID>(List<T> found, List<ID> missing) {
+    }
 }
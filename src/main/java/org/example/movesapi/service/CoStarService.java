@@ -0,0 +1,113 @@
+package org.example.movesapi.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.index.CoStarIndex;
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.repository.ActorRepository;
+import org.example.movesapi.repository.MovieRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers co-star questions from the in-memory {@link CoStarIndex}
+ * and resolves the resulting ids to names with one batched query per entity type.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CoStarService {
+
+    private final CoStarIndex index;
+    private final ActorRepository actorRepository;
+    private final MovieRepository movieRepository;
+
+    public CoStarService(CoStarIndex index, ActorRepository actorRepository, MovieRepository movieRepository) {
+        this.index = index;
+        this.actorRepository = actorRepository;
+        this.movieRepository = movieRepository;
+    }
+
+    /**
+     * Returns the actors who played together with the given actor, most shared movies first.
+     * Co-stars deleted after the index was read are left out.
+     *
+     * @throws EntityNotFoundException if the actor does not exist
+     */
+    public List<CoStar> getCoStars(Long actorId, int limit) {
+        if (limit <= 0 || limit > 100) {
+            throw new InvalidRequestException("limit must be between 1 and 100");
+        }
+        requireActor(actorId);
+        List<CoStarIndex.CoStar> coStars = index.coStars(actorId, limit);
+        Map<Long, Actor> actors = actorsById(coStars.stream().map(CoStarIndex.CoStar::actorId).toList());
+        return coStars.stream()
+                .filter(c -> actors.containsKey(c.actorId()))
+                .map(c -> new CoStar(c.actorId(), actors.get(c.actorId()).getName(), c.sharedMovies()))
+                .toList();
+    }
+
+    /**
+     * Returns a shortest chain of co-star links from one actor to another.
+     *
+     * @throws EntityNotFoundException if either actor does not exist, they are not connected,
+     *                                 or an actor or movie on the path was deleted after the index was read
+     */
+    public Separation getSeparation(Long fromActorId, Long toActorId) {
+        requireActor(fromActorId);
+        requireActor(toActorId);
+        CoStarIndex.Path path = index.shortestPath(fromActorId, toActorId)
+                .orElseThrow(() -> new NotFoundException(
+                        "No connection between actors " + fromActorId + " and " + toActorId));
+
+        Map<Long, Actor> actors = actorsById(path.actorIds());
+        Map<Long, Movie> movies = movieRepository.findAllById(path.movieIds()).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+
+        List<Step> steps = new ArrayList<>();
+        for (int i = 0; i < path.actorIds().size(); i++) {
+            Long actorId = path.actorIds().get(i);
+            Long movieId = i == 0 ? null : path.movieIds().get(i - 1);
+            Actor actor = actors.get(actorId);
+            Movie movie = movieId == null ? null : movies.get(movieId);
+            if (actor == null || (movieId != null && movie == null)) {
+                throw new NotFoundException(
+                        "No connection between actors " + fromActorId + " and " + toActorId);
+            }
+            steps.add(new Step(actorId, actor.getName(), movieId, movie == null ? null : movie.getName()));
+        }
+        return new Separation(path.degrees(), steps);
+    }
+
+    private void requireActor(Long actorId) {
+        if (!actorRepository.existsById(actorId)) {
+            throw new NotFoundException("Actor with id " + actorId + " not found");
+        }
+    }
+
+    private Map<Long, Actor> actorsById(List<Long> ids) {
+        return actorRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Actor::getId, Function.identity()));
+    }
+
+    /**
+     * An actor and the number of movies shared with the requested actor.
+     */
+    public record CoStar(Long id, String name, int sharedMovies) {
+    }
+
+    /**
+     * Degrees of separation and the chain itself. The first step has no movie;
+     * every following step names the movie that links it to the previous actor.
+     */
+    public record Separation(int degrees, List<Step> path) {
+    }
+
+    public record Step(Long actorId, String actorName, Long viaMovieId, String viaMovieName) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.movesapi.service;
+
+/**
+ * Published by {@link AbstractCRUDService} for every successful create, update or delete.
+ * <p>
+ * Listeners that keep derived state (caches, in-memory indexes) should use
+ * {@code @TransactionalEventListener} so they only react once the change is committed.
+ *
+ * @param entityType the entity class that was changed (e.g. Movie.class)
+ * @param id         the identifier of the changed entity
+ * @param change     what happened to the entity
+ */
+public record EntityChangedEvent(Class<?> entityType, Object id, Change change) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.movesapi.service;
+
+import org.example.movesapi.exceptions.InvalidRequestException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The response shape requested with {@code ?fields=} and {@code ?expand=}.
+ *
+ * @param fields scalar properties to include, in request order; empty means all of them
+ * @param expand associations to include (e.g. {@code actors}); empty means none
+ */
+public record FieldSelection(Set<String> fields, Set<String> expand) {
+
+    /**
+     * Parses the two query parameters; returns empty when neither was given,
+     * in which case the full entity representation applies.
+     *
+     * @throws IllegalArgumentException if a parameter is present but lists no names
+     */
+    public static Optional<FieldSelection> parse(Optional<String> fields, Optional<String> expand) {
+        if (fields.isEmpty() && expand.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new FieldSelection(names("fields", fields), names("expand", expand)));
+    }
+
+    private static Set<String> names(String parameter, Optional<String> value) {
+        if (value.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        Arrays.stream(value.get().split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .forEach(names::add);
+        if (names.isEmpty()) {
+            throw new InvalidRequestException(parameter + " must list at least one name");
+        }
+        return names;
+    }
+}
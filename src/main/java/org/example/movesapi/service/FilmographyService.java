@@ -0,0 +1,122 @@
+package org.example.movesapi.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.repository.ActorRepository;
+import org.example.movesapi.repository.GenreRepository;
+import org.example.movesapi.repository.MovieRepository;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Pages through the movies of an actor or genre and the cast of a movie directly over the
+ * join tables, ordered by id with a keyset cursor ({@code after}) instead of an offset.
+ * <p>
+ * The inverse collections {@code Actor.movies} and {@code Genre.movies} are never initialized,
+ * so each request costs one index range scan of at most {@code size + 1} rows, however many
+ * movies the actor or genre has.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FilmographyService {
+
+    static final int MAX_SIZE = 100;
+
+    private final MovieRepository movieRepository;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+
+    public FilmographyService(MovieRepository movieRepository, ActorRepository actorRepository,
+                              GenreRepository genreRepository) {
+        this.movieRepository = movieRepository;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+    }
+
+    /**
+     * Returns the actor's movies with an id greater than {@code after}.
+     *
+     * @throws EntityNotFoundException if the actor does not exist
+     */
+    public Window<Movie> moviesOfActor(Long actorId, long after, int size) {
+        validate(after, size);
+        if (!actorRepository.existsById(actorId)) {
+            throw new NotFoundException("Actor with id " + actorId + " not found");
+        }
+        return movies(movieRepository.findByActorAfter(actorId, after, size + 1), size);
+    }
+
+    /**
+     * Returns the genre's movies with an id greater than {@code after}.
+     *
+     * @throws EntityNotFoundException if the genre does not exist
+     */
+    public Window<Movie> moviesOfGenre(Long genreId, long after, int size) {
+        validate(after, size);
+        if (!genreRepository.existsById(genreId)) {
+            throw new NotFoundException("Genre with id " + genreId + " not found");
+        }
+        return movies(movieRepository.findByGenreAfter(genreId, after, size + 1), size);
+    }
+
+    /**
+     * Returns the movie's actors with an id greater than {@code after}.
+     *
+     * @throws EntityNotFoundException if the movie does not exist
+     */
+    public Window<Actor> actorsOfMovie(Long movieId, long after, int size) {
+        validate(after, size);
+        if (!movieRepository.existsById(movieId)) {
+            throw new NotFoundException("Movie with id " + movieId + " not found");
+        }
+        return Window.of(actorRepository.findByMovieAfter(movieId, after, size + 1), size, Actor::getId);
+    }
+
+    // Movies are serialized with their genres and actors: one batch query each for the whole window
+    private static Window<Movie> movies(List<Movie> rows, int size) {
+        Window<Movie> window = Window.of(rows, size, Movie::getId);
+        window.content().forEach(movie -> {
+            Hibernate.initialize(movie.getGenres());
+            Hibernate.initialize(movie.getActors());
+        });
+        return window;
+    }
+
+    private static void validate(long after, int size) {
+        if (after < 0) {
+            throw new InvalidRequestException("after must not be negative");
+        }
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new InvalidRequestException("size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    /**
+     * One keyset page.
+     *
+     * @param content   the entities, ordered by id
+     * @param nextAfter the cursor for the next page, or {@code null} if this is the last one
+     */
+    public record Window<T>(List<T> content, Long nextAfter) {
+
+        // rows holds up to size + 1 entities; the extra one only signals that another page exists
+        static <T> Window<T> of(List<T> rows, int size, Function<T, Long> id) {
+            if (rows.size() <= size) {
+                return new Window<>(rows, null);
+            }
+            List<T> content = rows.subList(0, size);
+            return new Window<>(content, id.apply(content.get(size - 1)));
+        }
+
+        public boolean hasNext() {
+            return nextAfter != null;
+        }
+    }
+}
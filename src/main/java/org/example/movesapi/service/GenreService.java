@@ -2,12 +2,14 @@ package org.example.movesapi.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.apache.coyote.BadRequestException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
 import org.example.movesapi.model.Genre;
 import org.example.movesapi.model.Movie;
 import org.example.movesapi.repository.GenreRepository;
 import org.example.movesapi.repository.MovieRepository;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.Set;
@@ -55,7 +57,7 @@ public class GenreService extends AbstractCRUDService<Genre, Long> {
     protected String getName(Long id) {
         return repository.findById(id)
                 .map(Genre::getName)
-                .orElseThrow(() -> new EntityNotFoundException("Genre with id " + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("Genre with id " + id + " not found"));
     }
 
     /**
@@ -72,8 +74,18 @@ public class GenreService extends AbstractCRUDService<Genre, Long> {
      * @throws IllegalArgumentException always
      */
     @Override
-    protected Page<Genre> filter(String filter, Pageable pageable) {
-        throw new IllegalArgumentException(".../genres does not support filtering");
+    protected Slice<Genre> filter(String filter, Pageable pageable) {
+        throw new InvalidRequestException(".../genres does not support filtering");
+    }
+
+    /**
+     * Filtering is not supported for genres.
+     *
+     * @throws IllegalArgumentException always
+     */
+    @Override
+    protected long countFiltered(String filter) {
+        throw new InvalidRequestException(".../genres does not support filtering");
     }
 
     /**
@@ -107,7 +119,7 @@ public class GenreService extends AbstractCRUDService<Genre, Long> {
         if(movies != null && !movies.isEmpty()) {
             movies.forEach(movie -> {
                 if(!movieRepository.existsById(movie.getId())) {
-                    throw new EntityNotFoundException("Movie with id " + movie.getId() + " not found");
+                    throw new NotFoundException("Movie with id " + movie.getId() + " not found");
                 }
             });
         }
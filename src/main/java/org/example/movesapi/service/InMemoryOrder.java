@@ -0,0 +1,36 @@
+package org.example.movesapi.service;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.function.BiFunction;
+
+/**
+ * Orders rows held in memory the way SQLite's ORDER BY would: by each {@link Sort.Order} in turn,
+ * with NULLs first in ascending order.
+ */
+public final class InMemoryOrder {
+
+    private InMemoryOrder() {
+    }
+
+    /**
+     * @param key the row's sort key for an order, with the order's case folding already applied
+     */
+    public static <R> Comparator<R> comparator(Sort sort, BiFunction<R, Sort.Order, Comparable<?>> key) {
+        Comparator<R> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<R> byProperty = (a, b) -> compare(key.apply(a, order), key.apply(b, order));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable a, Comparable b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+}
@@ -1,14 +1,23 @@
 package org.example.movesapi.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.example.movesapi.cache.HotKeys;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
 import org.example.movesapi.model.Actor;
 import org.example.movesapi.model.Genre;
 import org.example.movesapi.model.Movie;
+import org.example.movesapi.monitoring.ServerTiming;
 import org.example.movesapi.repository.ActorRepository;
 import org.example.movesapi.repository.GenreRepository;
 import org.example.movesapi.repository.MovieRepository;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -44,12 +53,14 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
      * @throws EntityNotFoundException if no movie is found with the given name
      */
     @Override
+    @Transactional(readOnly = true)
     public Movie findMovie(String title) {
         Movie movie = repository.findByName(title);
         if (movie != null) {
+            resolveAll(List.of(movie));
             return movie;
         }
-        throw new EntityNotFoundException("Movie with name " + title + " not found");
+        throw new NotFoundException("Movie with name " + title + " not found");
     }
 
     /**
@@ -59,7 +70,7 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
     protected String getName(Long id) {
         return repository.findById(id)
                 .map(Movie::getName)
-                .orElseThrow(() -> new EntityNotFoundException("Movie not found"));
+                .orElseThrow(() -> new NotFoundException("Movie not found"));
     }
 
     /**
@@ -78,6 +89,16 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
         return repository.isDependencyExist(id);
     }
 
+    /**
+     * Loads genres and actors, which are serialized with the movie.
+     * Both collections are batch-fetched, so resolving a whole page costs one query per collection.
+     */
+    @Override
+    protected void resolveAssociations(Movie movie) {
+        Hibernate.initialize(movie.getGenres());
+        Hibernate.initialize(movie.getActors());
+    }
+
     /**
      * Returns the ID of the movie.
      */
@@ -94,23 +115,98 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
      *
      * @param filter   the filter query in format key:value[,value]
      * @param pageable pagination and sorting parameters
-     * @return filtered page of movies
+     * @return filtered slice of movies
      */
     @Override
-    protected Page<Movie> filter(String filter, Pageable pageable) {
+    protected Slice<Movie> filter(String filter, Pageable pageable) {
         String[] parts = filter.split(":", 2);
         if (parts.length < 2 || parts[1].isBlank()) {
-            throw new IllegalArgumentException("Filter must be in format key:value[,value...]");
+            throw new InvalidRequestException("Filter must be in format key:value[,value...]");
         }
 
         String key = parts[0].trim();
         String value = parts[1].trim();
+        recordHotKey(HotKeys.filterKey("/movies", filter));
 
         return switch (key) {
-            case "genre" -> repository.findByGenres(getGenres(value), getGenres(value).size(), getPageable(pageable));
+            case "genre" -> {
+                Set<Genre> genres = getGenres(value);
+                yield repository.findByGenres(genres, genres.size(), getPageable(pageable));
+            }
             case "releaseYear" -> repository.findByReleaseYear(Integer.parseInt(value), getPageable(pageable));
-            case "actor" -> repository.findByActors(getActors(value), getActors(value).size(), getPageable(pageable));
-            default -> throw new IllegalArgumentException("Filter key: " + key + " not supported");
+            case "actor" -> {
+                Set<Actor> actors = getActors(value);
+                yield repository.findByActors(actors, actors.size(), getPageable(pageable));
+            }
+            default -> throw new InvalidRequestException("Filter key: " + key + " not supported");
+        };
+    }
+
+    /**
+     * Counts the movies matched by {@link #filter(String, Pageable)}.
+     */
+    @Override
+    protected long countFiltered(String filter) {
+        String[] parts = filter.split(":", 2);
+        if (parts.length < 2 || parts[1].isBlank()) {
+            throw new InvalidRequestException("Filter must be in format key:value[,value...]");
+        }
+
+        String key = parts[0].trim();
+        String value = parts[1].trim();
+
+        return switch (key) {
+            case "genre" -> {
+                Set<Genre> genres = getGenres(value);
+                yield repository.countByGenres(genres, genres.size());
+            }
+            case "releaseYear" -> repository.countByReleaseYear(Integer.parseInt(value));
+            case "actor" -> {
+                Set<Actor> actors = getActors(value);
+                yield repository.countByActors(actors, actors.size());
+            }
+            default -> throw new InvalidRequestException("Filter key: " + key + " not supported");
+        };
+    }
+
+    /**
+     * The conditions of {@link #filter(String, Pageable)} for listings with a field selection:
+     * the same GROUP BY / HAVING match as {@link MovieRepository#findByGenres} and
+     * {@link MovieRepository#findByActors}, as an id subquery.
+     */
+    @Override
+    protected ProjectionQueries.Condition<Movie> filterCondition(String filter) {
+        String[] parts = filter.split(":", 2);
+        if (parts.length < 2 || parts[1].isBlank()) {
+            throw new InvalidRequestException("Filter must be in format key:value[,value...]");
+        }
+
+        String key = parts[0].trim();
+        String value = parts[1].trim();
+        recordHotKey(HotKeys.filterKey("/movies", filter));
+
+        return switch (key) {
+            case "genre" -> withAll("genres", getGenres(value));
+            case "releaseYear" -> {
+                int releaseYear = Integer.parseInt(value);
+                yield (root, query, cb) -> cb.equal(root.get("releaseYear"), releaseYear);
+            }
+            case "actor" -> withAll("actors", getActors(value));
+            default -> throw new InvalidRequestException("Filter key: " + key + " not supported");
+        };
+    }
+
+    // Movies associated with every one of the targets
+    private static ProjectionQueries.Condition<Movie> withAll(String association, Set<?> targets) {
+        return (root, query, cb) -> {
+            Subquery<Long> matching = query.subquery(Long.class);
+            Root<Movie> movie = matching.from(Movie.class);
+            Join<Movie, ?> target = movie.join(association);
+            matching.select(movie.<Long>get("id"))
+                    .where(target.in(targets))
+                    .groupBy(movie.get("id"))
+                    .having(cb.equal(cb.countDistinct(target), (long) targets.size()));
+            return root.get("id").in(matching);
         };
     }
 
@@ -124,11 +220,16 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
      * @throws EntityNotFoundException if any of the names do not exist
      */
     private Set<Actor> getActors(String value) {
-        return Arrays.stream(value.split(",")) // Split the string into ["Keanu Reeves", "Carrie-Anne Moss"]
-                .map(String::trim) // Remove extra spaces from each name
-                .map(name -> Optional.ofNullable(actorRepository.findByName(name)) // Try to find each actor by name
-                        .orElseThrow(() -> new EntityNotFoundException("Actor not found: " + name))) // If not found, throw error
-                .collect(Collectors.toSet()); // Collect all found actors into a Set<Actor>
+        long started = ServerTiming.start();
+        try {
+            return Arrays.stream(value.split(",")) // Split the string into ["Keanu Reeves", "Carrie-Anne Moss"]
+                    .map(String::trim) // Remove extra spaces from each name
+                    .map(name -> Optional.ofNullable(actorRepository.findByName(name)) // Try to find each actor by name
+                            .orElseThrow(() -> new NotFoundException("Actor not found: " + name))) // If not found, throw error
+                    .collect(Collectors.toSet()); // Collect all found actors into a Set<Actor>
+        } finally {
+            ServerTiming.stop(ServerTiming.Phase.RESOLVE, started);
+        }
     }
 
     /**
@@ -141,11 +242,16 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
      * @throws EntityNotFoundException if any genre name is not found
      */
     private Set<Genre> getGenres(String value) {
-        return Arrays.stream(value.split(",")) // Split input like "Action, Comedy" into ["Action", "Comedy"]
-                .map(String::trim) // Trim spaces around genre names
-                .map(name -> Optional.ofNullable(genreRepository.findByName(name)) // Look up each genre in the repository
-                        .orElseThrow(() -> new EntityNotFoundException("Genre not found: " + name))) // Throw if not found
-                .collect(Collectors.toSet()); // Collect results into a Set<Genre>
+        long started = ServerTiming.start();
+        try {
+            return Arrays.stream(value.split(",")) // Split input like "Action, Comedy" into ["Action", "Comedy"]
+                    .map(String::trim) // Trim spaces around genre names
+                    .map(name -> Optional.ofNullable(genreRepository.findByName(name)) // Look up each genre in the repository
+                            .orElseThrow(() -> new NotFoundException("Genre not found: " + name))) // Throw if not found
+                    .collect(Collectors.toSet()); // Collect results into a Set<Genre>
+        } finally {
+            ServerTiming.stop(ServerTiming.Phase.RESOLVE, started);
+        }
     }
 
     /**
@@ -181,7 +287,7 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
         if (actors != null && !actors.isEmpty()) {
             actors.forEach(actor -> {
                 if(!actorRepository.existsById(actor.getId())) {
-                    throw new EntityNotFoundException("Actor with id " + actor.getId() + " not found");
+                    throw new NotFoundException("Actor with id " + actor.getId() + " not found");
                 }
             });
         }
@@ -189,7 +295,7 @@ public class MovieService extends AbstractCRUDService<Movie, Long> {
         if (genres != null && !genres.isEmpty()) {
             genres.forEach(genre -> {
                 if(!genreRepository.existsById(genre.getId())) {
-                    throw new EntityNotFoundException("Genre with id " + genre.getId() + " not found");
+                    throw new NotFoundException("Genre with id " + genre.getId() + " not found");
                 }
             });
         }
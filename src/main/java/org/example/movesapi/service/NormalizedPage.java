@@ -0,0 +1,44 @@
+package org.example.movesapi.service;
+
+import java.util.*;
+
+/**
+ * List response body for {@code ?normalize=true}: each row lists the ids of its associated
+ * entities, and {@code included} carries every referenced entity once per page, grouped by
+ * association and keyed by id.
+ * <p>
+ * On large pages the same genres and popular actors would otherwise be serialized again
+ * inside every movie.
+ *
+ * @param data     the rows, with each expanded association replaced by a list of ids
+ * @param included association name to (id to entity)
+ */
+public record NormalizedPage(List<Map<String, Object>> data,
+                             Map<String, Map<Object, Map<String, Object>>> included) {
+
+    private static final String ID = "id";
+
+    /**
+     * Moves the expanded associations of shaped rows (see {@link ProjectionQueries}) into {@code included}.
+     * The rows are changed in place.
+     */
+    public static NormalizedPage of(List<Map<String, Object>> rows, Set<String> associations) {
+        Map<String, Map<Object, Map<String, Object>>> included = new LinkedHashMap<>();
+        for (String association : associations) {
+            Map<Object, Map<String, Object>> byId = new LinkedHashMap<>();
+            for (Map<String, Object> row : rows) {
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> elements = (List<Map<String, Object>>) row.get(association);
+                List<Object> ids = new ArrayList<>(elements.size());
+                for (Map<String, Object> element : elements) {
+                    Object id = element.get(ID);
+                    ids.add(id);
+                    byId.putIfAbsent(id, element);
+                }
+                row.put(association, ids);
+            }
+            included.put(association, byId);
+        }
+        return new NormalizedPage(rows, included);
+    }
+}
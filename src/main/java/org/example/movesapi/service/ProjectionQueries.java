@@ -0,0 +1,255 @@
+package org.example.movesapi.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Runs queries shaped by a {@link FieldSelection}: only the id and the requested columns are
+ * selected, and each expanded association is fetched with one extra query for the whole page
+ * (owner id, target columns), so associations that were not asked for are never loaded.
+ * <p>
+ * Rows are returned as ordered maps that serialize like the entity minus the omitted properties.
+ * Which properties exist comes from the JPA metamodel; properties hidden from JSON with
+ * {@link JsonIgnore} can be neither selected nor expanded.
+ */
+@Component
+public class ProjectionQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * The shape of the full entity representation: all scalar properties and every association it includes.
+     */
+    public FieldSelection fullSelection(Class<?> type) {
+        return new FieldSelection(Set.of(), expandableAssociations(type));
+    }
+
+    /**
+     * Reads one page of rows, ordered like the entity listing.
+     */
+    public <T> Slice<Map<String, Object>> page(Class<T> type, FieldSelection selection, Pageable pageable) {
+        return page(type, selection, pageable, null);
+    }
+
+    /**
+     * Reads one page of the rows matching the condition, ordered like the entity listing.
+     *
+     * @param condition the filter built into the query, or null for all rows
+     */
+    public <T> Slice<Map<String, Object>> page(Class<T> type, FieldSelection selection, Pageable pageable,
+                                               Condition<T> condition) {
+        Shape shape = shape(type, selection);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(shape.columns().stream().<Selection<?>>map(c -> root.get(c).alias(c)).toList());
+        if (condition != null) {
+            query.where(condition.toPredicate(root, query, cb));
+        }
+        query.orderBy(orders(cb, root, pageable.getSort()));
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = tuples.size() > pageable.getPageSize();
+        List<Map<String, Object>> rows = toRows(shape, hasNext ? tuples.subList(0, pageable.getPageSize()) : tuples);
+        expand(type, shape, rows);
+        return new SliceImpl<>(rows, pageable, hasNext);
+    }
+
+    /**
+     * Reads a single row; empty if there is no entity with this id.
+     */
+    public <T> Optional<Map<String, Object>> byId(Class<T> type, Object id, FieldSelection selection) {
+        Shape shape = shape(type, selection);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(shape.columns().stream().<Selection<?>>map(c -> root.get(c).alias(c)).toList());
+        query.where(cb.equal(root.get(shape.idName()), id));
+
+        List<Map<String, Object>> rows = toRows(shape, entityManager.createQuery(query).getResultList());
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        expand(type, shape, rows);
+        return Optional.of(rows.get(0));
+    }
+
+    /**
+     * Shapes entities that were already loaded (e.g. by a filter query). Only their scalar
+     * properties are read; expanded associations are still fetched in one query per association.
+     */
+    public <T> Slice<Map<String, Object>> fromEntities(Class<T> type, FieldSelection selection, Slice<T> entities) {
+        Shape shape = shape(type, selection);
+        List<Map<String, Object>> rows = new ArrayList<>(entities.getNumberOfElements());
+        for (T entity : entities) {
+            BeanWrapperImpl bean = new BeanWrapperImpl(entity);
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String column : shape.columns()) {
+                row.put(column, bean.getPropertyValue(column));
+            }
+            rows.add(row);
+        }
+        expand(type, shape, rows);
+        return new SliceImpl<>(rows, entities.getPageable(), entities.hasNext());
+    }
+
+    // One query per expanded association: SELECT owner.id, target.* FROM owner JOIN owner.assoc target WHERE owner.id IN (...)
+    private <T> void expand(Class<T> type, Shape shape, List<Map<String, Object>> rows) {
+        if (shape.expand().isEmpty() || rows.isEmpty()) {
+            return;
+        }
+        Map<Object, Map<String, Object>> rowsById = new HashMap<>();
+        rows.forEach(row -> rowsById.put(row.get(shape.idName()), row));
+
+        for (String association : shape.expand()) {
+            PluralAttribute<? super T, ?, ?> attribute = metamodel(type).getPluralAttribute(association);
+            Class<?> targetType = attribute.getElementType().getJavaType();
+            List<String> targetColumns = visibleColumns(targetType);
+
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> query = cb.createTupleQuery();
+            Root<T> root = query.from(type);
+            Join<T, ?> target = root.join(association);
+            List<Selection<?>> selections = new ArrayList<>();
+            selections.add(root.get(shape.idName()).alias("owner"));
+            targetColumns.forEach(c -> selections.add(target.get(c).alias(c)));
+            query.multiselect(selections);
+            query.where(root.get(shape.idName()).in(rowsById.keySet()));
+            query.orderBy(cb.asc(target.get(idName(targetType))));
+
+            rows.forEach(row -> row.put(association, new ArrayList<>()));
+            for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+                Map<String, Object> element = new LinkedHashMap<>();
+                targetColumns.forEach(c -> element.put(c, tuple.get(c)));
+                @SuppressWarnings("unchecked")
+                List<Object> elements = (List<Object>) rowsById.get(tuple.get("owner")).get(association);
+                elements.add(element);
+            }
+        }
+    }
+
+    private static List<Map<String, Object>> toRows(Shape shape, List<Tuple> tuples) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            shape.columns().forEach(c -> row.put(c, tuple.get(c)));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static <T> List<Order> orders(CriteriaBuilder cb, Root<T> root, Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Expression<?> property = root.get(order.getProperty());
+            if (order.isIgnoreCase()) {
+                property = cb.lower(property.as(String.class));
+            }
+            orders.add(order.isAscending() ? cb.asc(property) : cb.desc(property));
+        }
+        return orders;
+    }
+
+    /**
+     * Validates the selection against the entity and resolves the columns to select (id first).
+     */
+    private <T> Shape shape(Class<T> type, FieldSelection selection) {
+        String idName = idName(type);
+        List<String> visible = visibleColumns(type);
+        List<String> columns = new ArrayList<>();
+        columns.add(idName);
+        if (selection.fields().isEmpty()) {
+            visible.stream().filter(c -> !c.equals(idName)).forEach(columns::add);
+        } else {
+            for (String field : selection.fields()) {
+                if (!visible.contains(field)) {
+                    throw new InvalidRequestException("Unknown field: " + field);
+                }
+                if (!field.equals(idName)) {
+                    columns.add(field);
+                }
+            }
+        }
+        Set<String> expandable = expandableAssociations(type);
+        for (String association : selection.expand()) {
+            if (!expandable.contains(association)) {
+                throw new InvalidRequestException("Cannot expand: " + association);
+            }
+        }
+        return new Shape(idName, columns, selection.expand());
+    }
+
+    private <T> EntityType<T> metamodel(Class<T> type) {
+        return entityManager.getMetamodel().entity(type);
+    }
+
+    private String idName(Class<?> type) {
+        EntityType<?> entity = entityManager.getMetamodel().entity(type);
+        return entity.getId(entity.getIdType().getJavaType()).getName();
+    }
+
+    // Basic attributes in declaration order, as the entity would be serialized
+    private List<String> visibleColumns(Class<?> type) {
+        EntityType<?> entity = entityManager.getMetamodel().entity(type);
+        List<String> columns = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(JsonIgnore.class)) {
+                continue;
+            }
+            entity.getSingularAttributes().stream()
+                    .filter(a -> a.getName().equals(field.getName()))
+                    .filter(a -> a.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC)
+                    .findFirst()
+                    .ifPresent(a -> columns.add(a.getName()));
+        }
+        return columns;
+    }
+
+    // Associations included in the entity's JSON, in declaration order
+    private Set<String> expandableAssociations(Class<?> type) {
+        EntityType<?> entity = entityManager.getMetamodel().entity(type);
+        Set<String> associations = new LinkedHashSet<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(JsonIgnore.class)) {
+                continue;
+            }
+            entity.getPluralAttributes().stream()
+                    .filter(a -> a.getName().equals(field.getName()))
+                    .findFirst()
+                    .ifPresent(a -> associations.add(a.getName()));
+        }
+        return associations;
+    }
+
+    /**
+     * A filter on the listed entity, e.g. a subquery over its associations.
+     */
+    @FunctionalInterface
+    public interface Condition<T> {
+        Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb);
+    }
+
+    private record Shape(String idName, List<String> columns, Set<String> expand) {
+    }
+}
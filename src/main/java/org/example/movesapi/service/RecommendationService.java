@@ -0,0 +1,70 @@
+package org.example.movesapi.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.exceptions.NotFoundException;
+import org.example.movesapi.index.SimilarMovieIndex;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.repository.MovieRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Movie recommendations based on the precomputed {@link SimilarMovieIndex}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RecommendationService {
+
+    private final SimilarMovieIndex index;
+    private final MovieRepository movieRepository;
+
+    public RecommendationService(SimilarMovieIndex index, MovieRepository movieRepository) {
+        this.index = index;
+        this.movieRepository = movieRepository;
+    }
+
+    /**
+     * Returns the movies sharing the most genres and actors with the given movie.
+     *
+     * @param movieId    the movie to find similar movies for
+     * @param limit      maximum number of results (1-100)
+     * @param yearWeight weight of release-year proximity in the score (0-1)
+     * @throws EntityNotFoundException if the movie does not exist
+     */
+    public List<SimilarMovie> getSimilar(Long movieId, int limit, double yearWeight) {
+        if (limit <= 0 || limit > 100) {
+            throw new InvalidRequestException("limit must be between 1 and 100");
+        }
+        if (yearWeight < 0 || yearWeight > 1) {
+            throw new InvalidRequestException("yearWeight must be between 0 and 1");
+        }
+        if (!movieRepository.existsById(movieId)) {
+            throw new NotFoundException("Movie with id " + movieId + " not found");
+        }
+
+        List<SimilarMovieIndex.Match> matches = index.similar(movieId, limit, yearWeight);
+        Map<Long, Movie> movies = movieRepository.findAllById(matches.stream().map(SimilarMovieIndex.Match::movieId).toList())
+                .stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        return matches.stream()
+                .filter(match -> movies.containsKey(match.movieId()))
+                .map(match -> {
+                    Movie movie = movies.get(match.movieId());
+                    return new SimilarMovie(movie.getId(), movie.getName(), movie.getReleaseYear(),
+                            match.jaccard(), match.score());
+                })
+                .toList();
+    }
+
+    /**
+     * A recommended movie with its Jaccard similarity and final score.
+     */
+    public record SimilarMovie(Long id, String name, int releaseYear, double similarity, double score) {
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.movesapi.service;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.example.movesapi.exceptions.FeatureUnavailableException;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+import java.util.List;
+
+/**
+ * Adds an advice to every {@link CRUDService} bean (or to the beans of the given service types),
+ * or to its existing transactional proxy, in front of the advisors already there: it runs outside
+ * the transaction, so it sees the whole call including the commit, and can choose the connection
+ * the transaction will use.
+ */
+public class ServiceAdvisingPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+    /**
+     * The services that read SQLite (or indexes loaded from it) directly instead of going through
+     * a {@link CRUDService}: filmography, co-stars, recommendations, suggestions and statistics.
+     */
+    public static final List<Class<?>> SQLITE_SERVICES = List.of(FilmographyService.class, CoStarService.class,
+            RecommendationService.class, SuggestionService.class, StatsService.class);
+
+    public ServiceAdvisingPostProcessor(MethodInterceptor interceptor) {
+        this(List.of(CRUDService.class), interceptor);
+    }
+
+    public ServiceAdvisingPostProcessor(List<Class<?>> services, MethodInterceptor interceptor) {
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(
+                type -> services.stream().anyMatch(service -> service.isAssignableFrom(type))), interceptor);
+        this.beforeExistingAdvisors = true;
+        setProxyTargetClass(true);
+    }
+
+    /**
+     * Rejects every call to the {@link #SQLITE_SERVICES}, for storage modes in which the configured
+     * SQLite database does not hold the whole catalog.
+     *
+     * @param mode how the storage mode is named in the error message, e.g. "with sharding"
+     */
+    public static ServiceAdvisingPostProcessor rejectingSqliteServices(String mode) {
+        return new ServiceAdvisingPostProcessor(SQLITE_SERVICES, invocation -> {
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            throw new FeatureUnavailableException("This endpoint is not available " + mode);
+        });
+    }
+}
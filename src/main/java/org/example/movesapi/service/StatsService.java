@@ -0,0 +1,46 @@
+package org.example.movesapi.service;
+
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.index.StatsIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Dashboard statistics computed from the in-memory {@link StatsIndex} instead of SQL GROUP BY queries.
+ */
+@Service
+public class StatsService {
+
+    private final StatsIndex index;
+
+    public StatsService(StatsIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Computes all dashboard statistics from one column snapshot, so the parts always agree
+     * with each other (a write applied meanwhile shows up in the next call).
+     *
+     * @param topActors how many of the most prolific actors to include (1-100)
+     */
+    public CatalogStats getStats(int topActors) {
+        if (topActors <= 0 || topActors > 100) {
+            throw new InvalidRequestException("topActors must be between 1 and 100");
+        }
+        StatsIndex.Snapshot snapshot = index.snapshot();
+        return new CatalogStats(
+                snapshot.movieCount(),
+                snapshot.moviesPerYear(),
+                snapshot.averageDurationPerGenre(),
+                snapshot.mostProlificActors(topActors),
+                snapshot.genreCooccurrence());
+    }
+
+    public record CatalogStats(int movies,
+                               List<StatsIndex.YearCount> moviesPerYear,
+                               List<StatsIndex.GenreDuration> averageDurationPerGenre,
+                               List<StatsIndex.ActorCount> mostProlificActors,
+                               StatsIndex.GenreCooccurrence genreCooccurrence) {
+    }
+}
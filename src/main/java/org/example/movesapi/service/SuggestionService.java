@@ -0,0 +1,39 @@
+package org.example.movesapi.service;
+
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.index.NameSuggestIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Type-ahead suggestions for movie and actor names, served from {@link NameSuggestIndex}.
+ */
+@Service
+public class SuggestionService {
+
+    private final NameSuggestIndex index;
+
+    public SuggestionService(NameSuggestIndex index) {
+        this.index = index;
+    }
+
+    public List<NameSuggestIndex.Suggestion> suggestMovies(String prefix, int limit) {
+        validate(prefix, limit);
+        return index.suggestMovies(prefix, limit);
+    }
+
+    public List<NameSuggestIndex.Suggestion> suggestActors(String prefix, int limit) {
+        validate(prefix, limit);
+        return index.suggestActors(prefix, limit);
+    }
+
+    private void validate(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new InvalidRequestException("prefix must not be blank");
+        }
+        if (limit <= 0 || limit > 100) {
+            throw new InvalidRequestException("limit must be between 1 and 100");
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.example.movesapi.service;
+
+import org.example.movesapi.exceptions.WriteTimeoutException;
+import org.example.movesapi.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link AbstractCRUDService} mutations one at a time, each in its own transaction.
+ * <p>
+ * SQLite allows a single writer; letting concurrent requests race for the file lock ends in
+ * {@code SQLITE_BUSY} ("database is locked"). Writers instead queue on a fair lock, so they
+ * are served in arrival order. A write that still hits a transient lock error (another
+ * process, or a reader holding the file during commit) is rolled back and retried with
+ * jittered exponential backoff. Only when {@code kmdb.write.deadline-ms} passes, counted
+ * from arrival and including the queue wait, does the caller get a
+ * {@link WriteTimeoutException} (503 with {@code Retry-After}).
+ * <p>
+ * There is one queue per shard ({@link ShardContext}), so in sharded mode writes to
+ * different SQLite files proceed in parallel; without sharding everything is shard 0.
+ * <p>
+ * Work registered with {@link #afterWrite} (the {@link EntityChangedEvent}s, whose listeners
+ * reload in-memory indexes with their own queries) runs after the commit and after the queue
+ * is released, so it never delays the next writer. Work registered by an attempt that is
+ * rolled back is dropped with it. A failing task is logged and the others still run: the
+ * write has committed, so it is reported as successful.
+ */
+@Component
+public class WriteScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteScheduler.class);
+
+    private final TransactionTemplate transactions;
+    private final long deadlineNanos;
+    private final long backoffBaseNanos;
+    private final long backoffMaxNanos;
+
+    private final Map<Integer, ReentrantLock> writeLocks = new ConcurrentHashMap<>();
+    // Work to run once the current write has committed and released its queue
+    private final ThreadLocal<List<Runnable>> afterWrite = new ThreadLocal<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder totalWriteNanos = new LongAdder();
+
+    public WriteScheduler(PlatformTransactionManager transactionManager,
+                          @Value("${kmdb.write.deadline-ms:5000}") long deadlineMillis,
+                          @Value("${kmdb.write.backoff-base-ms:5}") long backoffBaseMillis,
+                          @Value("${kmdb.write.backoff-max-ms:250}") long backoffMaxMillis) {
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        this.backoffBaseNanos = TimeUnit.MILLISECONDS.toNanos(backoffBaseMillis);
+        this.backoffMaxNanos = TimeUnit.MILLISECONDS.toNanos(backoffMaxMillis);
+    }
+
+    /**
+     * Runs the write in a new transaction once it is this caller's turn, retrying transient lock errors.
+     *
+     * @throws WriteTimeoutException if the write could not complete before the deadline
+     */
+    public <R> R execute(Supplier<R> write) {
+        long arrived = System.nanoTime();
+        long deadline = arrived + deadlineNanos;
+
+        ReentrantLock writeLock = writeLocks.computeIfAbsent(ShardContext.current(), shard -> new ReentrantLock(true));
+        maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+        boolean acquired;
+        try {
+            acquired = writeLock.tryLock(deadlineNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timeout(null);
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+        long waited = System.nanoTime() - arrived;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            throw timeout(null);
+        }
+
+        List<Runnable> outer = afterWrite.get();
+        List<Runnable> committed = new ArrayList<>();
+        R result;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                long started = System.nanoTime();
+                List<Runnable> pending = new ArrayList<>();
+                afterWrite.set(pending);
+                try {
+                    result = transactions.execute(status -> write.get());
+                    writes.increment();
+                    totalWriteNanos.add(System.nanoTime() - started);
+                    committed = pending;
+                    break;
+                } catch (RuntimeException e) {
+                    if (!isTransientLockError(e)) {
+                        throw e;
+                    }
+                    long backoff = backoff(attempt);
+                    if (System.nanoTime() + backoff >= deadline) {
+                        throw timeout(e);
+                    }
+                    retries.increment();
+                    sleep(backoff);
+                }
+            }
+        } finally {
+            afterWrite.set(outer);
+            writeLock.unlock();
+        }
+
+        // A nested write hands its work to the enclosing one
+        if (outer != null) {
+            outer.addAll(committed);
+        } else {
+            committed.forEach(WriteScheduler::runCommitted);
+        }
+        return result;
+    }
+
+    private static void runCommitted(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("After-write task failed", e);
+        }
+    }
+
+    /**
+     * Runs the task once the current write has committed and its queue is released, or right
+     * away outside a write.
+     */
+    public void afterWrite(Runnable task) {
+        List<Runnable> pending = afterWrite.get();
+        if (pending != null) {
+            pending.add(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Same as {@link #execute(Supplier)} for writes without a result.
+     */
+    public void run(Runnable write) {
+        execute(() -> {
+            write.run();
+            return null;
+        });
+    }
+
+    public Metrics metrics() {
+        long completed = writes.sum();
+        long waits = completed + timeouts.sum();
+        return new Metrics(
+                queueDepth.get(),
+                maxQueueDepth.get(),
+                completed,
+                retries.sum(),
+                timeouts.sum(),
+                waits == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / waits,
+                maxWaitNanos.get() / 1_000_000.0,
+                completed == 0 ? 0 : totalWriteNanos.sum() / 1_000_000.0 / completed);
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^attempt)]
+    private long backoff(int attempt) {
+        long ceiling = Math.min(backoffMaxNanos, backoffBaseNanos << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private WriteTimeoutException timeout(Throwable cause) {
+        timeouts.increment();
+        // Roughly how long the writers already queued will take
+        double meanWriteMillis = metrics().meanWriteMillis();
+        long retryAfter = Math.max(1, (long) Math.ceil((queueDepth.get() + 1) * meanWriteMillis / 1000));
+        return new WriteTimeoutException("Database is busy, try again later", retryAfter, cause);
+    }
+
+    static boolean isTransientLockError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLiteException sqlite) {
+                SQLiteErrorCode code = sqlite.getResultCode();
+                if (code.name().startsWith("SQLITE_BUSY") || code.name().startsWith("SQLITE_LOCKED")) {
+                    return true;
+                }
+            }
+            String message = t.getMessage();
+            if (message != null && (message.contains("database is locked") || message.contains("database table is locked"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // An interrupted writer gives up instead of retrying without pauses until the deadline
+    private void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timeout(e);
+        }
+    }
+
+    /**
+     * Snapshot of the scheduler counters; times in milliseconds.
+     */
+    public record Metrics(int queueDepth, int maxQueueDepth, long writes, long retries, long timeouts,
+                          double meanWaitMillis, double maxWaitMillis, double meanWriteMillis) {
+    }
+}
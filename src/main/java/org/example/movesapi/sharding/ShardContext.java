@@ -0,0 +1,44 @@
+package org.example.movesapi.sharding;
+
+/**
+ * The shard the current thread works on.
+ * <p>
+ * Set by {@link ShardRoutingInterceptor} before the service transaction starts, so the
+ * connection, every repository call and lazy loading inside it go to that shard. Threads
+ * without a shard use shard 0, which is also the only shard when sharding is off.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+
+    static boolean isRouted() {
+        return SHARD.get() != null;
+    }
+
+    /**
+     * Switches the current thread to the shard.
+     *
+     * @return the previous value, to be passed to {@link #restore}
+     */
+    static Integer enter(int shard) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(previous);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.movesapi.sharding;
+
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.service.EntityChangedEvent;
+import org.example.movesapi.service.WriteScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies actors and genres from shard 0 to every other shard, so movies in any shard can
+ * reference them and the filter joins stay local to the shard.
+ * <p>
+ * All rows are copied at startup; afterwards each committed change is copied row by row.
+ * The copies are ordinary writes on the target shard's {@link WriteScheduler} queue, so they
+ * wait their turn and are retried on {@code SQLITE_BUSY}. A copy that still fails does not
+ * fail the write that caused it: it is logged, recorded, and retried every
+ * {@code kmdb.sharding.replication-retry-seconds} with the row as it is in shard 0 by then.
+ */
+class ShardReplicator implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardReplicator.class);
+
+    private static final Map<Class<?>, String> TABLES = Map.of(Actor.class, "actor", Genre.class, "genre");
+
+    private final ShardRouter router;
+    private final WriteScheduler writes;
+    // Over the routing DataSource, so it joins the write's transaction on the current shard
+    private final JdbcTemplate jdbc;
+    private final Set<Replication> failed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-replication-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ShardReplicator(ShardRouter router, WriteScheduler writes, JdbcTemplate jdbc, long retrySeconds) {
+        this.router = router;
+        this.writes = writes;
+        this.jdbc = jdbc;
+        retries.scheduleWithFixedDelay(this::retryFailed, retrySeconds, retrySeconds, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1) // before the warm-up (see WarmUp)
+    public void replicateAll() {
+        JdbcTemplate directory = new JdbcTemplate(router.dataSource(0));
+        for (String table : TABLES.values()) {
+            List<Map<String, Object>> rows = directory.queryForList("SELECT * FROM " + table);
+            for (int shard = 1; shard < router.shardCount(); shard++) {
+                onShard(shard, () -> upsert(table, rows));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        String table = TABLES.get(event.entityType());
+        if (table == null) {
+            return;
+        }
+        for (int shard = 1; shard < router.shardCount(); shard++) {
+            Replication replication = new Replication(table, event.id(), shard);
+            try {
+                replicate(replication);
+            } catch (RuntimeException e) {
+                log.warn("Could not copy {} {} to shard {}, will retry", table, event.id(), shard, e);
+                failed.add(replication);
+            }
+        }
+    }
+
+    void retryFailed() {
+        for (Replication replication : Set.copyOf(failed)) {
+            failed.remove(replication);
+            try {
+                replicate(replication);
+            } catch (RuntimeException e) {
+                log.warn("Retry of copying {} {} to shard {} failed", replication.table(), replication.id(), replication.shard(), e);
+                failed.add(replication);
+            }
+        }
+    }
+
+    // Copies the row as it is in shard 0 now, or deletes it if it is gone there
+    private void replicate(Replication replication) {
+        List<Map<String, Object>> rows = new JdbcTemplate(router.dataSource(0))
+                .queryForList("SELECT * FROM " + replication.table() + " WHERE id = ?", replication.id());
+        onShard(replication.shard(), () -> {
+            if (rows.isEmpty()) {
+                jdbc.update("DELETE FROM " + replication.table() + " WHERE id = ?", replication.id());
+            } else {
+                upsert(replication.table(), rows);
+            }
+        });
+    }
+
+    private void onShard(int shard, Runnable write) {
+        Integer previous = ShardContext.enter(shard);
+        try {
+            writes.run(write);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private void upsert(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = List.copyOf(rows.get(0).keySet());
+        String sql = "INSERT OR REPLACE INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        jdbc.batchUpdate(sql, rows.stream()
+                .map(row -> columns.stream().map(row::get).toArray())
+                .toList());
+    }
+
+    @Override
+    public void destroy() {
+        retries.shutdownNow();
+    }
+
+    record Replication(String table, Object id, int shard) {
+    }
+}
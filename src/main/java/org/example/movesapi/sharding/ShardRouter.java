@@ -0,0 +1,63 @@
+package org.example.movesapi.sharding;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps movie ids to shards by range: shard {@code k} owns the ids
+ * {@code k * rangeSize + 1 .. (k + 1) * rangeSize}.
+ * <p>
+ * Each shard's {@code movie} AUTOINCREMENT sequence starts at the beginning of its range,
+ * so ids stay unique across shards without any coordination, and the existing database
+ * (shard 0) keeps all of its ids. New movies are spread over the shards round-robin.
+ */
+public class ShardRouter {
+
+    private final DataSource[] shards;
+    private final long rangeSize;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    ShardRouter(int shardCount, long rangeSize) {
+        this.shards = new DataSource[shardCount];
+        this.rangeSize = rangeSize;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * The shard that owns the id; ids outside every range map to shard 0, where they are simply not found.
+     */
+    public int shardOf(long id) {
+        long shard = Math.floorDiv(id - 1, rangeSize);
+        return shard >= 0 && shard < shards.length ? (int) shard : 0;
+    }
+
+    /**
+     * The first id of the shard's range minus one, i.e. the initial value of its sequence.
+     */
+    long rangeStart(int shard) {
+        return shard * rangeSize;
+    }
+
+    int nextShardForInsert() {
+        return Math.floorMod(nextShard.getAndIncrement(), shards.length);
+    }
+
+    /**
+     * The shard's own connection pool, bypassing {@link ShardContext}.
+     */
+    DataSource dataSource(int shard) {
+        return shards[shard];
+    }
+
+    void attach(int shard, DataSource dataSource) {
+        shards[shard] = dataSource;
+    }
+
+    List<DataSource> dataSources() {
+        return List.of(shards);
+    }
+}
@@ -0,0 +1,326 @@
+package org.example.movesapi.sharding;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.example.movesapi.exceptions.DependencyExistException;
+import org.example.movesapi.exceptions.FeatureUnavailableException;
+import org.example.movesapi.exceptions.InvalidRequestException;
+import org.example.movesapi.service.AbstractCRUDService;
+import org.example.movesapi.service.ActorService;
+import org.example.movesapi.service.CRUDService;
+import org.example.movesapi.service.FieldSelection;
+import org.example.movesapi.service.GenreService;
+import org.example.movesapi.service.InMemoryOrder;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntFunction;
+
+/**
+ * Routes {@link CRUDService} calls to the shards. Runs outside the transaction advice,
+ * so each routed call opens its transaction on the shard chosen here.
+ * <p>
+ * Actor and genre calls go to shard 0; the actor {@code movie:} filter is rejected, since the cast
+ * of movies outside shard 0 is not there. For movies:
+ * <ul>
+ *   <li>By-id reads, updates and deletes go to the shard owning the id; creates to the next shard in turn.</li>
+ *   <li>{@code getByIds} asks each shard for its own ids only and restores the request order.</li>
+ *   <li>{@code getAll} / {@code getPage} ask every shard in parallel for its first {@code offset + size} rows
+ *       in the requested order, with the id as the last key so ties are ordered the same way on every
+ *       shard, and merge-sort them; totals and estimates are summed. Every shard reads the whole window,
+ *       so pages ending past {@link #MAX_WINDOW} rows are rejected. Shaped rows also carry the sort
+ *       properties for the merge, which are removed again if the selection left them out.</li>
+ * </ul>
+ */
+class ShardRoutingInterceptor implements MethodInterceptor {
+
+    // Largest page a service accepts; deeper windows are read in page-sized chunks
+    private static final int MAX_CHUNK = 100;
+    // Deepest row a merged listing reaches; each shard reads up to this many rows per page
+    static final int MAX_WINDOW = 10 * MAX_CHUNK;
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Order.asc("name").ignoreCase());
+
+    private final ShardRouter router;
+    private final ExecutorService gatherPool;
+
+    ShardRoutingInterceptor(ShardRouter router, ExecutorService gatherPool) {
+        this.router = router;
+        this.gatherPool = gatherPool;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (ShardContext.isRouted()) {
+            return invocation.proceed();
+        }
+        Object target = invocation.getThis();
+        if (target instanceof ActorService || target instanceof GenreService) {
+            return directory(invocation, target instanceof ActorService ? "movie_actors" : "movie_genres",
+                    target instanceof ActorService ? "actor_id" : "genre_id");
+        }
+        Object[] args = invocation.getArguments();
+        return switch (invocation.getMethod().getName()) {
+            case "getById", "findById", "update", "delete" ->
+                    onShard(router.shardOf(((Number) args[0]).longValue()), invocation);
+            case "create" -> onShard(router.nextShardForInsert(), invocation);
+            case "getByIds" -> getByIds((ProxyMethodInvocation) invocation);
+            case "getAll", "getPage" -> page((ProxyMethodInvocation) invocation);
+            case "estimateCount" -> scatter((ProxyMethodInvocation) invocation, shard -> args).stream()
+                    .mapToLong(count -> (Long) count)
+                    .sum();
+            case "findMovie" -> first((ProxyMethodInvocation) invocation);
+            default -> invocation.proceed();
+        };
+    }
+
+    /**
+     * Actors and genres live in shard 0 and are replicated to the others (see {@link ShardReplicator}).
+     * Their join rows live with the movies, so a non-forced delete must find none in any shard.
+     */
+    private Object directory(MethodInvocation invocation, String joinTable, String column) throws Throwable {
+        Object[] args = invocation.getArguments();
+        if (joinTable.equals("movie_actors") && filtersByMovie(args)) {
+            throw new FeatureUnavailableException("The movie: filter of actors is not available with sharding");
+        }
+        if (invocation.getMethod().getName().equals("delete") && !((Boolean) args[1])) {
+            for (int shard = 1; shard < router.shardCount(); shard++) {
+                Boolean linked = new JdbcTemplate(router.dataSource(shard)).queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM " + joinTable + " WHERE " + column + " = ?)", Boolean.class, args[0]);
+                if (Boolean.TRUE.equals(linked)) {
+                    throw new DependencyExistException("Cannot delete " + args[0] + " because movies in shard " + shard + " reference it");
+                }
+            }
+        }
+        return onShard(0, invocation);
+    }
+
+    private static boolean filtersByMovie(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Optional<?> filter && filter.orElse(null) instanceof String text
+                    && text.split(":", 2)[0].trim().equals("movie")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object onShard(int shard, MethodInvocation invocation) throws Throwable {
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object getByIds(ProxyMethodInvocation invocation) throws Throwable {
+        List<Object> ids = (List<Object>) invocation.getArguments()[0];
+        Set<Object> distinct = new LinkedHashSet<>(ids);
+        if (distinct.isEmpty() || distinct.size() > AbstractCRUDService.MAX_IDS) {
+            return invocation.proceed(); // rejected by the service
+        }
+        Map<Integer, List<Object>> idsByShard = new TreeMap<>();
+        distinct.forEach(id -> idsByShard
+                .computeIfAbsent(router.shardOf(((Number) id).longValue()), shard -> new ArrayList<>())
+                .add(id));
+
+        CRUDService<Object, Object> service = (CRUDService<Object, Object>) invocation.getThis();
+        Map<Object, Object> found = new HashMap<>();
+        List<Integer> shards = List.copyOf(idsByShard.keySet());
+        List<Object> results = scatter(invocation, shards, shard -> new Object[]{idsByShard.get(shard)});
+        for (Object result : results) {
+            ((CRUDService.MultiGet<Object, Object>) result).found()
+                    .forEach(entity -> found.put(service.extractId(entity), entity));
+        }
+        List<Object> ordered = new ArrayList<>();
+        List<Object> missing = new ArrayList<>();
+        for (Object id : distinct) {
+            Object entity = found.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new CRUDService.MultiGet<>(ordered, missing);
+    }
+
+    /**
+     * Scatter-gather for {@code getAll} and {@code getPage} (plain and shaped): the first
+     * {@code offset + size} rows of the merged order are among the first {@code offset + size}
+     * rows of each shard.
+     */
+    @SuppressWarnings("unchecked")
+    private Object page(ProxyMethodInvocation invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+        Pageable requested = (Pageable) args[0];
+        if (requested.isUnpaged() || requested.getPageNumber() < 0 || requested.getPageSize() > MAX_CHUNK) {
+            return invocation.proceed(); // rejected by the service
+        }
+        if (requested.getOffset() + requested.getPageSize() > MAX_WINDOW) {
+            throw new InvalidRequestException("Pages of a sharded listing must end within the first " + MAX_WINDOW
+                    + " rows; narrow the list with a filter");
+        }
+        int window = (int) requested.getOffset() + requested.getPageSize();
+        int chunk = window <= MAX_CHUNK ? window : requested.getPageSize();
+        int chunks = (window + chunk - 1) / chunk;
+        Sort sort = withIdTiebreak(requested.getSort().isSorted() ? requested.getSort() : DEFAULT_SORT);
+        Set<String> hidden = new HashSet<>();
+        if (args.length > 2 && args[2] instanceof FieldSelection selection && !selection.fields().isEmpty()) {
+            Set<String> fields = new LinkedHashSet<>(selection.fields());
+            for (Sort.Order order : sort) {
+                // The id is always selected
+                if (!order.getProperty().equals("id") && fields.add(order.getProperty())) {
+                    hidden.add(order.getProperty());
+                }
+            }
+            args = args.clone();
+            args[2] = new FieldSelection(fields, selection.expand());
+        }
+
+        List<List<Object>> rowsPerShard = new ArrayList<>();
+        boolean hasMore = false;
+        long total = 0;
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            rowsPerShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < chunks; i++) {
+            Object[] chunkArgs = args.clone();
+            chunkArgs[0] = PageRequest.of(i, chunk, sort);
+            List<Object> slices = scatter(invocation, shard -> chunkArgs);
+            for (int shard = 0; shard < slices.size(); shard++) {
+                Slice<?> slice = (Slice<?>) slices.get(shard);
+                rowsPerShard.get(shard).addAll(slice.getContent());
+                if (i == chunks - 1) {
+                    hasMore |= slice.hasNext();
+                    if (slice instanceof Page<?> page) {
+                        total += page.getTotalElements();
+                    }
+                }
+            }
+        }
+
+        List<Object> merged = new ArrayList<>();
+        rowsPerShard.forEach(merged::addAll);
+        merged.sort(comparator(sort));
+        hasMore |= merged.size() > window;
+        List<Object> content = new ArrayList<>(merged.subList(Math.min((int) requested.getOffset(), merged.size()),
+                Math.min(window, merged.size())));
+        if (!hidden.isEmpty()) {
+            content.replaceAll(row -> {
+                Map<String, Object> shaped = new LinkedHashMap<>((Map<String, Object>) row);
+                shaped.keySet().removeAll(hidden);
+                return shaped;
+            });
+        }
+        if (invocation.getMethod().getName().equals("getPage")) {
+            return new PageImpl<>(content, requested, total);
+        }
+        return new SliceImpl<>(content, requested, hasMore);
+    }
+
+    // findMovie: the first shard that knows the title wins
+    private Object first(ProxyMethodInvocation invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+        List<CompletableFuture<Object>> calls = new ArrayList<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            calls.add(call(invocation, shard, args));
+        }
+        Throwable miss = null;
+        for (CompletableFuture<Object> call : calls) {
+            try {
+                return await(call);
+            } catch (EntityNotFoundException e) {
+                miss = miss == null ? e : miss;
+            }
+        }
+        throw miss;
+    }
+
+    private List<Object> scatter(ProxyMethodInvocation invocation, IntFunction<Object[]> args) throws Throwable {
+        List<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            shards.add(shard);
+        }
+        return scatter(invocation, shards, args);
+    }
+
+    private List<Object> scatter(ProxyMethodInvocation invocation, List<Integer> shards,
+                                 IntFunction<Object[]> args) throws Throwable {
+        List<CompletableFuture<Object>> calls = new ArrayList<>();
+        for (int shard : shards) {
+            calls.add(call(invocation, shard, args.apply(shard)));
+        }
+        List<Object> results = new ArrayList<>(calls.size());
+        for (CompletableFuture<Object> call : calls) {
+            results.add(await(call));
+        }
+        return results;
+    }
+
+    // Each shard gets its own clone of the invocation, proceeding through the transaction advice on a pool thread
+    private CompletableFuture<Object> call(ProxyMethodInvocation invocation, int shard, Object[] args) {
+        MethodInvocation clone = invocation.invocableClone(args);
+        return CompletableFuture.supplyAsync(() -> {
+            Integer previous = ShardContext.enter(shard);
+            try {
+                return clone.proceed();
+            } catch (Throwable e) {
+                throw new CompletionException(e);
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }, gatherPool);
+    }
+
+    private static Object await(CompletableFuture<Object> call) throws Throwable {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    // Rows with equal sort keys come back in id order from every shard, and merge in id order
+    static Sort withIdTiebreak(Sort sort) {
+        return sort.getOrderFor("id") != null ? sort : sort.and(Sort.by(Sort.Order.asc("id")));
+    }
+
+    /**
+     * Orders entities or shaped rows the way the shards' ORDER BY did.
+     */
+    static Comparator<Object> comparator(Sort sort) {
+        return InMemoryOrder.comparator(sort, (row, order) -> value(row, order.getProperty(), order.isIgnoreCase()));
+    }
+
+    private static Comparable<?> value(Object row, String property, boolean ignoreCase) {
+        Object value = row instanceof Map<?, ?> map ? map.get(property) : new BeanWrapperImpl(row).getPropertyValue(property);
+        if (ignoreCase && value instanceof String text) {
+            return lowerAscii(text);
+        }
+        return (Comparable<?>) value;
+    }
+
+    // SQLite's lower() folds A-Z only, so "É" stays after "z" as it does in the shards' ORDER BY
+    static String lowerAscii(String text) {
+        char[] chars = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (chars == null) {
+                    chars = text.toCharArray();
+                }
+                chars[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.movesapi.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.movesapi.config.PrimaryDataSourcePostProcessor;
+import org.example.movesapi.config.SchemaMigrator;
+import org.example.movesapi.service.CRUDService;
+import org.example.movesapi.service.ServiceAdvisingPostProcessor;
+import org.example.movesapi.service.WriteScheduler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sharded storage mode, enabled by {@code kmdb.sharding.shards}.
+ * <p>
+ * The configured database is shard 0; shards {@code 1..n-1} are SQLite files named by
+ * {@code kmdb.sharding.url-template} ({@code {shard}} is replaced by the number), each with
+ * its own pool and the full schema. Movies and their join rows are partitioned by id range
+ * (see {@link ShardRouter}); actors and genres are written to shard 0 and replicated
+ * to the others (see {@link ShardReplicator}). Each shard has its own writer, so writes
+ * to different shards run in parallel (see {@code WriteScheduler}).
+ * <p>
+ * Filmography, co-stars, recommendations, suggestions and statistics read shard 0 only, so they
+ * answer 501 in this mode (see {@link ServiceAdvisingPostProcessor#SQLITE_SERVICES}). The read-only
+ * pool would route around the shards and cannot be combined with it.
+ */
+@Configuration
+@ConditionalOnProperty("kmdb.sharding.shards")
+class ShardingConfig {
+
+    @Bean
+    static ShardingPostProcessor shardingPostProcessor(Environment environment) {
+        return new ShardingPostProcessor(environment);
+    }
+
+    @Bean
+    static ShardRoutingPostProcessor shardRoutingPostProcessor(ShardingPostProcessor sharding) {
+        return new ShardRoutingPostProcessor(new ShardRoutingInterceptor(sharding.router, sharding.gatherPool));
+    }
+
+    @Bean
+    static ServiceAdvisingPostProcessor unshardedServicesPostProcessor() {
+        return ServiceAdvisingPostProcessor.rejectingSqliteServices("with sharding");
+    }
+
+    @Bean
+    ShardRouter shardRouter(ShardingPostProcessor sharding) {
+        return sharding.router;
+    }
+
+    @Bean
+    ShardReplicator shardReplicator(ShardRouter router, WriteScheduler writes, JdbcTemplate jdbc,
+                                    @Value("${kmdb.sharding.replication-retry-seconds:10}") long retrySeconds) {
+        return new ShardReplicator(router, writes, jdbc, retrySeconds);
+    }
+
+    /**
+     * Opens and migrates shards {@code 1..n-1} and replaces the "dataSource" bean with a
+     * {@link ShardRoutingDataSource} over all shards.
+     */
+    static class ShardingPostProcessor extends PrimaryDataSourcePostProcessor implements DisposableBean {
+
+        private final Environment environment;
+        private final ShardRouter router;
+        private final ExecutorService gatherPool;
+        private final List<HikariDataSource> pools = new ArrayList<>();
+
+        ShardingPostProcessor(Environment environment) {
+            this.environment = environment;
+            if (environment.containsProperty("kmdb.datasource.read-only.url")) {
+                throw new IllegalStateException("kmdb.sharding.shards cannot be combined with kmdb.datasource.read-only.url");
+            }
+            int shards = environment.getRequiredProperty("kmdb.sharding.shards", Integer.class);
+            if (shards < 1) {
+                throw new IllegalArgumentException("kmdb.sharding.shards must be at least 1");
+            }
+            this.router = new ShardRouter(shards, environment.getProperty("kmdb.sharding.range-size", Long.class, 1_000_000_000L));
+            AtomicInteger threads = new AtomicInteger();
+            this.gatherPool = Executors.newFixedThreadPool(shards * 2, task -> {
+                Thread thread = new Thread(task, "shard-gather-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        @Override
+        protected DataSource replace(DataSource primary) {
+            router.attach(0, primary);
+            for (int shard = 1; shard < router.shardCount(); shard++) {
+                HikariDataSource pool = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(environment.getRequiredProperty("kmdb.sharding.url-template").replace("{shard}", String.valueOf(shard)))
+                        .driverClassName(environment.getProperty("spring.datasource.driver-class-name"))
+                        .build();
+                pool.setPoolName("sqlite-shard-" + shard);
+                pools.add(pool);
+                try {
+                    new SchemaMigrator(pool).migrate();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not migrate shard " + shard, e);
+                }
+                startSequence(pool, router.rangeStart(shard));
+                router.attach(shard, pool);
+            }
+            return new ShardRoutingDataSource(router.dataSources());
+        }
+
+        // Moves the shard's movie ids into its range; a no-op once ids have been handed out there
+        private static void startSequence(DataSource shard, long rangeStart) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            jdbc.update("INSERT INTO sqlite_sequence (name, seq) SELECT 'movie', ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'movie')", rangeStart);
+            jdbc.update("UPDATE sqlite_sequence SET seq = ? WHERE name = 'movie' AND seq < ?", rangeStart, rangeStart);
+        }
+
+        @Override
+        public void destroy() {
+            gatherPool.shutdownNow();
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+
+    /**
+     * Adds the {@link ShardRoutingInterceptor} to every {@link CRUDService} bean, in front of its transaction advice.
+     */
+    static class ShardRoutingPostProcessor extends ServiceAdvisingPostProcessor {
+
+        ShardRoutingPostProcessor(ShardRoutingInterceptor interceptor) {
+            super(interceptor);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package org.example.movesapi.warmup;
+
+import org.example.movesapi.cache.HotKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Warms the application up after startup, before it reports ready.
+ * <p>
+ * Right after a deploy the JIT still interprets the request path, Hibernate has no query plans
+ * cached and the database file is not in the OS page cache, so the first minutes of traffic
+ * have high tail latency. Once the context is up (after {@code DataLoader} and the in-memory
+ * indexes, which load on {@link ApplicationReadyEvent} too) this reads the SQLite file once and
+ * replays the GET requests listed in {@code kmdb.warmup.requests} against the running server,
+ * round after round on {@code kmdb.warmup.threads} threads, until {@code kmdb.warmup.max-requests}
+ * requests or {@code kmdb.warmup.max-duration-ms} have passed. The requests go through Tomcat,
+ * the filters, controllers, services and SQLite; they are authenticated by a random token made
+ * for this process (see {@link WarmUpAuthenticationFilter}), so no credentials are configured,
+ * and they bypass the response cache and pinned responses, so every round reaches the database.
+ * <p>
+ * Spring Boot switches the readiness state to {@code ACCEPTING_TRAFFIC} only after every
+ * {@link ApplicationReadyEvent} listener has returned, so {@code GET /ready} answers 503 until the
+ * warm-up is done. The replayed requests are then forgotten by {@link HotKeys}, so they do not
+ * count as hot. The {@link Report} compares the latency of the first (cold) round with the last
+ * one and is logged and served at {@code GET /admin/warmup}. A failing warm-up is logged and
+ * never stops the application.
+ */
+@Component
+public class WarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUp.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final boolean enabled;
+    private final Resource requests;
+    // Authenticates the replayed requests; never leaves the process
+    private final String token;
+    private final int threads;
+    private final int maxRequests;
+    private final long maxDurationMillis;
+    private final DataSource dataSource;
+    private final HotKeys hotKeys;
+
+    private volatile Report report;
+
+    public WarmUp(DataSource dataSource,
+                  HotKeys hotKeys,
+                  @Value("${kmdb.warmup.enabled:true}") boolean enabled,
+                  @Value("${kmdb.warmup.requests:classpath:warmup/requests.txt}") Resource requests,
+                  @Value("${kmdb.warmup.threads:4}") int threads,
+                  @Value("${kmdb.warmup.max-requests:2000}") int maxRequests,
+                  @Value("${kmdb.warmup.max-duration-ms:20000}") long maxDurationMillis) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("kmdb.warmup.threads must be at least 1");
+        }
+        this.dataSource = dataSource;
+        this.hotKeys = hotKeys;
+        this.enabled = enabled;
+        this.requests = requests;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.token = HexFormat.of().formatHex(secret);
+        this.threads = threads;
+        this.maxRequests = maxRequests;
+        this.maxDurationMillis = maxDurationMillis;
+        this.report = enabled ? Report.of(State.PENDING) : Report.of(State.DISABLED);
+    }
+
+    String token() {
+        return token;
+    }
+
+    /**
+     * The finished warm-up, or its state while it has not finished.
+     */
+    public Report report() {
+        return report;
+    }
+
+    // Last of the ready listeners, so the indexes are loaded before they are queried
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!enabled || !(event.getApplicationContext() instanceof WebServerApplicationContext context)) {
+            return;
+        }
+        report = Report.of(State.RUNNING);
+        try {
+            report = run("http://localhost:" + context.getWebServer().getPort(), readPaths());
+            // The replayed requests are not real traffic skew
+            hotKeys.clear();
+            log.info("Warm-up took {} ms: {} requests in {} rounds ({} errors), read {} bytes of the database; "
+                            + "first round {} ms, last round {} ms",
+                    report.durationMillis(), report.requests(), report.rounds(), report.errors(),
+                    report.pageCacheBytes(), report.firstRoundMillis(), report.lastRoundMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report = Report.of(State.FAILED);
+        } catch (Exception e) {
+            log.warn("Warm-up failed, starting cold: {}", e.toString());
+            report = Report.of(State.FAILED);
+        }
+    }
+
+    private List<String> readPaths() throws IOException {
+        List<String> paths = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(requests.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    paths.add(line);
+                }
+            }
+        }
+        return paths;
+    }
+
+    private Report run(String baseUrl, List<String> paths) throws Exception {
+        long started = System.nanoTime();
+        long deadline = started + Duration.ofMillis(maxDurationMillis).toNanos();
+        long pageCacheBytes = primePageCache();
+
+        List<Sample> firstRound = List.of();
+        List<Sample> lastRound = List.of();
+        int rounds = 0;
+        long sent = 0;
+        long errors = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build()) {
+            while (!paths.isEmpty()
+                    && (rounds == 0 || (sent + paths.size() <= maxRequests && System.nanoTime() < deadline))) {
+                List<Callable<Sample>> round = new ArrayList<>(paths.size());
+                for (String path : paths) {
+                    round.add(() -> send(client, baseUrl, path));
+                }
+                List<Sample> samples = new ArrayList<>(paths.size());
+                for (Future<Sample> future : pool.invokeAll(round)) {
+                    Sample sample = result(future);
+                    samples.add(sample);
+                    if (sample.status() < 0 || sample.status() >= 500) {
+                        errors++;
+                    }
+                }
+                if (rounds == 0) {
+                    firstRound = samples;
+                }
+                lastRound = samples;
+                rounds++;
+                sent += samples.size();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Route> routes = new ArrayList<>(paths.size());
+        for (int i = 0; i < firstRound.size(); i++) {
+            routes.add(new Route(paths.get(i), lastRound.get(i).status(), lastRound.get(i).cache(),
+                    millis(firstRound.get(i).nanos()), millis(lastRound.get(i).nanos())));
+        }
+        return new Report(State.DONE, millis(System.nanoTime() - started), pageCacheBytes, rounds, sent, errors,
+                millis(total(firstRound)), millis(total(lastRound)), routes);
+    }
+
+    private Sample send(HttpClient client, String baseUrl, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header(WarmUpAuthenticationFilter.HEADER, token)
+                .GET()
+                .build();
+        long started = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        long nanos = System.nanoTime() - started;
+        return new Sample(response.statusCode(), response.headers().firstValue("X-Cache").orElse(null), nanos);
+    }
+
+    // A request that could not be sent counts as an error, with status -1
+    private static Sample result(Future<Sample> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            log.debug("Warm-up request failed", e.getCause());
+            return new Sample(-1, null, 0);
+        }
+    }
+
+    /**
+     * Reads the database file once so its pages are in the OS page cache; SQLite's own page
+     * cache, per pooled connection, fills up from the replayed requests.
+     *
+     * @return the bytes read, 0 for in-memory databases
+     */
+    private long primePageCache() {
+        try (Connection connection = dataSource.getConnection()) {
+            Path file = databaseFile(connection.getMetaData().getURL());
+            if (file == null || !Files.isRegularFile(file)) {
+                return 0;
+            }
+            long bytes = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    bytes += read;
+                }
+            }
+            return bytes;
+        } catch (SQLException | IOException e) {
+            log.warn("Cannot read the database file for warm-up: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // jdbc:sqlite:path, jdbc:sqlite:file:path?options; null for anything else
+    static Path databaseFile(String url) {
+        String prefix = "jdbc:sqlite:";
+        if (url == null || !url.startsWith(prefix)) {
+            return null;
+        }
+        String path = url.substring(prefix.length());
+        if (path.startsWith("file:")) {
+            path = path.substring("file:".length());
+        }
+        int options = path.indexOf('?');
+        if (options >= 0) {
+            path = path.substring(0, options);
+        }
+        return path.isEmpty() || path.equals(":memory:") ? null : Path.of(path);
+    }
+
+    private static long total(List<Sample> samples) {
+        return samples.stream().mapToLong(Sample::nanos).sum();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000 / 1000.0;
+    }
+
+    private record Sample(int status, String cache, long nanos) {
+    }
+
+    public enum State {
+        DISABLED, PENDING, RUNNING, DONE, FAILED
+    }
+
+    /**
+     * Outcome of the warm-up; times in milliseconds. The round totals add up the latency of
+     * every request in the round, so the first and last round compare cold and warm.
+     */
+    public record Report(State state, double durationMillis, long pageCacheBytes, int rounds, long requests,
+                         long errors, double firstRoundMillis, double lastRoundMillis, List<Route> routes) {
+
+        static Report of(State state) {
+            return new Report(state, 0, 0, 0, 0, 0, 0, 0, List.of());
+        }
+    }
+
+    /**
+     * One replayed request: its last status, its {@code X-Cache} header ({@code BYPASS} on the
+     * cached and pinnable routes, absent elsewhere) and its latency in the first and the last round.
+     */
+    public record Route(String path, int status, String cache, double coldMillis, double warmMillis) {
+    }
+}
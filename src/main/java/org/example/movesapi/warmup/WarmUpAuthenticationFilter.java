@@ -0,0 +1,59 @@
+package org.example.movesapi.warmup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.movesapi.cache.ResponseCache;
+import org.example.movesapi.controller.LocalRequests;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Authenticates the requests replayed by {@link WarmUp}.
+ * <p>
+ * A request from the loopback interface that carries the warm-up's token in {@link #HEADER}
+ * runs as the internal {@code warm-up} principal, without credentials, and is marked with
+ * {@link ResponseCache#BYPASS_ATTRIBUTE} so it is answered by the controllers rather than by
+ * the response cache or the pinned responses. Any other request passes through untouched and
+ * is authenticated as usual. Added to the Spring Security chain by {@code SecurityConfig}.
+ */
+public class WarmUpAuthenticationFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "X-Warm-Up-Token";
+
+    private static final String PRINCIPAL = "warm-up";
+
+    private final WarmUp warmUp;
+
+    public WarmUpAuthenticationFilter(WarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (LocalRequests.isLoopback(request) && MessageDigest.isEqual(
+                request.getHeader(HEADER).getBytes(StandardCharsets.UTF_8),
+                warmUp.token().getBytes(StandardCharsets.UTF_8))) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    PRINCIPAL, null, AuthorityUtils.NO_AUTHORITIES));
+            SecurityContextHolder.setContext(context);
+            request.setAttribute(ResponseCache.BYPASS_ATTRIBUTE, Boolean.TRUE);
+        }
+        chain.doFilter(request, response);
+    }
+}
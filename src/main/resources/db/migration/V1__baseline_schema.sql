@@ -0,0 +1,32 @@
+-- Baseline schema matching the JPA mappings in org.example.movesapi.model.
+-- Uses IF NOT EXISTS so databases previously created by ddl-auto=update are adopted as-is.
+
+CREATE TABLE IF NOT EXISTS genre (
+    id   INTEGER PRIMARY KEY AUTOINCREMENT,
+    name VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS actor (
+    id         INTEGER PRIMARY KEY AUTOINCREMENT,
+    birth_date VARCHAR(255),
+    name       VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS movie (
+    id           INTEGER PRIMARY KEY AUTOINCREMENT,
+    duration     INTEGER NOT NULL,
+    name         VARCHAR(255),
+    release_year INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS movie_genres (
+    movie_id BIGINT NOT NULL,
+    genre_id BIGINT NOT NULL,
+    PRIMARY KEY (movie_id, genre_id)
+);
+
+CREATE TABLE IF NOT EXISTS movie_actors (
+    movie_id BIGINT NOT NULL,
+    actor_id BIGINT NOT NULL,
+    PRIMARY KEY (movie_id, actor_id)
+);
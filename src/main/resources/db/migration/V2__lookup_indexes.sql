@@ -0,0 +1,15 @@
+-- Exact-match lookups used by findByName / findByReleaseYear
+CREATE INDEX IF NOT EXISTS idx_movie_name ON movie (name);
+CREATE INDEX IF NOT EXISTS idx_actor_name ON actor (name);
+CREATE INDEX IF NOT EXISTS idx_genre_name ON genre (name);
+CREATE INDEX IF NOT EXISTS idx_movie_release_year ON movie (release_year);
+
+-- Case-insensitive name keys: the default sort is Sort.Order.asc("name").ignoreCase(),
+-- which Hibernate renders as ORDER BY lower(name)
+CREATE INDEX IF NOT EXISTS idx_movie_name_lower ON movie (lower(name));
+CREATE INDEX IF NOT EXISTS idx_actor_name_lower ON actor (lower(name));
+CREATE INDEX IF NOT EXISTS idx_genre_name_lower ON genre (lower(name));
+
+-- Reverse direction of the join tables (the primary keys only cover movie_id first)
+CREATE INDEX IF NOT EXISTS idx_movie_actors_actor ON movie_actors (actor_id, movie_id);
+CREATE INDEX IF NOT EXISTS idx_movie_genres_genre ON movie_genres (genre_id, movie_id);
@@ -0,0 +1,9 @@
+-- actor.birth_date moves from ISO-8601 text ('1964-09-02') to an INTEGER day count since 1970-01-01
+-- (LocalDate.toEpochDay), so loads need no parsing and birth-date ranges are plain index range scans.
+-- julianday('1970-01-01') = 2440587.5; dates without a time part convert to whole days.
+ALTER TABLE actor ADD COLUMN birth_day INTEGER;
+UPDATE actor SET birth_day = CAST(julianday(birth_date) - 2440587.5 AS INTEGER) WHERE birth_date IS NOT NULL;
+ALTER TABLE actor DROP COLUMN birth_date;
+ALTER TABLE actor RENAME COLUMN birth_day TO birth_date;
+
+CREATE INDEX IF NOT EXISTS idx_actor_birth_date ON actor (birth_date);
@@ -2,28 +2,58 @@ package org.example.movesapi;
 
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import net.minidev.json.JSONArray;
+import org.example.movesapi.exceptions.NotFoundException;
 import org.example.movesapi.model.Actor;
 import org.example.movesapi.model.Genre;
 import org.example.movesapi.model.Movie;
+import org.example.movesapi.service.GenreService;
+import org.example.movesapi.service.WriteScheduler;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
-
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import javax.sql.DataSource;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * 📦 Integration Test Suite for the Movies API
@@ -41,6 +71,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  *     <li>🔐 Authenticated via {@code admin/admin} in every request</li>
  *     <li>🔍 Uses {@link JsonPath} to parse and validate JSON responses</li>
  *     <li>♻️ Uses {@code @DirtiesContext} for isolated stateful tests</li>
+ *     <li>📏 Holds hot endpoints to statement and allocation budgets via {@link StatementBudgetExtension}</li>
  * </ul>
  *
  * Note: This class ensures that your API behaves as expected from an external consumer’s perspective.
@@ -54,14 +85,89 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
 @TestPropertySource("classpath:application-test.properties")
 class MovesApiApplicationTests {
 
+    private static final String ADMIN_AUTH = "Basic YWRtaW46YWRtaW4=";
 
+    @RegisterExtension
+    final StatementBudgetExtension budget = new StatementBudgetExtension();
 
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private WriteScheduler writeScheduler;
+
+    /**
+     * Counts the statements executed on the application data source for {@link StatementBudgetExtension}.
+     */
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? StatementBudgetExtension.counting(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Lets a test make the next commits fail with {@code SQLITE_BUSY} after the transaction ran,
+     * the way a reader holding the file fails a commit in rollback-journal mode.
+     */
+    @TestConfiguration
+    static class BusyCommits {
+
+        static final AtomicInteger remaining = new AtomicInteger();
+
+        @Bean
+        static BeanPostProcessor busyCommitTransactionManager() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof PlatformTransactionManager delegate)) {
+                        return bean;
+                    }
+                    return new PlatformTransactionManager() {
+                        @Override
+                        public TransactionStatus getTransaction(TransactionDefinition definition) {
+                            return delegate.getTransaction(definition);
+                        }
+
+                        @Override
+                        public void commit(TransactionStatus status) {
+                            if (status.isNewTransaction() && remaining.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                                delegate.rollback(status);
+                                throw new CannotAcquireLockException("database is locked",
+                                        new SQLiteException("[SQLITE_BUSY] database is locked", SQLiteErrorCode.SQLITE_BUSY));
+                            }
+                            delegate.commit(status);
+                        }
+
+                        @Override
+                        public void rollback(TransactionStatus status) {
+                            delegate.rollback(status);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
     @Test
     void shouldReturnMovies() {
         ResponseEntity<String> response = restTemplate
@@ -267,6 +373,26 @@ class MovesApiApplicationTests {
         assertThat(page.size()).isEqualTo(3);
     }
 
+    @Test
+    void shouldReportHasNextWithoutTotalByDefault() {
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/actors?page=0&size=3", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("X-Has-Next")).isEqualTo("true");
+        assertThat(response.getHeaders().containsKey("X-Total-Count")).isFalse();
+    }
+
+    @Test
+    void shouldReturnExactTotalWhenRequested() {
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies?filter=releaseYear:1999&size=1&count=exact", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("X-Total-Count")).isEqualTo("2");
+        assertThat(response.getHeaders().getFirst("X-Has-Next")).isEqualTo("true");
+    }
+
     @Test
     void shouldReturn404WhenGetNonexistentActor() {
         ResponseEntity<String> response = restTemplate
@@ -340,6 +466,74 @@ class MovesApiApplicationTests {
     }
 
 
+    @Test
+    void shouldSuggestMoviesByCaseInsensitivePrefix() {
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/suggest?prefix=the d", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        List<String> names = JsonPath.parse(response.getBody()).read("$[*].name");
+        assertThat(names).containsExactly("The Dark Knight");
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldMoveRenamedMovieInSuggestions() {
+        // Given — The Dark Knight (id 7) is renamed
+        ResponseEntity<Void> patched = restTemplate
+                .withBasicAuth("admin", "admin")
+                .exchange("/movies/7", HttpMethod.PATCH, new HttpEntity<>(Map.of("name", "Batman Begins Again")), Void.class);
+        assertThat(patched.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // When
+        ResponseEntity<String> oldName = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/suggest?prefix=the d", String.class);
+        ResponseEntity<String> newName = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/suggest?prefix=batman begins a", String.class);
+
+        // Then — only the new name is suggested
+        List<String> oldNames = JsonPath.parse(oldName.getBody()).read("$[*].name");
+        assertThat(oldNames).isEmpty();
+        List<Integer> ids = JsonPath.parse(newName.getBody()).read("$[*].id");
+        assertThat(ids).containsExactly(7);
+    }
+
+    @Test
+    void shouldReturnCatalogStats() {
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/stats", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext ctx = JsonPath.parse(response.getBody());
+        List<Integer> moviesIn1999 = ctx.read("$.moviesPerYear[?(@.year == 1999)].movies");
+        assertThat(moviesIn1999).containsExactly(2);
+        List<String> genres = ctx.read("$.genreCooccurrence.genres");
+        List<List<Integer>> counts = ctx.read("$.genreCooccurrence.counts");
+        assertThat(counts).hasSize(genres.size());
+    }
+
+    @Test
+    void shouldAttributeSqlTimingsToRouteAndServiceMethod() {
+        restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/1", String.class);
+
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/admin/sql?limit=500", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext ctx = JsonPath.parse(response.getBody());
+        List<Integer> counts = ctx.read(
+                "$[?(@.route == 'GET /movies/{id}' && @.serviceMethod == 'MovieService.getById')].count");
+        assertThat(counts).isNotEmpty();
+        assertThat(counts.get(0)).isPositive();
+    }
+
     @Test
     void shouldFindMovieUsingSearch() {
         ResponseEntity<String> response = restTemplate
@@ -460,6 +654,78 @@ class MovesApiApplicationTests {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
 
+    @Test
+    @DirtiesContext
+    void shouldRankCoStarsAndFindDegreesOfSeparation() {
+        long a = createActor("Graph Actor A");
+        long b = createActor("Graph Actor B");
+        long c = createActor("Graph Actor C");
+        createMovie("Graph Movie 1", a, b);
+        createMovie("Graph Movie 2", b, c);
+
+        ResponseEntity<String> coStars = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/actors/" + b + "/costars", String.class);
+        assertThat(coStars.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<String> names = JsonPath.parse(coStars.getBody()).read("$[*].name");
+        assertThat(names).containsExactlyInAnyOrder("Graph Actor A", "Graph Actor C");
+
+        ResponseEntity<String> path = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/actors/" + a + "/path/" + c, String.class);
+        assertThat(path.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext ctx = JsonPath.parse(path.getBody());
+        Integer degrees = ctx.read("$.degrees");
+        assertThat(degrees).isEqualTo(2);
+        List<String> movies = ctx.read("$.path[1:].viaMovieName");
+        assertThat(movies).containsExactly("Graph Movie 1", "Graph Movie 2");
+    }
+
+    private long createActor(String name) {
+        ResponseEntity<Void> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .postForEntity("/actors", Map.of("name", name, "birthDate", "1980-01-01"), Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        String location = response.getHeaders().getLocation().toString();
+        return Long.parseLong(location.substring(location.lastIndexOf("/") + 1));
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldRecommendMovieWithSameCast() {
+        long actor = createActor("Similarity Actor");
+        long original = createMovie("Similarity Original", actor);
+        long remake = createMovie("Similarity Remake", actor);
+
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/" + original + "/similar", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext ctx = JsonPath.parse(response.getBody());
+        Integer first = ctx.read("$[0].id");
+        Double similarity = ctx.read("$[0].similarity");
+        assertThat(first.longValue()).isEqualTo(remake);
+        assertThat(similarity).isEqualTo(1.0);
+    }
+
+    private long createMovie(String name, long... actorIds) {
+        List<Map<String, Object>> actors = Arrays.stream(actorIds)
+                .mapToObj(id -> Map.<String, Object>of("id", id))
+                .toList();
+        Map<String, Object> movie = Map.of(
+                "name", name,
+                "releaseYear", 2001,
+                "duration", 100,
+                "actors", actors);
+        ResponseEntity<Void> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .postForEntity("/movies", movie, Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        String location = response.getHeaders().getLocation().toString();
+        return Long.parseLong(location.substring(location.lastIndexOf("/") + 1));
+    }
+
 
 // Genres
 
@@ -479,6 +745,30 @@ class MovesApiApplicationTests {
                 .isNotEmpty();
     }
 
+    @Test
+    @DirtiesContext
+    void shouldServeRepeatedListFromCacheUntilWrite() {
+        ResponseEntity<String> first = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/genres?size=100", String.class);
+        ResponseEntity<String> second = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/genres?page=0&size=100", String.class);
+        assertThat(second.getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+
+        ResponseEntity<Void> created = restTemplate
+                .withBasicAuth("admin", "admin")
+                .postForEntity("/genres", Map.of("name", "CacheProbe"), Void.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<String> afterWrite = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/genres?size=100", String.class);
+        assertThat(afterWrite.getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(afterWrite.getBody()).contains("CacheProbe");
+    }
+
     @Test
     void shouldReturnGenreByIdWith200andCorrectGenre() {
         ResponseEntity<String> response = restTemplate
@@ -603,6 +893,368 @@ class MovesApiApplicationTests {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
 
+    @Test
+    @DirtiesContext
+    void shouldReportScheduledWritesInMetrics() {
+        HttpEntity<Map<String, Object>> patch = new HttpEntity<>(Map.of("duration", 130));
+        ResponseEntity<Void> patchResponse = restTemplate
+                .withBasicAuth("admin", "admin")
+                .exchange("/movies/2", HttpMethod.PATCH, patch, Void.class);
+        assertThat(patchResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/admin/writes", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext ctx = JsonPath.parse(response.getBody());
+        Number writes = ctx.read("$.writes");
+        Number timeouts = ctx.read("$.timeouts");
+        assertThat(writes.longValue()).isPositive();
+        assertThat(timeouts.longValue()).isZero();
+    }
+
+    @Test
+    void shouldListMoviesWithinStatementBudget() throws Throwable {
+        // One query for the page, one batch each for genres and actors
+        budget.assertWithinBudget("GET /movies", 3, 4 * 1024 * 1024, () -> mockMvc
+                .perform(get("/movies?size=5").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS")));
+    }
+
+    @Test
+    void shouldFilterMoviesByGenreWithinStatementBudget() throws Throwable {
+        // Genre lookup, the filtered page, then the genre and actor batches
+        budget.assertWithinBudget("GET /movies?filter=genre", 4, 4 * 1024 * 1024, () -> mockMvc
+                .perform(get("/movies?filter=genre:Action&size=7").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS")));
+    }
+
+    @Test
+    void shouldBreakDownFilteredListInServerTimingHeader() {
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies?filter=genre:Action&size=3", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String timing = response.getHeaders().getFirst("Server-Timing");
+        assertThat(timing).isNotNull();
+        assertThat(timing.split(", "))
+                .extracting(metric -> metric.substring(0, metric.indexOf(';')))
+                .containsExactly("auth", "resolve", "db", "assoc", "serialize", "total");
+    }
+
+    @Test
+    void shouldNotSendServerTimingToRemoteCallers() throws Exception {
+        mockMvc.perform(get("/movies/1").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH)
+                        .with(request -> {
+                            request.setRemoteAddr("203.0.113.7");
+                            return request;
+                        }))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Server-Timing"));
+    }
+
+    @Test
+    void shouldRecordFlightRecorderEventsForCrudOperationsAndQueries() throws Exception {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("kmdb.CrudOperation");
+            recording.enable("kmdb.RepositoryQuery");
+            recording.start();
+            ResponseEntity<String> response = restTemplate
+                    .withBasicAuth("admin", "admin")
+                    .getForEntity("/movies/1", String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            recording.stop();
+            Path file = Files.createTempFile("kmdb", ".jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+        }
+
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("kmdb.CrudOperation");
+            assertThat(event.getString("entityType")).isEqualTo("Movie");
+            assertThat(event.getString("operation")).isEqualTo("findById");
+            assertThat(event.getLong("id")).isEqualTo(1);
+            assertThat(event.getInt("rows")).isEqualTo(1);
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("kmdb.RepositoryQuery");
+            assertThat(event.getString("repository")).isEqualTo("MovieRepository");
+            assertThat(event.getString("method")).isEqualTo("findById");
+        });
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldPatchMovieWithinStatementBudget() throws Throwable {
+        // Load and update the movie, then the after-commit refreshes of the indexes: its name for
+        // suggestions, its year, duration, genres and cast for stats and for similar movies, and
+        // its cast for co-stars
+        budget.assertWithinBudget("PATCH /movies/{id}", 10, 4 * 1024 * 1024, () -> mockMvc
+                .perform(patch("/movies/1").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"duration\": 150}"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void shouldGetManyMoviesByIdInRequestOrder() throws Throwable {
+        // One IN query for the movies, one batch each for genres and actors
+        budget.assertWithinBudget("GET /movies?ids", 3, 4 * 1024 * 1024, () -> {
+            String body = mockMvc
+                    .perform(get("/movies?ids=3,99,1").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Missing-Ids", "99"))
+                    .andReturn().getResponse().getContentAsString();
+
+            DocumentContext ctx = JsonPath.parse(body);
+            List<Integer> ids = ctx.read("$[*].id");
+            assertThat(ids).containsExactly(3, 1);
+            List<String> genres = ctx.read("$[0].genres[*].name");
+            assertThat(genres).containsExactly("Sci-Fi");
+        });
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedFieldsAndExpansions() {
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/1?fields=name&expand=genres", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Map<String, Object> movie = JsonPath.parse(response.getBody()).read("$");
+        assertThat(movie).containsOnlyKeys("id", "name", "genres");
+        List<String> genres = JsonPath.parse(response.getBody()).read("$.genres[*].name");
+        assertThat(genres).containsExactly("Action");
+
+        ResponseEntity<String> unknown = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/1?fields=budget", String.class);
+        assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldListSparseFieldsWithSingleStatement() throws Throwable {
+        budget.assertWithinBudget("GET /movies?fields", 1, 4 * 1024 * 1024, () -> {
+            String body = mockMvc
+                    .perform(get("/movies?fields=name,releaseYear&size=4").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            List<Map<String, Object>> movies = JsonPath.parse(body).read("$");
+            assertThat(movies).hasSize(4);
+            assertThat(movies.get(0)).containsOnlyKeys("id", "name", "releaseYear");
+        });
+    }
+
+    @Test
+    void shouldListSparseFieldsOfFilteredMovies() throws Throwable {
+        // The genre name lookup, then one page query selecting id and name with the filter as a subquery
+        budget.assertWithinBudget("GET /movies?filter&fields", 2, 4 * 1024 * 1024, () -> {
+            String body = mockMvc
+                    .perform(get("/movies?filter=genre:Sci-Fi&fields=name").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            List<Map<String, Object>> movies = JsonPath.parse(body).read("$");
+            assertThat(movies).extracting(movie -> movie.get("id")).containsExactlyInAnyOrder(2, 3);
+            assertThat(movies).allSatisfy(movie -> assertThat(movie).containsOnlyKeys("id", "name"));
+        });
+    }
+
+    @Test
+    void shouldNormalizeReferencedEntitiesOncePerPage() throws Throwable {
+        // One page query, one query each for genres and actors
+        budget.assertWithinBudget("GET /movies?normalize", 3, 4 * 1024 * 1024, () -> {
+            String body = mockMvc
+                    .perform(get("/movies?normalize=true&size=10").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Has-Next", "false"))
+                    .andReturn().getResponse().getContentAsString();
+
+            DocumentContext ctx = JsonPath.parse(body);
+            List<Integer> genreRefs = ctx.read("$.data[*].genres[*]");
+            assertThat(genreRefs).hasSize(10);
+            Map<String, Object> genres = ctx.read("$.included.genres");
+            assertThat(genres).hasSize(6);
+            Map<String, Object> actors = ctx.read("$.included.actors");
+            assertThat(actors).hasSize(9);
+            List<List<Integer>> matrixActors = ctx.read("$.data[?(@.name == 'The Matrix')].actors");
+            assertThat(matrixActors).containsExactly(List.of(1, 2));
+            assertThat(ctx.<String>read("$.included.actors['1'].name")).isEqualTo("Keanu Reeves");
+        });
+    }
+
+    @Test
+    void shouldPageFilmographyWithKeysetCursor() throws Throwable {
+        // Existence check, join-table page, one batch each for genres and actors
+        budget.assertWithinBudget("GET /actors/{id}/movies", 4, 4 * 1024 * 1024, () -> {
+            String body = mockMvc
+                    .perform(get("/actors/1/movies?size=1").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Has-Next", "true"))
+                    .andExpect(header().string("X-Next-After", "1"))
+                    .andReturn().getResponse().getContentAsString();
+            List<String> names = JsonPath.parse(body).read("$[*].name");
+            assertThat(names).containsExactly("The Matrix");
+        });
+
+        String next = mockMvc
+                .perform(get("/actors/1/movies?size=1&after=1").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-Next", "false"))
+                .andExpect(header().doesNotExist("X-Next-After"))
+                .andReturn().getResponse().getContentAsString();
+        List<String> nextNames = JsonPath.parse(next).read("$[*].name");
+        assertThat(nextNames).containsExactly("John Wick");
+
+        String genreMovies = mockMvc
+                .perform(get("/genres/1/movies").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Integer> genreMovieIds = JsonPath.parse(genreMovies).read("$[*].id");
+        assertThat(genreMovieIds).containsExactly(1, 4, 7);
+
+        String cast = mockMvc
+                .perform(get("/movies/1/actors").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> castNames = JsonPath.parse(cast).read("$[*].name");
+        assertThat(castNames).containsExactly("Keanu Reeves", "Carrie-Anne Moss");
+
+        mockMvc.perform(get("/genres/99/movies").header(HttpHeaders.AUTHORIZATION, ADMIN_AUTH))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldFilterActorsByBirthDateRange() {
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/actors?filter=birthDate:1963..1964&sort=birthDate", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext ctx = JsonPath.parse(response.getBody());
+        List<String> names = ctx.read("$[*].name");
+        assertThat(names).containsExactly("Brad Pitt", "Russell Crowe", "Keanu Reeves");
+        List<String> birthDates = ctx.read("$[*].birthDate");
+        assertThat(birthDates).containsExactly("1963-12-18", "1964-04-07", "1964-09-02");
+
+        ResponseEntity<String> byDate = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/actors?filter=birthDate:1974-01-01..1974-06-30", String.class);
+        List<String> byDateNames = JsonPath.parse(byDate.getBody()).read("$[*].name");
+        assertThat(byDateNames).containsExactly("Christian Bale");
+
+        int pacinoAge = Period.between(LocalDate.of(1940, 4, 25), LocalDate.now()).getYears();
+        ResponseEntity<String> byAge = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/actors?filter=age:" + pacinoAge + "..", String.class);
+        List<String> byAgeNames = JsonPath.parse(byAge.getBody()).read("$[*].name");
+        assertThat(byAgeNames).containsExactly("Al Pacino");
+
+        ResponseEntity<String> malformed = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/actors?filter=birthDate:1985..1970", String.class);
+        assertThat(malformed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldAnswerMissesWithPrebuiltBodyAndCountStatuses() {
+        ResponseEntity<String> missing = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/movies/404040", String.class);
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(missing.getBody()).isEqualTo("Not Found");
+
+        ResponseEntity<String> unknownRoute = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/wp-login.php", String.class);
+        assertThat(unknownRoute.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(unknownRoute.getBody()).isEqualTo("Not Found");
+
+        assertThat(new NotFoundException("Movie not found").getStackTrace()).isEmpty();
+
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/admin/status", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Number notFound = JsonPath.parse(response.getBody()).read("$['404']");
+        assertThat(notFound.longValue()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldWarmUpBeforeReportingReady() {
+        ResponseEntity<String> ready = restTemplate.getForEntity("/ready", String.class);
+        assertThat(ready.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ready.getBody()).isEqualTo("\"ACCEPTING_TRAFFIC\"");
+
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/admin/warmup", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext ctx = JsonPath.parse(response.getBody());
+        assertThat((String) ctx.read("$.state")).isEqualTo("DONE");
+        assertThat((Integer) ctx.read("$.rounds")).isEqualTo(1);
+        assertThat((Integer) ctx.read("$.errors")).isZero();
+        List<String> paths = ctx.read("$.routes[*].path");
+        assertThat(paths).contains("/movies", "/movies/1", "/stats");
+        List<Integer> statuses = ctx.read("$.routes[?(@.path == '/movies')].status");
+        assertThat(statuses).containsExactly(200);
+        // Replayed past the response cache and the pinned responses, so every round hit the database
+        List<String> cache = ctx.read("$.routes[?(@.path == '/movies' || @.path == '/movies/1')].cache");
+        assertThat(cache).containsOnly("BYPASS");
+    }
+
+    @Test
+    void shouldRejectRequestsWithAWrongWarmUpToken() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Warm-Up-Token", "0".repeat(64));
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/movies", HttpMethod.GET, new HttpEntity<>(headers), String.class);
 
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void shouldReportHotKeys() {
+        for (int i = 0; i < 12; i++) {
+            restTemplate
+                    .withBasicAuth("admin", "admin")
+                    .getForEntity("/movies/4", String.class);
+        }
 
+        ResponseEntity<String> response = restTemplate
+                .withBasicAuth("admin", "admin")
+                .getForEntity("/admin/hot-keys", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext ctx = JsonPath.parse(response.getBody());
+        List<Number> calls = ctx.read("$.sketch.hotKeys[?(@.key == '/movies/4')].calls");
+        assertThat(calls).singleElement().satisfies(count -> assertThat(count.longValue()).isGreaterThanOrEqualTo(12));
+        assertThat((Integer) ctx.read("$.pinned.entries")).isZero();
+    }
+
+    @Test
+    void shouldRetryCreateWhoseCommitHitSqliteBusy() {
+        long retries = writeScheduler.metrics().retries();
+        BusyCommits.remaining.set(1);
+
+        // The first insert ran and was rolled back, leaving its generated id on the entity
+        Genre created = genreService.create(Genre.builder().name("Retried After Busy").build());
+
+        assertThat(BusyCommits.remaining).hasValue(0);
+        assertThat(writeScheduler.metrics().retries()).isEqualTo(retries + 1);
+        assertThat(genreService.findById(created.getId()))
+                .get()
+                .extracting(Genre::getName)
+                .isEqualTo("Retried After Busy");
+        genreService.delete(created.getId(), false);
+    }
 }
@@ -0,0 +1,163 @@
+package org.example.movesapi;
+
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.example.movesapi.repository.ActorRepository;
+import org.example.movesapi.repository.GenreRepository;
+import org.example.movesapi.repository.MovieRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query once, captures the SQL that Hibernate sends to SQLite
+ * and checks its {@code EXPLAIN QUERY PLAN}.
+ * <p>
+ * A plan step like {@code SCAN movie} (a table walk without any index) fails the test.
+ * Index scans ({@code SCAN m1_0 USING INDEX ...}) are allowed, since that is how
+ * ordered pages are read via the case-insensitive name keys.
+ */
+@SpringBootTest
+@TestPropertySource(
+        locations = "classpath:application-test.properties",
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "org.example.movesapi.QueryPlanTests$RecordingStatementInspector")
+class QueryPlanTests {
+
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?(?!\\()\\S+( AS \\S+)?$");
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by(Sort.Order.asc("name").ignoreCase()));
+
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private ActorRepository actorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void reset() {
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void movieQueriesUseIndexes() throws Exception {
+        Genre action = genreRepository.findById(1L).orElseThrow();
+        Actor keanu = actorRepository.findById(1L).orElseThrow();
+
+        movieRepository.findAll(PAGE);
+        movieRepository.findById(1L);
+        movieRepository.findByName("The Matrix");
+        movieRepository.findAllBy(PAGE);
+        movieRepository.findByReleaseYear(1999, PAGE);
+        movieRepository.countByReleaseYear(1999);
+        movieRepository.findByGenres(Set.of(action), 1, PAGE);
+        movieRepository.countByGenres(Set.of(action), 1);
+        movieRepository.findByActors(Set.of(keanu), 1, PAGE);
+        movieRepository.countByActors(Set.of(keanu), 1);
+        movieRepository.findByActorAfter(1L, 0, 10);
+        movieRepository.findByGenreAfter(1L, 0, 10);
+        movieRepository.isDependencyExist(1L);
+        movieRepository.getDependencyCount(1L);
+
+        assertNoFullScans();
+    }
+
+    @Test
+    void actorQueriesUseIndexes() throws Exception {
+        Movie matrix = movieRepository.findById(1L).orElseThrow();
+
+        actorRepository.findAll(PAGE);
+        actorRepository.findByName("Keanu Reeves");
+        actorRepository.findAllBy(PAGE);
+        actorRepository.findByMovies(Set.of(matrix), PAGE);
+        actorRepository.countByMovies(Set.of(matrix));
+        actorRepository.findByMovieAfter(1L, 0, 10);
+        actorRepository.findByBirthDateBetween(LocalDate.of(1960, 1, 1), LocalDate.of(1969, 12, 31), PAGE);
+        actorRepository.countByBirthDateBetween(LocalDate.of(1960, 1, 1), LocalDate.of(1969, 12, 31));
+        actorRepository.isDependencyExists(1L);
+        actorRepository.getDependencyCount(1L);
+
+        assertNoFullScans();
+    }
+
+    @Test
+    void genreQueriesUseIndexes() throws Exception {
+        genreRepository.findAll(PAGE);
+        genreRepository.findAllBy(PAGE);
+        genreRepository.findByName("Action");
+        genreRepository.isDependencyExists(1L);
+        genreRepository.getDependencyCount(1L);
+
+        assertNoFullScans();
+    }
+
+    private void assertNoFullScans() throws Exception {
+        List<String> statements = List.copyOf(RecordingStatementInspector.STATEMENTS);
+        assertThat(statements).isNotEmpty();
+
+        List<String> violations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : statements) {
+                for (String step : explain(connection, sql)) {
+                    if (FULL_SCAN.matcher(step).matches()) {
+                        violations.add(step + "  <-  " + sql);
+                    }
+                }
+            }
+        }
+        assertThat(violations)
+                .withFailMessage("Full table scans found:%n%s", String.join(System.lineSeparator(), violations))
+                .isEmpty();
+    }
+
+    private List<String> explain(Connection connection, String sql) throws Exception {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            // The plan does not depend on parameter values, but every placeholder must be bound
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setLong(i, 1L);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    steps.add(rs.getString("detail"));
+                }
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Collects every SQL statement Hibernate prepares while the test runs.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.movesapi;
+
+import com.jayway.jsonpath.JsonPath;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the API over two shards: the test database as shard 0 and an empty in-memory shard 1
+ * that owns the ids above {@code kmdb.sharding.range-size}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+        locations = "classpath:application-test.properties",
+        properties = {
+                "spring.datasource.url=jdbc:sqlite:file:shardtest0?mode=memory&cache=shared",
+                "kmdb.sharding.shards=2",
+                "kmdb.sharding.url-template=jdbc:sqlite:file:shardtest{shard}?mode=memory&cache=shared",
+                "kmdb.sharding.range-size=1000000"})
+class ShardingTests {
+
+    private static final long RANGE_SIZE = 1_000_000;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void shouldSpreadMoviesOverShardsAndMergeListings() {
+        // Given — два новых фильма уходят в разные шарды по очереди
+        List<Long> ids = new ArrayList<>();
+        for (String name : List.of("sharded movie a", "Sharded Movie B")) {
+            Movie movie = new Movie();
+            movie.setName(name);
+            movie.setReleaseYear(2024);
+            Genre genre = new Genre();
+            genre.setId(1L);
+            movie.setGenres(Set.of(genre));
+            ResponseEntity<Void> created = restTemplate.withBasicAuth("admin", "admin")
+                    .postForEntity("/movies", movie, Void.class);
+            assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            URI location = created.getHeaders().getLocation();
+            assertThat(location).isNotNull();
+            String path = location.getPath();
+            ids.add(Long.parseLong(path.substring(path.lastIndexOf('/') + 1)));
+        }
+        Long remote = ids.stream().filter(id -> id > RANGE_SIZE).findFirst().orElseThrow();
+
+        // Then — фильм из шарда 1 читается по id вместе с реплицированным жанром
+        ResponseEntity<String> byId = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/movies/" + remote, String.class);
+        assertThat(byId.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(JsonPath.<List<Integer>>read(byId.getBody(), "$.genres[*].id")).containsExactly(1);
+
+        // And — общий список собран из обоих шардов в порядке сортировки по имени
+        ResponseEntity<String> all = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/movies?size=100&count=exact", String.class);
+        assertThat(all.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<String> names = JsonPath.read(all.getBody(), "$[*].name");
+        assertThat(names).contains("sharded movie a", "Sharded Movie B");
+        assertThat(names).isSortedAccordingTo(Comparator.comparing(name -> name.toLowerCase(Locale.ROOT)));
+        assertThat(all.getHeaders().getFirst("X-Total-Count")).isEqualTo(String.valueOf(names.size()));
+
+        // And — страница из середины совпадает с тем же отрезком полного списка
+        ResponseEntity<String> page = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/movies?size=3&page=1", String.class);
+        assertThat(JsonPath.<List<String>>read(page.getBody(), "$[*].name"))
+                .isEqualTo(names.subList(3, Math.min(6, names.size())));
+
+        // And — слишком глубокая страница отклоняется, а не читает тысячи строк из каждого шарда
+        ResponseEntity<String> deep = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/movies?size=100&page=10", String.class);
+        assertThat(deep.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        // And — мульти-get сохраняет порядок запроса через шарды
+        ResponseEntity<String> multi = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/movies?ids=" + remote + ",1," + (remote + 1), String.class);
+        assertThat(multi.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(JsonPath.<List<Integer>>read(multi.getBody(), "$[*].id").stream().map(Integer::longValue).toList())
+                .containsExactly(remote, 1L);
+
+        // And — сортировка по полю, не указанному в fields, сливается по его значениям, но само поле не возвращается
+        ResponseEntity<String> withYear = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/movies?fields=name,releaseYear&sort=releaseYear,desc&size=100", String.class);
+        ResponseEntity<String> withoutYear = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/movies?fields=name&sort=releaseYear,desc&size=100", String.class);
+        assertThat(withoutYear.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(JsonPath.<List<String>>read(withoutYear.getBody(), "$[*].name"))
+                .isEqualTo(JsonPath.<List<String>>read(withYear.getBody(), "$[*].name"));
+        assertThat(JsonPath.<List<Object>>read(withoutYear.getBody(), "$[*].releaseYear")).isEmpty();
+
+        // And — статистика видела бы только шард 0, поэтому отклоняется
+        ResponseEntity<String> stats = restTemplate.withBasicAuth("admin", "admin")
+                .getForEntity("/stats", String.class);
+        assertThat(stats.getStatusCode()).isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.movesapi;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Holds single requests to a budget of JDBC statements and allocated bytes.
+ * <p>
+ * The application {@link DataSource} is wrapped by {@link #counting}, so every statement
+ * executed through JDBC is seen: Hibernate's, and the {@code JdbcTemplate} queries of the
+ * in-memory indexes that refresh after a write commits. While {@link #measure} runs, statements
+ * executed on the calling thread are collected. MockMvc serves the request on the test thread,
+ * so a measurement covers the whole request, including lazy loading during JSON serialization
+ * and the after-commit listeners. Allocations are read from the JVM's per-thread allocation counter.
+ */
+class StatementBudgetExtension implements AfterEachCallback {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Wraps a data source so the statements executed through it are counted while {@link #measure} runs.
+     */
+    static DataSource counting(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return counting(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return counting(super.getConnection(username, password));
+            }
+        };
+    }
+
+    /**
+     * Runs the request and returns the statements it executed and the bytes it allocated.
+     */
+    Usage measure(Executable request) throws Throwable {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        try {
+            request.execute();
+        } finally {
+            CAPTURED.remove();
+        }
+        return new Usage(List.copyOf(statements), THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore);
+    }
+
+    /**
+     * Fails with the offending SQL listed if the request runs more than {@code maxStatements}
+     * statements or allocates more than {@code maxAllocatedBytes}.
+     */
+    void assertWithinBudget(String endpoint, int maxStatements, long maxAllocatedBytes, Executable request)
+            throws Throwable {
+        Usage usage = measure(request);
+        if (usage.statements().size() > maxStatements || usage.allocatedBytes() > maxAllocatedBytes) {
+            StringBuilder message = new StringBuilder()
+                    .append(endpoint).append(" exceeded its budget: ")
+                    .append(usage.statements().size()).append(" statements (budget ").append(maxStatements).append("), ")
+                    .append(usage.allocatedBytes()).append(" bytes allocated (budget ").append(maxAllocatedBytes).append(")");
+            for (int i = 0; i < usage.statements().size(); i++) {
+                message.append("\n  ").append(i + 1).append(". ").append(usage.statements().get(i).replaceAll("\\s+", " "));
+            }
+            fail(message.toString());
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        CAPTURED.remove();
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementBudgetExtension.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "createStatement" -> counting((Statement) result, Statement.class, null);
+                        case "prepareStatement" -> counting((Statement) result, PreparedStatement.class, (String) args[0]);
+                        case "prepareCall" -> counting((Statement) result, CallableStatement.class, (String) args[0]);
+                        default -> result;
+                    };
+                });
+    }
+
+    // preparedSql is null for plain statements, which pass their SQL to execute(...)
+    private static Statement counting(Statement statement, Class<? extends Statement> type, String preparedSql) {
+        return (Statement) Proxy.newProxyInstance(StatementBudgetExtension.class.getClassLoader(),
+                new Class<?>[]{type}, (proxy, method, args) -> {
+                    List<String> statements = CAPTURED.get();
+                    if (statements != null && method.getName().startsWith("execute")) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                        statements.add(sql == null ? "(batch)" : sql);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    record Usage(List<String> statements, long allocatedBytes) {
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.movesapi.backup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Takes backups of a small SQLite file in tiny steps and checks that the compressed copy
+ * matches its checksum, restores to the same rows and that old backups are pruned.
+ */
+class BackupServiceTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldWriteVerifiedCompressedBackupsAndKeepTheNewest() throws Exception {
+        // Given — a database spanning many pages, backed up 4 pages per step
+        Path db = dir.resolve("source.db");
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + db);
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE movie (id INTEGER PRIMARY KEY, name TEXT NOT NULL)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO movie (name) VALUES (?)")) {
+                for (int i = 0; i < 5000; i++) {
+                    insert.setString(1, "Movie " + i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        Path backups = dir.resolve("backups");
+        BackupService service = new BackupService(dataSource, backups, 4, 0, 20, 2, 0);
+
+        // When — three backups with keep=2
+        service.backup("test");
+        service.backup("test");
+        BackupService.Run run = service.backup("test");
+
+        // Then — the last one is complete, matches its checksum and restores all rows
+        assertThat(run.phase()).isEqualTo(BackupService.Phase.DONE);
+        assertThat(run.pagesRemaining()).isZero();
+        Path file = backups.resolve(run.file());
+        assertThat(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file))))
+                .isEqualTo(run.sha256());
+        assertThat(Files.readString(backups.resolve(run.file() + ".sha256"))).startsWith(run.sha256() + "  " + run.file());
+
+        Path restored = dir.resolve("restored.db");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            Files.copy(in, restored);
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + restored);
+             Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM movie")) {
+            assertThat(count.next()).isTrue();
+            assertThat(count.getInt(1)).isEqualTo(5000);
+        }
+
+        // And — only the two newest backups are left, no temporary files
+        assertThat(service.status().files()).hasSize(2).first().isEqualTo(run.file());
+        try (Stream<Path> files = Files.list(backups)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .allMatch(name -> name.endsWith(BackupService.SUFFIX) || name.endsWith(".sha256"))
+                    .hasSize(4);
+        }
+        service.destroy();
+    }
+}
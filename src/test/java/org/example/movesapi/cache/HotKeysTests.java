@@ -0,0 +1,109 @@
+package org.example.movesapi.cache;
+
+import jakarta.servlet.FilterChain;
+import org.example.movesapi.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feeds skewed traffic to the count-min sketch and checks that the hot keys are found, cool
+ * down with aging, and have their responses pinned until the next write.
+ */
+class HotKeysTests {
+
+    @Test
+    void shouldFindHotKeysInSkewedTraffic() {
+        // Given — 2000 keys called once, two blockbusters called far more often
+        HotKeys hotKeys = new HotKeys(4, 4096, 8);
+        for (int id = 1000; id < 3000; id++) {
+            hotKeys.record("/movies/" + id);
+        }
+        for (int i = 0; i < 500; i++) {
+            hotKeys.record("/movies/1");
+            if (i % 2 == 0) {
+                hotKeys.record(HotKeys.filterKey("/movies", " actor : Keanu Reeves"));
+            }
+        }
+
+        // When
+        HotKeys.Stats stats = hotKeys.stats();
+
+        // Then — both are tracked, hottest first, with estimates that never undercount
+        assertThat(stats.hotKeys()).extracting(HotKeys.HotKey::key)
+                .containsExactly("/movies/1", "/movies?filter=actor:Keanu Reeves");
+        assertThat(stats.hotKeys().get(0).calls()).isGreaterThanOrEqualTo(500);
+        assertThat(stats.hotShare()).isGreaterThan(0.25);
+        assertThat(hotKeys.isHot(HotKeys.requestKey("/movies/1", Map.of()))).isTrue();
+        assertThat(hotKeys.isHot("/movies/1000")).isFalse();
+    }
+
+    @Test
+    void shouldLetFormerHotKeysCoolDown() {
+        // Given — a small sketch, aged every 160 calls
+        HotKeys hotKeys = new HotKeys(1, 16, 8);
+        for (int i = 0; i < 100; i++) {
+            hotKeys.record("/movies/1");
+        }
+        assertThat(hotKeys.isHot("/movies/1")).isTrue();
+
+        // When — the traffic moves to another movie
+        for (int i = 0; i < 1000; i++) {
+            hotKeys.record("/movies/2");
+        }
+
+        // Then
+        assertThat(hotKeys.isHot("/movies/2")).isTrue();
+        assertThat(hotKeys.isHot("/movies/1")).isFalse();
+        assertThat(hotKeys.stats().windowCalls()).isLessThan(160);
+    }
+
+    @Test
+    void shouldPinHotResponsesUntilTheNextWrite() throws Exception {
+        // Given — a handler that counts its calls in the sketch, as the services do
+        HotKeys hotKeys = new HotKeys(4, 64, 3);
+        WriteGenerations generations = new WriteGenerations();
+        HotResponseFilter filter = new HotResponseFilter(hotKeys, new PinnedResponses(), generations);
+        AtomicInteger rendered = new AtomicInteger();
+        FilterChain handler = (request, response) -> {
+            rendered.incrementAndGet();
+            hotKeys.record("/movies/1");
+            response.setContentType("application/json");
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+        for (int i = 0; i < 3; i++) {
+            get(filter, handler);
+        }
+        assertThat(hotKeys.isHot("/movies/1")).isTrue();
+
+        // When — hot: rendered once more and pinned, then served from memory
+        get(filter, handler);
+        MockHttpServletResponse pinned = get(filter, handler);
+
+        // Then
+        assertThat(rendered).hasValue(4);
+        assertThat(pinned.getHeader("X-Cache")).isEqualTo("PINNED");
+        assertThat(pinned.getContentAsString()).isEqualTo("{\"id\":1}");
+
+        // When — a movie was written
+        generations.bump(Movie.class);
+        get(filter, handler);
+        MockHttpServletResponse refreshed = get(filter, handler);
+
+        // Then — rendered again once and pinned again
+        assertThat(rendered).hasValue(5);
+        assertThat(refreshed.getHeader("X-Cache")).isEqualTo("PINNED");
+    }
+
+    private static MockHttpServletResponse get(HotResponseFilter filter, FilterChain handler) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/1"), response, handler);
+        return response;
+    }
+}
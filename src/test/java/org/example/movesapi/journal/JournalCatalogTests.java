@@ -0,0 +1,198 @@
+package org.example.movesapi.journal;
+
+import org.example.movesapi.exceptions.DependencyExistException;
+import org.example.movesapi.model.Actor;
+import org.example.movesapi.model.Genre;
+import org.example.movesapi.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes through the journal services, restarts the catalog from the same directory and
+ * checks that snapshots, replay and torn-tail handling bring back exactly what was acknowledged.
+ */
+class JournalCatalogTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRecoverFromSnapshotAndJournalAfterRestart() throws Exception {
+        // Given — snapshot every 3 records, so the writes span a snapshot and a journal tail
+        JournalCatalog catalog = open();
+        Genre drama = new JournalGenreService(catalog).create(Genre.builder().name("Drama").build());
+        Actor actor = new JournalActorService(catalog).create(
+                Actor.builder().name("Keanu Reeves").birthDate(LocalDate.of(1964, 9, 2)).build());
+        JournalMovieService movies = new JournalMovieService(catalog);
+        Movie matrix = movies.create(movie("The Matrix", drama, actor));
+        Movie speed = movies.create(movie("Speed", drama, actor));
+        Movie deleted = movies.create(movie("Deleted", drama, null));
+        movies.update(speed.getId(), Map.of("releaseYear", 1994));
+        assertThat(movies.delete(deleted.getId(), true)).isTrue();
+        catalog.destroy();
+
+        // When — the catalog is opened again from the same files
+        JournalCatalog recovered = open();
+        JournalMovieService recoveredMovies = new JournalMovieService(recovered);
+
+        // Then — everything acknowledged is back, links included
+        assertThat(recoveredMovies.getAll(PageRequest.of(0, 10), Optional.empty()).getContent())
+                .extracting(Movie::getName)
+                .containsExactly("Speed", "The Matrix");
+        assertThat(recoveredMovies.getById(speed.getId()).getReleaseYear()).isEqualTo(1994);
+        assertThat(recoveredMovies.getById(matrix.getId()).getActors())
+                .extracting(Actor::getName)
+                .containsExactly("Keanu Reeves");
+        assertThat(recoveredMovies.findById(deleted.getId())).isEmpty();
+        assertThatThrownBy(() -> new JournalActorService(recovered).delete(actor.getId(), false))
+                .isInstanceOf(DependencyExistException.class);
+
+        // And — ids are not reused after a delete, and old segments were cleaned up after the snapshot
+        Movie next = recoveredMovies.create(movie("Next", drama, null));
+        assertThat(next.getId()).isGreaterThan(deleted.getId());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.filter(file -> file.getFileName().toString().startsWith("snapshot-"))).hasSize(1);
+        }
+        recovered.destroy();
+    }
+
+    @Test
+    void shouldDiscardTornRecordAtEndOfJournal() throws Exception {
+        // Given — two movies written, then a crash in the middle of the next record
+        JournalCatalog catalog = open();
+        Genre genre = new JournalGenreService(catalog).create(Genre.builder().name("Action").build());
+        JournalMovieService movies = new JournalMovieService(catalog);
+        movies.create(movie("Heat", genre, null));
+        movies.create(movie("Ronin", genre, null));
+        catalog.destroy();
+        Path lastSegment = lastSegment();
+        long complete = Files.size(lastSegment);
+        Files.write(lastSegment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // When
+        JournalCatalog recovered = open();
+
+        // Then — the torn bytes are cut off and the catalog keeps working
+        assertThat(Files.size(lastSegment)).isEqualTo(complete);
+        JournalMovieService recoveredMovies = new JournalMovieService(recovered);
+        assertThat(recoveredMovies.estimateCount(Optional.empty())).isEqualTo(2);
+        recoveredMovies.create(movie("Thief", genre, null));
+        assertThat(recoveredMovies.getAll(PageRequest.of(0, 10), Optional.of("genre:Action")).getContent())
+                .extracting(Movie::getName)
+                .containsExactly("Heat", "Ronin", "Thief");
+        recovered.destroy();
+    }
+
+    @Test
+    void shouldStopServingAfterJournalFailure() throws Exception {
+        // Given — the segment the journal rotates to after 3 records cannot be created
+        JournalCatalog catalog = open();
+        Path blocked = Files.createDirectory(Journal.segmentFile(dir, 2));
+        Genre genre = new JournalGenreService(catalog).create(Genre.builder().name("Noir").build());
+        JournalMovieService movies = new JournalMovieService(catalog);
+        List<String> acknowledged = new ArrayList<>();
+
+        // When — writes go on until the journal fails
+        IllegalStateException failure = null;
+        for (int i = 0; i < 10 && failure == null; i++) {
+            String name = "Movie " + i;
+            try {
+                movies.create(movie(name, genre, null));
+                acknowledged.add(name);
+            } catch (IllegalStateException e) {
+                failure = e;
+            }
+        }
+
+        // Then — memory may hold a write that is not on disk, so nothing is served any more
+        assertThat(failure).isNotNull();
+        assertThatThrownBy(() -> movies.getAll(PageRequest.of(0, 10), Optional.empty()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> movies.findById(1L))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> movies.create(movie("Later", genre, null)))
+                .isInstanceOf(IllegalStateException.class);
+        catalog.destroy();
+
+        // And — a restart brings back every acknowledged write
+        Files.delete(blocked);
+        JournalCatalog recovered = open();
+        assertThat(new JournalMovieService(recovered).getAll(PageRequest.of(0, 20), Optional.empty()).getContent())
+                .extracting(Movie::getName)
+                .containsAll(acknowledged);
+        recovered.destroy();
+    }
+
+    @Test
+    void shouldSettleEveryAppendThatRacesWithClose() throws Exception {
+        // Given — writers keep appending while the journal is closed under them
+        Journal journal = new Journal(dir, 1);
+        List<CompletableFuture<Void>> accepted = new CopyOnWriteArrayList<>();
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            writers.execute(() -> {
+                try {
+                    for (int n = 0; n < 100_000; n++) {
+                        accepted.add(journal.append(new byte[16]));
+                    }
+                } catch (IllegalStateException refused) {
+                    // the journal is closed
+                }
+            });
+        }
+        Thread.sleep(50);
+
+        // When
+        journal.close();
+        writers.shutdown();
+
+        // Then — every append was either refused or settled, none waits forever
+        assertThat(writers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(accepted).isNotEmpty().allMatch(CompletableFuture::isDone);
+    }
+
+    private JournalCatalog open() throws IOException {
+        JournalCatalog catalog = new JournalCatalog(dir, 3, false, 10_000, null);
+        catalog.recover();
+        return catalog;
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(Journal.SEGMENT_PREFIX))
+                    .max(Path::compareTo)
+                    .orElseThrow();
+        }
+    }
+
+    private static Movie movie(String name, Genre genre, Actor actor) {
+        return Movie.builder()
+                .name(name)
+                .releaseYear(1999)
+                .duration(120)
+                .genres(Set.of(genre))
+                .actors(actor == null ? Set.of() : Set.of(actor))
+                .build();
+    }
+}
@@ -8,16 +8,17 @@ INSERT INTO genre (id, name) VALUES
                                  (6, 'Adventure');
 
 -- Актёры
+-- birth_date is stored as days since 1970-01-01 (see V3__epoch_day_birth_dates.sql)
 INSERT INTO actor (id, name, birth_date) VALUES
-                                             (1, 'Keanu Reeves', '1964-09-02'),
-                                             (2, 'Carrie-Anne Moss', '1967-08-21'),
-                                             (3, 'Leonardo DiCaprio', '1974-11-11'),
-                                             (4, 'Matthew McConaughey', '1969-11-04'),
-                                             (5, 'Al Pacino', '1940-04-25'),
-                                             (6, 'Christian Bale', '1974-01-30'),
-                                             (7, 'Brad Pitt', '1963-12-18'),
-                                             (8, 'Tom Hanks', '1956-07-09'),
-                                             (9, 'Russell Crowe', '1964-04-07');
+                                             (1, 'Keanu Reeves', CAST(julianday('1964-09-02') - 2440587.5 AS INTEGER)),
+                                             (2, 'Carrie-Anne Moss', CAST(julianday('1967-08-21') - 2440587.5 AS INTEGER)),
+                                             (3, 'Leonardo DiCaprio', CAST(julianday('1974-11-11') - 2440587.5 AS INTEGER)),
+                                             (4, 'Matthew McConaughey', CAST(julianday('1969-11-04') - 2440587.5 AS INTEGER)),
+                                             (5, 'Al Pacino', CAST(julianday('1940-04-25') - 2440587.5 AS INTEGER)),
+                                             (6, 'Christian Bale', CAST(julianday('1974-01-30') - 2440587.5 AS INTEGER)),
+                                             (7, 'Brad Pitt', CAST(julianday('1963-12-18') - 2440587.5 AS INTEGER)),
+                                             (8, 'Tom Hanks', CAST(julianday('1956-07-09') - 2440587.5 AS INTEGER)),
+                                             (9, 'Russell Crowe', CAST(julianday('1964-04-07') - 2440587.5 AS INTEGER));
 
 -- Фильмы
 INSERT INTO movie (id, name, release_year, duration) VALUES